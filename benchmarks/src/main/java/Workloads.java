@@ -0,0 +1,272 @@
+// FILE: Workloads.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import ising.benchmarks.Workload;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.UUID;
+
+// Factories for the benchmark workloads.  This class is in the unnamed package with the simulation, so it can set up
+// magnets and engines directly; the benchmarks call it through ising.benchmarks.Bridge.  Every workload uses a fixed
+// seed, so runs of a benchmark are comparable.
+public class Workloads
+{
+    private static final long SEED = 1234567;
+    private static final int SAMPLES = 1 << 20; // Samples per run of the Stats and magnetization file workloads.
+
+    //
+    // Spin updates.
+    //
+
+    // One step of the given engine per run.  Moves count the attempted spin updates.
+    public static Workload engine(String engineName, int N, double T, int threads)
+    {
+        return engine(communicator(engineName, N, T, threads));
+    }
+
+    // One checkerboard sweep per run, with the rows updated by the given kernel, "scalar" or "vector".
+    public static Workload kernel(String kernel, int N, double T, int threads)
+    {
+        if (kernel.equals("vector") && !RowKernel.isVectorAvailable())
+        {
+            throw new IllegalStateException("The Vector API is unavailable; add jdk.incubator.vector to the JVM.");
+        }
+        Communicator comms = communicator("checkerboard", N, T, threads);
+        comms.setKernel(kernel);
+        return engine(comms);
+    }
+
+    // One step of the engine the communicator selects per run.
+    private static Workload engine(Communicator comms)
+    {
+        Magnet magnet = Magnet.create(comms);
+        Engine engine = Engine.create(comms, magnet);
+        return new Workload()
+        {
+            @Override
+            public long run()
+            {
+                return engine.step();
+            }
+
+            @Override
+            public long moves()
+            {
+                return engine.getMoves();
+            }
+
+            @Override
+            public void close()
+            {
+                engine.close();
+            }
+        };
+    }
+
+    // One call of Spins.tryMove per run.
+    public static Workload tryMove(int N, double T)
+    {
+        Spins spins = new Spins(communicator("metropolis", N, T, 1));
+        return new Workload()
+        {
+            private long moves = 0;
+
+            @Override
+            public long run()
+            {
+                moves++;
+                return spins.tryMove() ? 1 : 0;
+            }
+
+            @Override
+            public long moves()
+            {
+                return moves;
+            }
+        };
+    }
+
+    // One call of getMag per run, on a magnet brought near equilibrium by a few sweeps.
+    public static Workload getMag(String engineName, int N, double T)
+    {
+        Communicator comms = communicator(engineName, N, T, 1);
+        Magnet magnet = Magnet.create(comms);
+        Engine engine = Engine.create(comms, magnet);
+        long steps = engineName.equals("metropolis") ? 10L*N*N : 10;
+        for (long s = 0; s < steps; s++)
+        {
+            engine.step();
+        }
+        engine.close();
+        return () -> Double.doubleToRawLongBits(magnet.getMag());
+    }
+
+    //
+    // Output and input.
+    //
+
+    // Write a state file of the given format ("binary" or "text") per run, as Communicator.writeState does.
+    public static Workload writeState(String format, int N) throws IOException
+    {
+        return writeState(format, N, Files.createTempFile("ising-bench-", ".state"));
+    }
+
+    // Read a state file of the given format per run, as -s= does.
+    public static Workload readState(String format, int N) throws Exception
+    {
+        Path file = Files.createTempFile("ising-bench-", ".state");
+        Workload writer = writeState(format, N, file);
+        writer.run();
+        return new Workload()
+        {
+            @Override
+            public long run() throws IOException
+            {
+                return SpinState.read(file.toString()).getN();
+            }
+
+            @Override
+            public void close() throws Exception
+            {
+                writer.close();
+            }
+        };
+    }
+
+    // Write SAMPLES magnetization samples to a new file of the given format per run.
+    public static Workload writeMag(String format, boolean compress) throws IOException
+    {
+        Path file = Files.createTempFile("ising-bench-", ".mag");
+        String filename = file.toString();
+        double[] samples = magnetizations(16, 2.26918);
+        MagHeader header = new MagHeader(UUID.randomUUID(), 16, 2.26918, 0, 0, SAMPLES, SEED, format.equals("float"),
+                compress, BinaryMagWriter.CHUNK);
+        return new Workload()
+        {
+            @Override
+            public long run() throws IOException
+            {
+                try(MagWriter writer = MagWriter.create(filename, format, header))
+                {
+                    for (double sample : samples)
+                    {
+                        writer.add(sample);
+                    }
+                }
+                return Files.size(file);
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                Files.deleteIfExists(file);
+            }
+        };
+    }
+
+    // Save a snapshot of an N x N magnet per run.
+    public static Workload makeSnapshot(int N)
+    {
+        Magnet magnet = Magnet.create(communicator("metropolis", N, 3.5, 1));
+        Visualizer visualizer = new Visualizer(true);
+        UUID id = UUID.randomUUID();
+        return new Workload()
+        {
+            @Override
+            public long run()
+            {
+                visualizer.makeSnapshot(id, magnet);
+                return N;
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                Files.deleteIfExists(Paths.get("Ising-snapshot-" + id + ".png"));
+            }
+        };
+    }
+
+    //
+    // Statistics.
+    //
+
+    // Add SAMPLES magnetization samples to a Stats accumulator per run.
+    public static Workload stats()
+    {
+        double[] samples = magnetizations(16, 2.26918);
+        return () ->
+        {
+            Stats stats = new Stats();
+            for (double sample : samples)
+            {
+                stats.add(sample);
+            }
+            return stats.getCount();
+        };
+    }
+
+    //
+    // Private methods.
+    //
+
+    private static Workload writeState(String format, int N, Path file)
+    {
+        Magnet magnet = Magnet.create(communicator("metropolis", N, 3.5, 1));
+        String filename = file.toString();
+        return new Workload()
+        {
+            @Override
+            public long run() throws IOException
+            {
+                if (format.equals("text"))
+                {
+                    SpinState.writeText(filename, magnet);
+                }
+                else
+                {
+                    SpinState.writeBinary(filename, magnet, magnet.getT(), magnet.getH(), SEED, 0);
+                }
+                return Files.size(file);
+            }
+
+            @Override
+            public void close() throws IOException
+            {
+                Files.deleteIfExists(file);
+            }
+        };
+    }
+
+    private static Communicator communicator(String engineName, int N, double T, int threads)
+    {
+        Communicator comms = new Communicator();
+        comms.setEngineName(engineName);
+        comms.setN(N);
+        comms.setT(T);
+        comms.setThreads(threads);
+        comms.setSeed(SEED);
+        comms.setQuiet(true);
+        return comms;
+    }
+
+    // A realistic series of magnetizations: one per checkerboard sweep of an N x N magnet at temperature T.
+    private static double[] magnetizations(int N, double T)
+    {
+        Communicator comms = communicator("checkerboard", N, T, 1);
+        Magnet magnet = Magnet.create(comms);
+        Engine engine = Engine.create(comms, magnet);
+        double[] samples = new double[SAMPLES];
+        for (int k = 0; k < SAMPLES; k++)
+        {
+            engine.step();
+            samples[k] = magnet.getMag();
+        }
+        engine.close();
+        return samples;
+    }
+}
@@ -0,0 +1,38 @@
+// FILE: Bridge.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+// Builds workloads by calling the static factory methods of Workloads, in the unnamed package, by reflection.  This
+// only happens during setup; the benchmarks then call the workloads through the Workload interface.
+public class Bridge
+{
+    private Bridge()
+    {
+    }
+
+    // Call the factory method of the given name with the given arguments.
+    public static Workload workload(String name, Object... args) throws Exception
+    {
+        Class<?> workloads = Class.forName("Workloads");
+        for (Method method : workloads.getMethods())
+        {
+            if (method.getName().equals(name) && method.getParameterCount() == args.length)
+            {
+                try
+                {
+                    return (Workload) method.invoke(null, args);
+                }
+                catch(InvocationTargetException e)
+                {
+                    throw e.getCause() instanceof Exception ? (Exception) e.getCause() : e;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Unknown workload: " + name);
+    }
+}
@@ -0,0 +1,65 @@
+// FILE: EngineBenchmark.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// One step of each update engine.  A step means one move, one sweep or one cluster depending on the engine, so
+// compare engines by the flips and accepted counters, which are per nanosecond.  The temperatures cover the ordered
+// phase (1.5), the critical point (2.26918) and the disordered phase (3.5).
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class EngineBenchmark
+{
+    @Param({"metropolis", "checkerboard", "multispin", "wolff", "sw"})
+    public String engine;
+
+    @Param({"64", "256", "1024"})
+    public int N;
+
+    @Param({"1.5", "2.26918", "3.5"})
+    public double T;
+
+    @Param({"1"})
+    public int threads;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        workload = Bridge.workload("engine", engine, N, T, threads);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        workload.close();
+    }
+
+    @Benchmark
+    public long step(Flips flips) throws Exception
+    {
+        return flips.count(workload);
+    }
+}
@@ -0,0 +1,39 @@
+// FILE: Flips.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Counters reported alongside the operation rate: attempted spin updates ("flips") and accepted flips.  In throughput
+// mode JMH reports them per unit of time, so with nanoseconds as the unit they are flips per nanosecond, whatever one
+// operation of the benchmark amounts to.
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+@State(Scope.Thread)
+public class Flips
+{
+    public long flips;
+    public long accepted;
+
+    @Setup(Level.Iteration)
+    public void reset()
+    {
+        flips = 0;
+        accepted = 0;
+    }
+
+    // Run a spin update workload once and count its flips.
+    long count(Workload workload) throws Exception
+    {
+        long before = workload.moves();
+        long result = workload.run();
+        flips += workload.moves() - before;
+        accepted += result;
+        return result;
+    }
+}
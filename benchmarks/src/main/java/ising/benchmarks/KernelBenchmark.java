@@ -0,0 +1,61 @@
+// FILE: KernelBenchmark.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// One checkerboard sweep with the scalar and the Vector API row kernels, on one thread so that the kernels are
+// compared rather than the thread pool.  The forked JVM gets the jdk.incubator.vector module.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+@State(Scope.Thread)
+public class KernelBenchmark
+{
+    @Param({"scalar", "vector"})
+    public String kernel;
+
+    @Param({"64", "256", "1024"})
+    public int N;
+
+    @Param({"1.5", "2.26918", "3.5"})
+    public double T;
+
+    private Workload workload;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        workload = Bridge.workload("kernel", kernel, N, T, 1);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        workload.close();
+    }
+
+    @Benchmark
+    public long sweep(Flips flips) throws Exception
+    {
+        return flips.count(workload);
+    }
+}
@@ -0,0 +1,61 @@
+// FILE: MagFileBenchmark.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Streaming magnetization samples to a file in each format, reported per sample.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class MagFileBenchmark
+{
+    private static final int SAMPLES = 1 << 20; // As in Workloads.
+
+    @Param({"double", "float", "text"})
+    public String format;
+
+    @Param({"false", "true"})
+    public boolean compress;
+
+    private Workload writeMag;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        writeMag = Bridge.workload("writeMag", format, compress);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        writeMag.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long writeMag() throws Exception
+    {
+        return writeMag.run();
+    }
+}
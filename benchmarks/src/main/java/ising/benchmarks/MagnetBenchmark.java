@@ -0,0 +1,63 @@
+// FILE: MagnetBenchmark.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// The single-spin move Spins.tryMove, and getMag on both lattice representations (Spins for "metropolis", PackedSpins
+// for "multispin"), over lattice sizes and the ordered (1.5), critical (2.26918) and disordered (3.5) regimes.
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class MagnetBenchmark
+{
+    @Param({"64", "256", "1024"})
+    public int N;
+
+    @Param({"1.5", "2.26918", "3.5"})
+    public double T;
+
+    @Param({"metropolis", "multispin"})
+    public String lattice;
+
+    private Workload tryMove;
+    private Workload getMag;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        tryMove = Bridge.workload("tryMove", N, T);
+        getMag = Bridge.workload("getMag", lattice, N, T);
+    }
+
+    // Only Spins has tryMove, so this ignores the lattice parameter.
+    @Benchmark
+    public long tryMove(Flips flips) throws Exception
+    {
+        return flips.count(tryMove);
+    }
+
+    @Benchmark
+    public long getMag() throws Exception
+    {
+        return getMag.run();
+    }
+}
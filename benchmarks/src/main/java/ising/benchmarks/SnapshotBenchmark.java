@@ -0,0 +1,55 @@
+// FILE: SnapshotBenchmark.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Rendering and saving a snapshot with Visualizer.makeSnapshot.  The image is written to the working directory and
+// deleted afterwards.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class SnapshotBenchmark
+{
+    @Param({"256", "1024", "4096"})
+    public int N;
+
+    private Workload makeSnapshot;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        makeSnapshot = Bridge.workload("makeSnapshot", N);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        makeSnapshot.close();
+    }
+
+    @Benchmark
+    public long makeSnapshot() throws Exception
+    {
+        return makeSnapshot.run();
+    }
+}
@@ -0,0 +1,66 @@
+// FILE: StateFileBenchmark.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Writing and reading state files, as done by Communicator.writeState and -s=, in both formats.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Thread)
+public class StateFileBenchmark
+{
+    @Param({"binary", "text"})
+    public String format;
+
+    @Param({"256", "1024", "4096"})
+    public int N;
+
+    private Workload writeState;
+    private Workload readState;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        writeState = Bridge.workload("writeState", format, N);
+        readState = Bridge.workload("readState", format, N);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws Exception
+    {
+        writeState.close();
+        readState.close();
+    }
+
+    @Benchmark
+    public long writeState() throws Exception
+    {
+        return writeState.run();
+    }
+
+    @Benchmark
+    public long readState() throws Exception
+    {
+        return readState.run();
+    }
+}
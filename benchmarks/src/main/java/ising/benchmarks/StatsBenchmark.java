@@ -0,0 +1,47 @@
+// FILE: StatsBenchmark.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+// Adding samples to a Stats accumulator, reported per sample.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class StatsBenchmark
+{
+    private static final int SAMPLES = 1 << 20; // As in Workloads.
+
+    private Workload stats;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception
+    {
+        stats = Bridge.workload("stats");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(SAMPLES)
+    public long add() throws Exception
+    {
+        return stats.run();
+    }
+}
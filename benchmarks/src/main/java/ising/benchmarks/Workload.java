@@ -0,0 +1,25 @@
+// FILE: Workload.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+package ising.benchmarks;
+
+// One of the simulation's hot paths, set up and ready to run.  The simulation classes are in the unnamed package,
+// which JMH benchmarks cannot be in and code in a named package cannot refer to, so the workloads are built by the
+// Workloads class in the unnamed package and reached through this interface (see Bridge).
+public interface Workload
+{
+    // Run the workload once and return a result for the blackhole, e.g. the number of accepted flips.
+    long run() throws Exception;
+
+    // Spin updates attempted so far, for workloads that update spins.
+    default long moves()
+    {
+        return 0;
+    }
+
+    // Release threads and delete files.
+    default void close() throws Exception
+    {
+    }
+}
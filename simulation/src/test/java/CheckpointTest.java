@@ -0,0 +1,78 @@
+// FILE: CheckpointTest.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+
+// A run resumed from a checkpoint must continue exactly as if it had not been interrupted.
+public class CheckpointTest
+{
+    // The last checkpoint of a run is taken during the measurements, so resuming from it repeats the rest of the
+    // run, which must give the same statistics and observables, bit for bit, and the same magnetization, correlation
+    // and histogram files.
+    @Test
+    public void resumedRunMatchesUninterruptedRun() throws IOException
+    {
+        Communicator comms = new Communicator(new String[] {"-n=16", "-t=2.3", "-e=2000", "-m=20000", "-seed=11",
+                "-checkpoint=15000", "-magcompress=true", "-correlation=10", "-histogram=true"});
+        assertTrue(comms.getValid());
+        comms.setQuiet(true);
+        Simulation uninterrupted = new Simulation(comms);
+        uninterrupted.run();
+        Path mag = Paths.get("Ising-magnetization-" + comms.getId() + ".mag");
+        byte[] expectedMag = Files.readAllBytes(mag);
+        byte[] expectedCorrelation = Files.readAllBytes(Paths.get("Ising-correlation-" + comms.getId() + ".dat"));
+        byte[] expectedHistogram = Files.readAllBytes(Paths.get("Ising-histogram-" + comms.getId() + ".hist"));
+
+        Communicator resumed = new Communicator(new String[] {"-resume=" + comms.getCheckpointName()});
+        assertTrue(resumed.getValid());
+        assertEquals(comms.getId(), resumed.getId());
+        assertEquals(Checkpoint.MEASUREMENT, resumed.getResume().getStage());
+        assertEquals(13000, resumed.getResume().getStep());
+        resumed.setQuiet(true);
+        Simulation continued = new Simulation(resumed);
+        continued.run();
+
+        Stats expected = uninterrupted.getStats();
+        Stats actual = continued.getStats();
+        assertEquals(expected.getCount(), actual.getCount());
+        assertEquals(expected.getAvg(), actual.getAvg());
+        assertEquals(expected.getVar(), actual.getVar());
+        assertEquals(expected.getError(), actual.getError());
+        assertEquals(uninterrupted.getObservables().getEnergy(), continued.getObservables().getEnergy());
+        assertEquals(uninterrupted.getObservables().getSpecificHeat(), continued.getObservables().getSpecificHeat());
+        assertEquals(uninterrupted.getObservables().getBinderError(), continued.getObservables().getBinderError());
+        assertEquals(uninterrupted.getAcceptRate(), continued.getAcceptRate());
+        assertArrayEquals(expectedMag, Files.readAllBytes(mag));
+        assertArrayEquals(expectedCorrelation,
+                Files.readAllBytes(Paths.get("Ising-correlation-" + comms.getId() + ".dat")));
+        assertArrayEquals(expectedHistogram,
+                Files.readAllBytes(Paths.get("Ising-histogram-" + comms.getId() + ".hist")));
+    }
+
+    // A checkpoint due on the very last step waits for the magnetization file, which is only flushed as the run
+    // ends, and must still be written.
+    @Test
+    public void checkpointOnLastStepIsWritten() throws IOException
+    {
+        Communicator comms = new Communicator(new String[] {"-n=16", "-e=0", "-m=3000", "-checkpoint=3000",
+                "-magformat=text"});
+        assertTrue(comms.getValid());
+        comms.setQuiet(true);
+        new Simulation(comms).run();
+        assertTrue(Files.exists(Paths.get(comms.getCheckpointName())));
+
+        Communicator resumed = new Communicator(new String[] {"-resume=" + comms.getCheckpointName()});
+        assertTrue(resumed.getValid());
+        assertEquals(Checkpoint.MEASUREMENT, resumed.getResume().getStage());
+        assertEquals(3000, resumed.getResume().getStep());
+    }
+}
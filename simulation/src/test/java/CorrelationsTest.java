@@ -0,0 +1,72 @@
+// FILE: CorrelationsTest.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+// The FFT measurement of one lattice must agree with the defining sums, computed directly.
+public class CorrelationsTest
+{
+    private static final double TOLERANCE = 1e-9;
+
+    @Test
+    public void matchesDirectSums()
+    {
+        for (String engine : new String[] {"metropolis", "multispin"})
+        {
+            Communicator comms = new Communicator(new String[] {"-n=16", "-t=3", "-seed=9", "-correlation=1",
+                    "-engine=" + engine, "-threads=3"});
+            comms.setQuiet(true);
+            Magnet magnet = Magnet.create(comms);
+            int N = magnet.getN();
+            Correlations correlations = new Correlations(comms);
+            correlations.begin(0);
+            correlations.measure(magnet, (long) N*N);
+            correlations.close();
+            assertEquals(1, correlations.getCount());
+
+            // S(k) = |sum_x s_x exp(-i k.x)|^2/N^2.
+            double[] s = correlations.getStructureFactor();
+            for (int ky = 0; ky < N; ky++)
+            {
+                for (int kx = 0; kx < N; kx++)
+                {
+                    double re = 0;
+                    double im = 0;
+                    for (int y = 0; y < N; y++)
+                    {
+                        for (int x = 0; x < N; x++)
+                        {
+                            double phase = -2*Math.PI*((double) kx*x + (double) ky*y)/N;
+                            re += magnet.getSpin(y, x)*Math.cos(phase);
+                            im += magnet.getSpin(y, x)*Math.sin(phase);
+                        }
+                    }
+                    assertEquals((re*re + im*im)/(N*N), s[ky*N + kx], TOLERANCE, "S at " + kx + ", " + ky);
+                }
+            }
+
+            // C(r) = sum_x s_x s_{x+r}/N^2, so C(0) = 1.
+            double[] c = correlations.getCorrelation();
+            assertEquals(1, c[0], TOLERANCE);
+            for (int dy = 0; dy < N; dy++)
+            {
+                for (int dx = 0; dx < N; dx++)
+                {
+                    double sum = 0;
+                    for (int y = 0; y < N; y++)
+                    {
+                        for (int x = 0; x < N; x++)
+                        {
+                            sum += magnet.getSpin(y, x)*magnet.getSpin((y + dy)%N, (x + dx)%N);
+                        }
+                    }
+                    assertEquals(sum/(N*N), c[dy*N + dx], TOLERANCE, "C at " + dx + ", " + dy);
+                }
+            }
+            assertEquals(magnet.getMag(), correlations.getMag());
+        }
+    }
+}
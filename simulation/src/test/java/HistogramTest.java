@@ -0,0 +1,71 @@
+// FILE: HistogramTest.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.TreeMap;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// A histogram must keep its counts through a checkpoint and through its text file.
+public class HistogramTest
+{
+    @TempDir
+    Path dir;
+
+    @Test
+    public void saveAndRestore() throws IOException
+    {
+        Histogram histogram = filled();
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        histogram.save(new DataOutputStream(bytes));
+        Histogram restored = new Histogram(16, 2.3, 0);
+        restored.add(1, 1); // Replaced by the restored counts.
+        restored.restore(new DataInputStream(new ByteArrayInputStream(bytes.toByteArray())));
+        assertEquals(histogram.getSamples(), restored.getSamples());
+        assertEquals(histogram.getSize(), restored.getSize());
+        assertEquals(counts(histogram), counts(restored));
+    }
+
+    @Test
+    public void writeAndRead() throws IOException
+    {
+        Histogram histogram = filled();
+        String filename = dir.resolve("counts.hist").toString();
+        histogram.write(filename);
+        Histogram read = Histogram.read(filename);
+        assertEquals(histogram.getN(), read.getN());
+        assertEquals(histogram.getT(), read.getT());
+        assertEquals(histogram.getH(), read.getH());
+        assertEquals(histogram.getSamples(), read.getSamples());
+        assertEquals(counts(histogram), counts(read));
+    }
+
+    // Enough distinct pairs for the table to grow several times, most of them counted more than once.
+    private static Histogram filled()
+    {
+        Histogram histogram = new Histogram(16, 2.3, 0.05);
+        SplittableRandom random = new SplittableRandom(7);
+        for (int k = 0; k < 100000; k++)
+        {
+            histogram.add(4*random.nextInt(-128, 129), 2*random.nextInt(-64, 65));
+        }
+        return histogram;
+    }
+
+    private static Map<String, Long> counts(Histogram histogram)
+    {
+        Map<String, Long> counts = new TreeMap<>();
+        histogram.forEach((bondSum, magSum, count) -> counts.put(bondSum + " " + magSum, count));
+        return counts;
+    }
+}
@@ -0,0 +1,69 @@
+// FILE: MagFileTest.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.SplittableRandom;
+import java.util.UUID;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+// Binary magnetization files, plain and compressed, must read back the samples written to them.
+public class MagFileTest
+{
+    private static final int SAMPLES = 2*BinaryMagWriter.CHUNK + 1234; // More than one block, the last partial.
+
+    @TempDir
+    Path dir;
+
+    @ParameterizedTest
+    @CsvSource({"false, false", "false, true", "true, false", "true, true"})
+    public void binaryRoundTrip(boolean useFloat, boolean compressed) throws IOException
+    {
+        String filename = dir.resolve("samples.mag").toString();
+        UUID id = UUID.randomUUID();
+        MagHeader header = new MagHeader(id, 32, 2.3, 0.1, 1000, SAMPLES, 77, useFloat, compressed,
+                BinaryMagWriter.CHUNK);
+        double[] samples = new double[SAMPLES];
+        SplittableRandom random = new SplittableRandom(3);
+        for (int k = 0; k < SAMPLES; k++)
+        {
+            samples[k] = 2*random.nextDouble() - 1;
+        }
+        try(BinaryMagWriter writer = new BinaryMagWriter(filename, header))
+        {
+            for (double sample : samples)
+            {
+                writer.add(sample);
+            }
+        }
+
+        try(MagReader reader = new MagReader(filename))
+        {
+            MagHeader read = reader.getHeader();
+            assertEquals(id, read.getId());
+            assertEquals(32, read.getN());
+            assertEquals(2.3, read.getT());
+            assertEquals(0.1, read.getH());
+            assertEquals(77, read.getSeed());
+            assertEquals(SAMPLES, read.getSamples());
+            double[] values = new double[1000];
+            int total = 0;
+            int count;
+            while ((count = reader.read(values)) >= 0)
+            {
+                for (int k = 0; k < count; k++)
+                {
+                    double expected = useFloat ? (float) samples[total + k] : samples[total + k];
+                    assertEquals(expected, values[k], "sample " + (total + k));
+                }
+                total += count;
+            }
+            assertEquals(SAMPLES, total);
+        }
+    }
+}
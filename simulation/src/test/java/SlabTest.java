@@ -0,0 +1,66 @@
+// FILE: SlabTest.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// A lattice split over worker JVMs on this machine must be swept as the in-process multispin engine sweeps it.
+public class SlabTest
+{
+    @TempDir
+    Path dir;
+
+    // With -debug the running totals the workers report are checked against a recount of their slabs at every
+    // measurement, so a lost or doubled edge row fails the run.  N = 130 leaves part of the last word of each
+    // half-row unused.
+    @Test
+    public void runningTotalsMatchRecount()
+    {
+        Communicator comms = communicator("-n=130", "-t=2.3", "-slabs=2");
+        Simulation simulation = new Simulation(comms);
+        simulation.run();
+        assertEquals(2000, simulation.getStats().getCount());
+    }
+
+    // A worker of rank r draws from the same generator as strip r of the in-process engine, so with one strip per
+    // slab (four strips per thread) and the same initial lattice the two must end in the very same state.
+    @Test
+    public void slabsMatchInProcessEngine() throws IOException
+    {
+        String initial = dir.resolve("initial.state").toString();
+        Communicator hot = new Communicator(new String[] {"-n=96", "-t=3", "-seed=5"});
+        hot.setQuiet(true);
+        SpinState.writeBinary(initial, Magnet.create(hot), 3, 0, 5, 0);
+
+        Communicator inProcess = communicator("-n=96", "-t=2.3", "-threads=1", "-s=" + initial);
+        new Simulation(inProcess).run();
+        Communicator distributed = communicator("-n=96", "-t=2.3", "-threads=1", "-s=" + initial, "-slabs=4");
+        new Simulation(distributed).run();
+        assertArrayEquals(Files.readAllBytes(Paths.get("Ising-state-" + inProcess.getId() + ".state")),
+                Files.readAllBytes(Paths.get("Ising-state-" + distributed.getId() + ".state")));
+    }
+
+    private static Communicator communicator(String... options)
+    {
+        String[] args = new String[options.length + 5];
+        args[0] = "-engine=multispin";
+        args[1] = "-e=500";
+        args[2] = "-m=2000";
+        args[3] = "-seed=17";
+        args[4] = "-debug=true";
+        System.arraycopy(options, 0, args, 5, options.length);
+        Communicator comms = new Communicator(args);
+        assertTrue(comms.getValid());
+        comms.setQuiet(true);
+        return comms;
+    }
+}
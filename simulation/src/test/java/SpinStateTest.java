@@ -0,0 +1,79 @@
+// FILE: SpinStateTest.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Path;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+// State files of both formats must give back the lattice they were written from.
+public class SpinStateTest
+{
+    @TempDir
+    Path dir;
+
+    // N = 70 leaves part of the last word of each row unused.
+    @Test
+    public void binaryRoundTrip() throws IOException
+    {
+        Magnet magnet = randomMagnet(70);
+        String filename = dir.resolve("lattice.state").toString();
+        SpinState.writeBinary(filename, magnet, 2.5, -0.25, 42, 123456789L);
+        SpinState state = SpinState.read(filename);
+        assertSameSpins(magnet, state);
+        assertEquals(2.5, state.getT());
+        assertEquals(-0.25, state.getH());
+        assertEquals(42, state.getSeed());
+        assertEquals(123456789L, state.getSteps());
+    }
+
+    @Test
+    public void textRoundTrip() throws IOException
+    {
+        Magnet magnet = randomMagnet(37);
+        String filename = dir.resolve("lattice.txt").toString();
+        SpinState.writeText(filename, magnet);
+        assertSameSpins(magnet, SpinState.read(filename));
+    }
+
+    // A damaged spin word must be caught by the checksum.
+    @Test
+    public void corruptBinaryFileIsRefused() throws IOException
+    {
+        Magnet magnet = randomMagnet(64);
+        String filename = dir.resolve("corrupt.state").toString();
+        SpinState.writeBinary(filename, magnet, 2.5, 0, 1, 0);
+        try(RandomAccessFile file = new RandomAccessFile(filename, "rw"))
+        {
+            file.seek(SpinState.HEADER_BYTES + 100);
+            int value = file.read();
+            file.seek(SpinState.HEADER_BYTES + 100);
+            file.write(value ^ 0x10);
+        }
+        assertThrows(IOException.class, () -> SpinState.read(filename));
+    }
+
+    private static Magnet randomMagnet(int N)
+    {
+        Communicator comms = new Communicator(new String[] {"-n=" + N, "-t=3", "-seed=5"});
+        comms.setQuiet(true);
+        return Magnet.create(comms);
+    }
+
+    private static void assertSameSpins(Magnet magnet, SpinState state)
+    {
+        assertEquals(magnet.getN(), state.getN());
+        for (int i = 0; i < magnet.getN(); i++)
+        {
+            for (int j = 0; j < magnet.getN(); j++)
+            {
+                assertEquals(magnet.getSpin(i, j), state.getSpin(i, j), "spin (" + i + ", " + j + ")");
+            }
+        }
+    }
+}
@@ -0,0 +1,186 @@
+// FILE: AsyncMagWriter.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
+
+// Hands magnetization samples to another writer in batches, which it writes on the output threads while the
+// simulation goes on.  Batches are written in order, one after another.  A few batch buffers circulate between the
+// simulation and the writer threads, so memory stays bounded; the simulation only waits if all of them are still
+// being written.  An error on a writer thread is reported by the next call on the simulation thread.
+public class AsyncMagWriter implements MagWriter
+{
+    private static final int BATCH = 1 << 16; // Samples per batch.
+    private static final int BUFFERS = 3;
+    private final MagWriter writer;
+    private final Executor executor;
+    private final BlockingQueue<double[]> free = new ArrayBlockingQueue<>(BUFFERS);
+    private double[] batch;
+    private int filled = 0;
+    private CompletableFuture<Void> tail = CompletableFuture.completedFuture(null); // The last batch handed over.
+    private volatile IOException failure;
+
+    //
+    // Constructor.
+    //
+    public AsyncMagWriter(MagWriter writer, Executor executor)
+    {
+        this.writer = writer;
+        this.executor = executor;
+        for (int k = 1; k < BUFFERS; k++)
+        {
+            free.add(new double[BATCH]);
+        }
+        batch = new double[BATCH];
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public void add(double value) throws IOException
+    {
+        batch[filled++] = value;
+        if (filled == BATCH)
+        {
+            handOver(false);
+        }
+    }
+
+    // Write out all samples so far and wait until they are in the file.
+    @Override
+    public void flush() throws IOException
+    {
+        handOver(true);
+        tail.join();
+        check();
+    }
+
+    // Write out all samples so far without waiting.  The length of the file once they are in it is taken on an
+    // output thread, behind the batches before it, and completes the returned future.
+    public CompletableFuture<Long> flushLater() throws IOException
+    {
+        handOver(true);
+        CompletableFuture<Long> bytes = new CompletableFuture<>();
+        tail = tail.thenRun(() ->
+        {
+            try
+            {
+                check();
+                bytes.complete(writer.getBytes());
+            }
+            catch(IOException e)
+            {
+                bytes.completeExceptionally(e);
+            }
+        });
+        return bytes;
+    }
+
+    @Override
+    public long getBytes() throws IOException
+    {
+        tail.join();
+        check();
+        return writer.getBytes();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            handOver(false);
+            tail.join();
+        }
+        finally
+        {
+            writer.close();
+        }
+        check();
+    }
+
+    // Queue the remaining samples and then the given task, which closes the underlying writer, behind the batches
+    // before them, without waiting.  Safe to call from an output thread, where close() could wait for batches
+    // queued behind it.  This writer must not be used afterwards.
+    public CompletableFuture<Void> closeLater(Consumer<MagWriter> closer)
+    {
+        double[] last = batch;
+        int count = filled;
+        batch = null;
+        tail = tail.thenRunAsync(() ->
+        {
+            write(last, count, false);
+            if (failure != null)
+            {
+                System.err.println(failure.getMessage());
+            }
+            closer.accept(writer);
+        }, executor);
+        return tail;
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Queue the current batch for writing behind the batches before it, and take a free buffer for the next.
+    private void handOver(boolean flush) throws IOException
+    {
+        check();
+        double[] full = batch;
+        int count = filled;
+        tail = tail.thenRunAsync(() -> write(full, count, flush), executor);
+        try
+        {
+            batch = free.take();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IOException("Interrupted while waiting for the magnetization file.");
+        }
+        filled = 0;
+    }
+
+    // Runs on an output thread.  The buffer always goes back to the free list, even after an error.
+    private void write(double[] samples, int count, boolean flush)
+    {
+        try
+        {
+            if (failure == null)
+            {
+                for (int k = 0; k < count; k++)
+                {
+                    writer.add(samples[k]);
+                }
+                if (flush)
+                {
+                    writer.flush();
+                }
+            }
+        }
+        catch(IOException e)
+        {
+            failure = e;
+        }
+        finally
+        {
+            free.add(samples);
+        }
+    }
+
+    private void check() throws IOException
+    {
+        if (failure != null)
+        {
+            throw failure;
+        }
+    }
+}
@@ -0,0 +1,305 @@
+// FILE: BatchRunner.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.BufferedReader;
+import java.io.FileReader;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Runs a batch of simulations in one JVM.  Each parameter set is a task on its own virtual thread, and a semaphore
+// bounds how many of them compute at once.  Every run writes its usual files, and a consolidated table of results
+// is written at the end.
+//
+// The batch specification is a text file in one of two forms; blank lines and text after '#' are ignored.
+// -- Ranges, one parameter per line, whose Cartesian product is run, e.g.
+//        n = 32, 64
+//        t = 2.0:2.6:0.1
+//        h = 0
+//    Values are comma separated, and start:stop:step expands to a range including stop.
+// -- A CSV table with a header line naming the parameters, and one parameter set per row, e.g.
+//        n,t,h
+//        64,2.2,0
+//        128,2.3,0.1
+// The parameters are n, t, h, e, m and seed.  Anything not given is taken from the command line.  Runs without an
+// explicit seed get one drawn from the command line seed, so a batch is reproducible as a whole.
+public class BatchRunner
+{
+    private static final String[] NAMES = {"n", "t", "h", "e", "m", "seed"};
+    private final Communicator comms;
+
+    //
+    // Constructor.
+    //
+    public BatchRunner(Communicator comms)
+    {
+        this.comms = comms;
+    }
+
+    //
+    // Public methods.
+    //
+
+    public void run()
+    {
+        List<Communicator> runs;
+        try
+        {
+            runs = readSpec(comms.getBatchSpec());
+        }
+        catch(IOException e)
+        {
+            System.err.println("IOException: " + e.getMessage());
+            return;
+        }
+        catch(IllegalArgumentException e)
+        {
+            System.err.println("Illegal argument exception: " + e.getMessage());
+            return;
+        }
+        comms.informBatchStart(runs.size());
+
+        // One virtual thread per run, with at most 'permits' of them simulating at any time.
+        Semaphore permits = new Semaphore(comms.getPermits());
+        AtomicInteger done = new AtomicInteger();
+        String[] rows = new String[runs.size()];
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor())
+        {
+            for (int k = 0; k < runs.size(); k++)
+            {
+                final int index = k;
+                final Communicator run = runs.get(k);
+                executor.submit(() ->
+                {
+                    permits.acquireUninterruptibly();
+                    try
+                    {
+                        rows[index] = simulate(index, run);
+                    }
+                    finally
+                    {
+                        permits.release();
+                    }
+                    comms.informBatchProgress(done.incrementAndGet(), rows.length, run.getId());
+                });
+            }
+        }
+
+        comms.writeBatchTable(rows);
+        comms.bye();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Run one simulation and format its row of the results table.
+    private String simulate(int index, Communicator run)
+    {
+        String parameters = String.format(Locale.US, "%d,%s,%d,%s,%s,%d,%d,%s,%d", index, run.getId(), run.getN(),
+                run.getT(), run.getH(), run.getEqSteps(), run.getMeasureSteps(), run.getEngineName(), run.getSeed());
+        if (!run.getValid())
+        {
+            return parameters + ",invalid,,,,,";
+        }
+        try
+        {
+            Simulation simulation = new Simulation(run);
+            simulation.run();
+            Stats stats = simulation.getStats();
+            return parameters + "," + stats.getAvg() + "," + stats.getVar() + "," + stats.getError() + ","
+                    + stats.getTau() + "," + simulation.getAcceptRate() + "," + simulation.getSweepRate();
+        }
+        catch(Throwable e)
+        {
+            // Errors too, e.g. running out of memory, so that every run has its row in the table.
+            System.err.println("Run " + run.getId() + " failed: " + e);
+            return parameters + ",failed,,,,,";
+        }
+    }
+
+    // Read the batch specification into one Communicator per run.
+    private List<Communicator> readSpec(String filename) throws IOException
+    {
+        List<String> lines = new ArrayList<>();
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename)))
+        {
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                int comment = line.indexOf('#');
+                if (comment >= 0)
+                {
+                    line = line.substring(0, comment);
+                }
+                line = line.trim();
+                if (!line.isEmpty())
+                {
+                    lines.add(line);
+                }
+            }
+        }
+        if (lines.isEmpty())
+        {
+            throw new IOException("Batch specification is empty!");
+        }
+
+        List<String[]> names = new ArrayList<>();
+        List<String[]> sets = new ArrayList<>();
+        if (lines.get(0).contains("="))
+        {
+            // Ranges: expand the Cartesian product of the listed values.
+            List<String> rangeNames = new ArrayList<>();
+            List<List<String>> rangeValues = new ArrayList<>();
+            for (String line : lines)
+            {
+                String[] parts = line.split("=", 2);
+                if (parts.length != 2)
+                {
+                    throw new IllegalArgumentException("Expected name = values in batch specification: " + line);
+                }
+                rangeNames.add(checkName(parts[0].trim()));
+                rangeValues.add(expand(parts[1]));
+            }
+            String[] header = rangeNames.toArray(new String[0]);
+            addProduct(header, rangeValues, 0, new String[header.length], names, sets);
+        }
+        else
+        {
+            // CSV: a header line followed by one parameter set per row.
+            String[] header = lines.get(0).split(",");
+            for (int c = 0; c < header.length; c++)
+            {
+                header[c] = checkName(header[c].trim());
+            }
+            for (int r = 1; r < lines.size(); r++)
+            {
+                String[] values = lines.get(r).split(",");
+                if (values.length != header.length)
+                {
+                    throw new IllegalArgumentException("Wrong number of columns in batch specification: "
+                            + lines.get(r));
+                }
+                names.add(header);
+                sets.add(values);
+            }
+        }
+
+        // Build the parameter sets on copies of the command line parameters.
+        Rng seeder = new SplitMixRng(comms.getSeed());
+        List<Communicator> runs = new ArrayList<>();
+        for (int k = 0; k < sets.size(); k++)
+        {
+            Communicator run = comms.copy();
+            run.setQuiet(true);
+            run.setSeed(seeder.nextLong());
+            for (int c = 0; c < names.get(k).length; c++)
+            {
+                apply(run, names.get(k)[c], sets.get(k)[c].trim());
+            }
+            run.validate();
+            runs.add(run);
+        }
+        return runs;
+    }
+
+    private void apply(Communicator run, String name, String value)
+    {
+        switch (name)
+        {
+            case "n":
+                run.setN(Integer.parseInt(value));
+                break;
+            case "t":
+                run.setT(Double.parseDouble(value));
+                break;
+            case "h":
+                run.setH(Double.parseDouble(value));
+                break;
+            case "e":
+                run.setEqSteps(Long.parseLong(value));
+                break;
+            case "m":
+                run.setMeasureSteps(Long.parseLong(value));
+                break;
+            case "seed":
+                run.setSeed(Long.parseLong(value));
+                break;
+        }
+    }
+
+    private static String checkName(String name)
+    {
+        String lower = name.toLowerCase(Locale.US);
+        for (String known : NAMES)
+        {
+            if (known.equals(lower))
+            {
+                return lower;
+            }
+        }
+        throw new IllegalArgumentException("Unknown parameter in batch specification: " + name);
+    }
+
+    // Expand a comma separated list of values and start:stop:step ranges.  Ranges are counted in decimal, so the
+    // values come out as written, e.g. 2.2:2.4:0.05 gives 2.20, 2.25, ... rather than 2.3000000000000003.
+    private static List<String> expand(String values)
+    {
+        List<String> expanded = new ArrayList<>();
+        for (String item : values.split(","))
+        {
+            String[] range = item.trim().split(":");
+            if (range.length == 1)
+            {
+                expanded.add(range[0]);
+            }
+            else if (range.length == 3)
+            {
+                BigDecimal start = new BigDecimal(range[0].trim());
+                BigDecimal stop = new BigDecimal(range[1].trim());
+                BigDecimal step = new BigDecimal(range[2].trim());
+                if (step.signum() <= 0)
+                {
+                    throw new IllegalArgumentException("Range step must be positive: " + item);
+                }
+                if (stop.compareTo(start) < 0)
+                {
+                    throw new IllegalArgumentException("Range stop cannot be less than its start: " + item);
+                }
+                long count = stop.subtract(start).divideToIntegralValue(step).longValueExact() + 1;
+                for (long k = 0; k < count; k++)
+                {
+                    expanded.add(start.add(step.multiply(BigDecimal.valueOf(k))).toPlainString());
+                }
+            }
+            else
+            {
+                throw new IllegalArgumentException("Expected a value or start:stop:step: " + item);
+            }
+        }
+        return expanded;
+    }
+
+    private static void addProduct(String[] header, List<List<String>> values, int depth, String[] current,
+            List<String[]> names, List<String[]> sets)
+    {
+        if (depth == header.length)
+        {
+            names.add(header);
+            sets.add(current.clone());
+            return;
+        }
+        for (String value : values.get(depth))
+        {
+            current[depth] = value;
+            addProduct(header, values, depth + 1, current, names, sets);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+// FILE: BinaryMagWriter.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.Deflater;
+
+// Streams magnetization measurements to a binary file: a MagHeader followed by little-endian doubles or floats.
+// Samples go straight into a large direct buffer, which is written through a FileChannel (deflated first, if the
+// file is compressed) whenever it fills up.  The sample count in the header is brought up to date on every flush,
+// so a file cut short by a crash is still readable up to the last flush.
+public class BinaryMagWriter implements MagWriter
+{
+    public static final int CHUNK = 1 << 16; // Samples per buffer, and per block of a compressed file.
+    private final FileChannel channel;
+    private final MagHeader header;
+    private final boolean useFloat;
+    private final ByteBuffer buffer;
+    private final ByteBuffer packed; // Deflated block, behind its sample and byte counts.
+    private final Deflater deflater;
+    private long position = MagHeader.HEADER_BYTES;
+    private long samples = 0;
+
+    //
+    // Constructors.
+    //
+    public BinaryMagWriter(String filename, MagHeader header) throws IOException
+    {
+        this(FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING), header);
+        header.write(channel);
+    }
+
+    // Continue a file, cut back to the given length and number of samples.
+    public BinaryMagWriter(String filename, MagHeader header, long bytes, long samples) throws IOException
+    {
+        this(FileChannel.open(Paths.get(filename), StandardOpenOption.WRITE), header);
+        channel.truncate(bytes);
+        position = bytes;
+        this.samples = samples;
+        header.writeSamples(channel, samples);
+    }
+
+    private BinaryMagWriter(FileChannel channel, MagHeader header)
+    {
+        this.channel = channel;
+        this.header = header;
+        useFloat = header.getFloat();
+        buffer = ByteBuffer.allocateDirect(CHUNK*header.getWidth()).order(ByteOrder.LITTLE_ENDIAN);
+        if (header.getCompressed())
+        {
+            // Comfortably above the worst case of deflate on incompressible data.
+            packed = ByteBuffer.allocateDirect(2*Integer.BYTES + buffer.capacity() + buffer.capacity()/8 + 64)
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            deflater = new Deflater(Deflater.BEST_SPEED);
+        }
+        else
+        {
+            packed = null;
+            deflater = null;
+        }
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public void add(double value) throws IOException
+    {
+        if (useFloat)
+        {
+            buffer.putFloat((float) value);
+        }
+        else
+        {
+            buffer.putDouble(value);
+        }
+        samples++;
+        if (!buffer.hasRemaining())
+        {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        if (buffer.position() == 0)
+        {
+            return;
+        }
+        buffer.flip();
+        if (deflater != null)
+        {
+            writeFully(deflate());
+        }
+        else
+        {
+            writeFully(buffer);
+        }
+        buffer.clear();
+        header.writeSamples(channel, samples);
+    }
+
+    @Override
+    public long getBytes()
+    {
+        return position;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        try
+        {
+            flush();
+        }
+        finally
+        {
+            if (deflater != null)
+            {
+                deflater.end();
+            }
+            channel.close();
+        }
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Deflate the buffered samples into a block.
+    private ByteBuffer deflate() throws IOException
+    {
+        int count = buffer.remaining()/header.getWidth();
+        deflater.reset();
+        deflater.setInput(buffer);
+        deflater.finish();
+        packed.clear();
+        packed.position(2*Integer.BYTES);
+        while (!deflater.finished())
+        {
+            if (!packed.hasRemaining())
+            {
+                throw new IOException("Compressed block does not fit its buffer.");
+            }
+            deflater.deflate(packed);
+        }
+        packed.putInt(0, count);
+        packed.putInt(Integer.BYTES, packed.position() - 2*Integer.BYTES);
+        packed.flip();
+        return packed;
+    }
+
+    private void writeFully(ByteBuffer source) throws IOException
+    {
+        while (source.hasRemaining())
+        {
+            position += channel.write(source, position);
+        }
+    }
+}
@@ -0,0 +1,168 @@
+// FILE: CheckerboardEngine.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Metropolis sweeps in checkerboard (red/black) order.  Sites of one color only have neighbors of the other color,
+// so each half-sweep is split into strips of rows that are updated in parallel on a ForkJoinPool.  Every strip has
+// its own random number stream, so the outcome depends only on the seed, the number of threads and the row kernel
+// (see RowKernel).  One step is one full sweep of the lattice.
+public class CheckerboardEngine implements Engine
+{
+    private final Spins magnet;
+    private final int N;
+    private final int[][] state;
+    private final int[] next;
+    private final int[] prev;
+    private final ForkJoinPool pool;
+    private final int[] stripStart;
+    private final Rng[] stripRng;
+    private final RowKernel[] stripKernel;
+    private final long[][] stripTotals; // Changes in the sum of spins and the bond sum, and accepted flips.
+    private long moves = 0;
+
+    //
+    // Constructor.
+    //
+    public CheckerboardEngine(Spins magnet, int threads)
+    {
+        this(magnet, threads, "scalar");
+    }
+
+    // As above, updating the rows with the named kernel.
+    public CheckerboardEngine(Spins magnet, int threads, String kernel)
+    {
+        this.magnet = magnet;
+        this.N = magnet.getN();
+        this.state = magnet.getState();
+        this.next = magnet.getNext();
+        this.prev = magnet.getPrev();
+        this.pool = new ForkJoinPool(threads);
+
+        // Use a few strips per thread for load balancing.
+        int strips = Math.min(N, 4*threads);
+        stripStart = new int[strips + 1];
+        stripRng = new Rng[strips];
+        stripKernel = new RowKernel[strips];
+        for (int s = 0; s < strips; s++)
+        {
+            stripStart[s] = (int) ((long) s*N/strips);
+            stripRng[s] = magnet.getRng().split();
+            stripKernel[s] = RowKernel.create(kernel, N, next, prev, magnet.getAcceptThresholds());
+        }
+        stripStart[strips] = N;
+        stripTotals = new long[strips][3];
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long step()
+    {
+        long accepted = 0;
+        for (int color = 0; color < 2; color++)
+        {
+            pool.invoke(new HalfSweep(color, 0, stripRng.length));
+
+            long dMag = 0;
+            long dBond = 0;
+            for (long[] totals : stripTotals)
+            {
+                dMag += totals[0];
+                dBond += totals[1];
+                accepted += totals[2];
+            }
+            magnet.addTotals(dMag, dBond);
+        }
+        moves += (long) N*N;
+        return accepted;
+    }
+
+    @Override
+    public long getMoves()
+    {
+        return moves;
+    }
+
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeLong(moves);
+        for (Rng rng : stripRng)
+        {
+            rng.save(out);
+        }
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        moves = in.readLong();
+        for (Rng rng : stripRng)
+        {
+            rng.restore(in);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        pool.shutdown();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Update all sites of one color in a strip of rows, recording the changes in the running totals.
+    private void updateStrip(int s, int color)
+    {
+        Rng rng = stripRng[s];
+        RowKernel kernel = stripKernel[s];
+        long[] totals = stripTotals[s];
+        totals[0] = 0;
+        totals[1] = 0;
+        totals[2] = 0;
+        for (int i = stripStart[s]; i < stripStart[s+1]; i++)
+        {
+            kernel.update(state[i], state[prev[i]], state[next[i]], (i + color) & 1, rng, totals);
+        }
+    }
+
+    // Recursively split a range of strips across the pool.
+    private class HalfSweep extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private final int color;
+        private final int from;
+        private final int to;
+
+        HalfSweep(int color, int from, int to)
+        {
+            this.color = color;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from == 1)
+            {
+                updateStrip(from, color);
+            }
+            else
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new HalfSweep(color, from, mid), new HalfSweep(color, mid, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,236 @@
+// FILE: Checkpoint.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+// A snapshot of a single run from which it can be continued exactly: the parameters, the lattice, the state of the
+// generators and the engine, the stage and step reached, and the statistics so far.  Everything but the lattice is
+// captured as bytes on the simulation thread, so the snapshot can be written out on another thread while the
+// simulation goes on.  Files end with a CRC32 of their contents, so a damaged checkpoint is refused.
+public class Checkpoint
+{
+    public static final int EQUILIBRATION = 0;
+    public static final int MEASUREMENT = 1;
+    private static final byte[] MAGIC = {'I', 'S', 'I', 'N', 'G', 'C', 'H', 'K'};
+    private static final int VERSION = 6;
+    private final byte[] parameters;
+    private final SpinState spins;
+    private final byte[] magnetRng;
+    private final byte[] engine;
+    private final byte[] stats;
+    private final int stage;
+    private final long step; // The next step to take in the stage.
+    private final long acceptance;
+    private final long eqMoves;
+    private final long elapsed; // Nanoseconds spent so far, for the throughput.
+    private final long magBytes; // Length of the magnetization file at the checkpoint, or -1 if there is none.
+
+    // Something that writes its state into a checkpoint.
+    public interface Part
+    {
+        void save(DataOutput out) throws IOException;
+    }
+
+    //
+    // Constructor.
+    //
+    public Checkpoint(byte[] parameters, SpinState spins, byte[] magnetRng, byte[] engine, byte[] stats, int stage,
+            long step, long acceptance, long eqMoves, long elapsed, long magBytes)
+    {
+        this.parameters = parameters;
+        this.spins = spins;
+        this.magnetRng = magnetRng;
+        this.engine = engine;
+        this.stats = stats;
+        this.stage = stage;
+        this.step = step;
+        this.acceptance = acceptance;
+        this.eqMoves = eqMoves;
+        this.elapsed = elapsed;
+        this.magBytes = magBytes;
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Capture the state of a part as bytes.
+    public static byte[] capture(Part part) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(DataOutputStream out = new DataOutputStream(bytes))
+        {
+            part.save(out);
+        }
+        return bytes.toByteArray();
+    }
+
+    // Write the checkpoint to a temporary file and move it into place, so the file under the given name is always
+    // a complete checkpoint, either this one or the one before.
+    public void write(String filename) throws IOException
+    {
+        Path target = Paths.get(filename);
+        Path temporary = Paths.get(filename + ".tmp");
+        try(FileOutputStream file = new FileOutputStream(temporary.toFile()))
+        {
+            CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file, 1 << 16),
+                    new CRC32());
+            DataOutputStream out = new DataOutputStream(checked);
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            writeBytes(out, parameters);
+            spins.save(out);
+            writeBytes(out, magnetRng);
+            writeBytes(out, engine);
+            writeBytes(out, stats);
+            out.writeInt(stage);
+            out.writeLong(step);
+            out.writeLong(acceptance);
+            out.writeLong(eqMoves);
+            out.writeLong(elapsed);
+            out.writeLong(magBytes);
+            out.writeLong(checked.getChecksum().getValue());
+            out.flush();
+            file.getFD().sync();
+        }
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    // Read a checkpoint file.
+    public static Checkpoint read(String filename) throws IOException
+    {
+        try(FileInputStream file = new FileInputStream(filename))
+        {
+            CheckedInputStream checked = new CheckedInputStream(new BufferedInputStream(file, 1 << 16), new CRC32());
+            DataInputStream in = new DataInputStream(checked);
+            byte[] magic = new byte[MAGIC.length];
+            in.readFully(magic);
+            if (!Arrays.equals(magic, MAGIC))
+            {
+                throw new IOException("Not a checkpoint file.");
+            }
+            int version = in.readInt();
+            if (version != VERSION)
+            {
+                throw new IOException("Unsupported checkpoint version: " + version);
+            }
+            byte[] parameters = readBytes(in);
+            SpinState spins = SpinState.restore(in);
+            byte[] magnetRng = readBytes(in);
+            byte[] engine = readBytes(in);
+            byte[] stats = readBytes(in);
+            int stage = in.readInt();
+            long step = in.readLong();
+            long acceptance = in.readLong();
+            long eqMoves = in.readLong();
+            long elapsed = in.readLong();
+            long magBytes = in.readLong();
+            long checksum = checked.getChecksum().getValue();
+            if (in.readLong() != checksum)
+            {
+                throw new IOException("Checkpoint checksum does not match; the file is corrupt.");
+            }
+            return new Checkpoint(parameters, spins, magnetRng, engine, stats, stage, step, acceptance, eqMoves,
+                    elapsed, magBytes);
+        }
+    }
+
+    //
+    // Private methods.
+    //
+
+    private static void writeBytes(DataOutput out, byte[] bytes) throws IOException
+    {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static byte[] readBytes(DataInput in) throws IOException
+    {
+        int length = in.readInt();
+        if (length < 0)
+        {
+            throw new IOException("Corrupt checkpoint.");
+        }
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return bytes;
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public byte[] getParameters()
+    {
+        return parameters;
+    }
+
+    public SpinState getSpins()
+    {
+        return spins;
+    }
+
+    public byte[] getMagnetRng()
+    {
+        return magnetRng;
+    }
+
+    public byte[] getEngine()
+    {
+        return engine;
+    }
+
+    public byte[] getStats()
+    {
+        return stats;
+    }
+
+    public int getStage()
+    {
+        return stage;
+    }
+
+    public long getStep()
+    {
+        return step;
+    }
+
+    public long getAcceptance()
+    {
+        return acceptance;
+    }
+
+    public long getEqMoves()
+    {
+        return eqMoves;
+    }
+
+    public long getElapsed()
+    {
+        return elapsed;
+    }
+
+    public long getMagBytes()
+    {
+        return magBytes;
+    }
+}
@@ -0,0 +1,120 @@
+// FILE: Checkpointer.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.IOException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Writes checkpoints on a background thread and decides when the next one is due, after a number of steps or an
+// interval of wall-clock time, whichever comes first.  The simulation thread only pays for capturing the snapshot.
+// If the previous checkpoint is still being written when the next is due, the new one is put off until the writer
+// is free instead of stalling the simulation.
+public class Checkpointer implements AutoCloseable
+{
+    private static final int CLOCK_INTERVAL = 1024; // Steps between looks at the clock.
+    private final Communicator comms;
+    private final long everySteps; // Zero if checkpoints are not taken by step count.
+    private final long everyNanos; // Zero if checkpoints are not taken by time.
+    private final ExecutorService writer;
+    private Future<?> pending;
+    private long stepsSince = 0;
+    private long lastTime = System.nanoTime();
+
+    //
+    // Constructor.
+    //
+    public Checkpointer(Communicator comms)
+    {
+        this.comms = comms;
+        everySteps = comms.getCheckpointSteps();
+        everyNanos = (long) (comms.getCheckpointSeconds()*1e9);
+        writer = Executors.newSingleThreadExecutor(task ->
+        {
+            Thread thread = new Thread(task, "checkpoint-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Count one step and tell whether a checkpoint is due.
+    public boolean due()
+    {
+        stepsSince++;
+        if (everySteps > 0 && stepsSince >= everySteps)
+        {
+            return ready();
+        }
+        if (everyNanos > 0 && stepsSince % CLOCK_INTERVAL == 0 && System.nanoTime() - lastTime >= everyNanos)
+        {
+            return ready();
+        }
+        return false;
+    }
+
+    // Hand a checkpoint to the writer thread, which writes it once it is complete, e.g. when the magnetization file
+    // has caught up with it.  The checkpoint counts as pending until then.
+    public void submit(CompletableFuture<Checkpoint> checkpoint)
+    {
+        stepsSince = 0;
+        lastTime = System.nanoTime();
+        String filename = comms.getCheckpointName();
+        pending = checkpoint.thenAcceptAsync(c ->
+        {
+            try
+            {
+                c.write(filename);
+                comms.informCheckpoint(c.getStage(), c.getStep());
+            }
+            catch(IOException e)
+            {
+                System.err.println("Checkpoint failed: " + e.getMessage());
+            }
+        }, writer).exceptionally(e ->
+        {
+            System.err.println("Checkpoint failed: " + (e.getCause() != null ? e.getCause() : e).getMessage());
+            return null;
+        });
+    }
+
+    // Wait for the last checkpoint to be written, then stop the writer.  A checkpoint reaches the writer only once
+    // the magnetization file has caught up with it, which may be after this is called, so the writer must still be
+    // running until then.
+    @Override
+    public void close()
+    {
+        if (pending != null)
+        {
+            try
+            {
+                pending.get();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            catch(ExecutionException e)
+            {
+                System.err.println("Checkpoint failed: " + e.getCause());
+            }
+        }
+        writer.shutdown();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // True if the writer is free for the next checkpoint.
+    private boolean ready()
+    {
+        return pending == null || pending.isDone();
+    }
+}
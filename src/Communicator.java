@@ -4,25 +4,57 @@
 
 import java.io.*;
 import java.util.Arrays;
-import java.util.Locale;
 import java.util.UUID;
 
-public class Communicator
+public final class Communicator
 {
-    private final UUID id = UUID.randomUUID(); // Unique identifer for the simulation.
+    private UUID id = UUID.randomUUID(); // Unique identifer for the simulation.  Kept when a run is resumed.
     private int N = 100; // The magnet consists of N x N spins.
     private double T = 2.26918; // System temperature in units of J. Default is critical temperature.
     private double h = 0; // Energy per spin from external magnetic field. May be positive or negative.
-    private int eqSteps = 1000000; // Initial number of moves used to equilibrate the system.  No data collected.
-    private int measureSteps = 100; // Number of moves used to measure observables.
+    private long eqSteps = 1000000; // Initial number of moves used to equilibrate the system.  No data collected.
+    private long measureSteps = 100; // Number of moves used to measure observables.
+    private boolean saveMag = true; // Stream every magnetization measurement to a file.
+    private String magFormat = "double"; // Magnetization file format: double, float or text.
+    private boolean magCompress = false; // Deflate the samples of a binary magnetization file in blocks.
+    private String stateFormat = "binary"; // State file format: binary or text.
+    private boolean saveHistogram = false; // Keep the joint histogram of bond sum and magnetization, for reweighting.
+    private int snapshotSize = 0; // Largest snapshot width in pixels; larger lattices are downsampled.  Zero: none.
+    private long frameInterval = 0; // Sweeps between frames of the movie.  Zero means no movie.
+    private long correlationInterval = 0; // Sweeps between correlation measurements.  Zero means none.
+    private String movieFormat = "png"; // Movie format: png (a sequence of files) or gif (animated).
     private boolean inputValid = true;
     private String initialStateName;
-    private int[][] initalState;
+    private SpinState initalState;
     private boolean loadState = false;
+    private String engineName = "metropolis"; // Update engine: metropolis, checkerboard, multispin, wolff or sw.
+    private int threads = Runtime.getRuntime().availableProcessors(); // Worker threads for parallel engines.
+    private String kernel = "scalar"; // Row kernel of the checkerboard engine: scalar or vector.
+    private String lattice = "heap"; // Storage of a multispin lattice: heap, direct, or a file to map.
+    private int slabs = 0; // Worker processes of a distributed run, each holding a slab of rows.  Zero: none.
+    private int slabPort = 0; // Port the coordinator waits for workers on.  Zero: start local workers.
+    private String workerAddress; // Coordinator to serve as a worker, as <HOST>:<PORT>.  Null for other runs.
+    private double[] ladder; // Temperatures for replica exchange, in increasing order.  Null for a single run.
+    private int swapInterval = 0; // Engine steps between replica exchanges.  Zero means once per sweep.
+    private boolean wangLandau = false; // Sample the density of states instead of running at one temperature.
+    private int windows = 1; // Energy windows of a Wang-Landau run, each sampled by its own walker.
+    private double flatness = 0.8; // Least visits of any level, relative to the mean, for the visits to be flat.
+    private double finalLnF = 1e-8; // Modification factor ln f at which a Wang-Landau run stops.
+    private String batchSpec; // File describing a batch of parameter sets.  Null for a single run.
+    private int permits = Runtime.getRuntime().availableProcessors(); // Batch runs allowed to compute at once.
+    private boolean quiet = false; // Suppress console messages, e.g. for runs within a batch.
+    private boolean debug = false; // Cross-check the running magnetization and energy against a full recount.
+    private String rngName = "xoshiro"; // Random number generator: xoshiro, splitmix or legacy.
+    private long seed = System.nanoTime() ^ id.getMostSignificantBits(); // Identical seeds give identical runs.
+    private long checkpointSteps = 0; // Engine steps between checkpoints.  Zero means not by step count.
+    private double checkpointSeconds = 0; // Wall-clock seconds between checkpoints.  Zero means not by time.
+    private Checkpoint resume; // Checkpoint to continue from.  Null for a fresh run.
+    private boolean metrics = false; // Register the live metrics of the run with JMX.
+    private int metricsPort = 0; // Local port serving the live metrics over HTTP.  Zero means no server.
     private final double Tc = 2.26918;
 
     //
-    // Constructor.
+    // Constructors.
     //
     public Communicator(String[] args)
     {
@@ -42,25 +74,203 @@ public class Communicator
                 }
             }
         }
+
+        validate();
+    }
+
+    // Default parameters, to be set programmatically with the setters below.
+    public Communicator()
+    {
     }
 
     //
     // Public methods.
     //
 
+    // Check the combination of parameters, marking the input invalid if they do not fit together.
+    public void validate()
+    {
+        // The checkerboard decomposition needs an even number of rows and columns with periodic boundaries.
+        if (inputValid && (engineName.equals("checkerboard") || engineName.equals("multispin")) && N % 2 != 0)
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: The " + engineName + " engine requires an even N.");
+        }
+
+        // The vector kernel needs the Vector API at run time; without it the run goes on with the scalar kernel.
+        if (inputValid && kernel.equals("vector") && !RowKernel.isVectorAvailable())
+        {
+            kernel = "scalar";
+            System.err.println("The Vector API is unavailable (run with --add-modules jdk.incubator.vector); "
+                    + "using the scalar kernel.");
+        }
+
+        // Only the packed lattice can be kept off the heap, and a lattice file can only back one lattice at a time.
+        if (inputValid && !lattice.equals("heap") && !engineName.equals("multispin"))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Off-heap lattices require the multispin engine.");
+        }
+        if (inputValid && !lattice.equals("heap") && !lattice.equals("direct") && (ladder != null || batchSpec != null))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: A lattice file can only back a single run.");
+        }
+        if (inputValid && !lattice.equals("heap") && !lattice.equals("direct") && new File(lattice).exists())
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: The lattice file " + lattice + " already exists.");
+        }
+
+        // Distributed runs are multispin sweeps of a single lattice whose state lives, packed, in the workers.
+        if (inputValid && slabs > 0 && !engineName.equals("multispin"))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Distributed runs require the multispin engine.");
+        }
+        if (inputValid && slabs > 0 && !lattice.equals("heap"))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: The workers of a distributed run hold the lattice.");
+        }
+        if (inputValid && slabs > N)
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: There cannot be more slabs than rows.");
+        }
+        if (inputValid && slabs > 0 && (checkpointSteps > 0 || checkpointSeconds > 0 || resume != null
+                || ladder != null || batchSpec != null))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Distributed runs are single runs without checkpoints.");
+        }
+
+        // Wang-Landau runs sample the density of states of the bond energy, which h does not enter, on their own.
+        if (inputValid && wangLandau && h != 0)
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Wang-Landau runs sample the density of states at h = 0.");
+        }
+        if (inputValid && wangLandau && (checkpointSteps > 0 || checkpointSeconds > 0 || resume != null
+                || ladder != null || batchSpec != null || slabs > 0 || metrics || metricsPort > 0))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Wang-Landau runs are single runs without checkpoints.");
+        }
+        if (inputValid && wangLandau && windows > N)
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: There cannot be more energy windows than rows.");
+        }
+
+        // Checkpoints cover the state of a single run only.
+        if (inputValid && (checkpointSteps > 0 || checkpointSeconds > 0 || resume != null)
+                && (ladder != null || batchSpec != null))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Checkpoints are only supported for single runs.");
+        }
+
+        // The correlations are measured by a radix-2 FFT of the lattice of a single temperature.
+        if (inputValid && correlationInterval > 0 && Integer.bitCount(N) != 1)
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Correlation measurements need N to be a power of two.");
+        }
+        if (inputValid && correlationInterval > 0 && (ladder != null || wangLandau))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Correlations are only measured at one temperature.");
+        }
+
+        // Live metrics follow a single run.
+        if (inputValid && (metrics || metricsPort > 0) && (ladder != null || batchSpec != null))
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: Live metrics are only supported for single runs.");
+        }
+    }
+
+    // A new simulation with the same parameters and a new ID, e.g. as the template for one run of a batch.
+    public Communicator copy()
+    {
+        Communicator copy = new Communicator();
+        copy.N = N;
+        copy.T = T;
+        copy.h = h;
+        copy.eqSteps = eqSteps;
+        copy.measureSteps = measureSteps;
+        copy.saveMag = saveMag;
+        copy.magFormat = magFormat;
+        copy.magCompress = magCompress;
+        copy.stateFormat = stateFormat;
+        copy.saveHistogram = saveHistogram;
+        copy.snapshotSize = snapshotSize;
+        copy.frameInterval = frameInterval;
+        copy.correlationInterval = correlationInterval;
+        copy.movieFormat = movieFormat;
+        copy.inputValid = inputValid;
+        copy.initialStateName = initialStateName;
+        copy.initalState = initalState; // Only ever copied out of, so it can be shared.
+        copy.loadState = loadState;
+        copy.engineName = engineName;
+        copy.threads = threads;
+        copy.kernel = kernel;
+        copy.lattice = lattice;
+        copy.slabs = slabs;
+        copy.slabPort = slabPort;
+        copy.ladder = ladder;
+        copy.swapInterval = swapInterval;
+        copy.wangLandau = wangLandau;
+        copy.windows = windows;
+        copy.flatness = flatness;
+        copy.finalLnF = finalLnF;
+        copy.debug = debug;
+        copy.quiet = quiet;
+        copy.rngName = rngName;
+        copy.seed = seed;
+        return copy;
+    }
+
     // Greet the user and print the simulation parameters.
     public void greet()
     {
-        System.out.println("*********************************");
-        System.out.println("*** 2D ISING MODEL SIMULATION ***");
-        System.out.println("*********************************");
-        System.out.println("ID: " + id);
-        System.out.println("Size: " + N + "x" + N);
-        System.out.println("Temperature: " + T);
-        System.out.println("External field: " + h);
-        System.out.println("Equilibration steps: " + eqSteps);
-        System.out.println("Measurement steps: " + measureSteps);
-        System.out.println();
+        say("*********************************");
+        say("*** 2D ISING MODEL SIMULATION ***");
+        say("*********************************");
+        say("ID: " + id);
+        say("Size: " + N + "x" + N);
+        say("Temperature: " + T);
+        if (ladder != null)
+        {
+            say("Temperature ladder: " + Arrays.toString(ladder));
+        }
+        if (wangLandau)
+        {
+            say("Wang-Landau energy windows: " + windows);
+            say("Flatness: " + flatness);
+            say("Final ln f: " + finalLnF);
+        }
+        say("External field: " + h);
+        say("Equilibration steps: " + eqSteps);
+        say("Measurement steps: " + measureSteps);
+        say("Engine: " + engineName);
+        say("Threads: " + threads);
+        if (slabs > 0)
+        {
+            say("Worker processes: " + slabs);
+        }
+        if (engineName.equals("checkerboard"))
+        {
+            say("Row kernel: " + kernel);
+        }
+        if (engineName.equals("multispin") && slabs == 0)
+        {
+            say("Lattice storage: " + lattice);
+        }
+        say("Random number generator: " + rngName);
+        say("Seed: " + seed);
+        say("");
     }
 
     // Help the user if command line arguments are invalid.
@@ -76,16 +286,48 @@ public class Communicator
         System.out.println("Size NxN: -n");
         System.out.println("Temperature (T/J): -t");
         System.out.println("Magnetic field (h/J): -h");
-        System.out.println("Equilibration steps: -e");
-        System.out.println("Measurement steps: -m");
+        System.out.println("Equilibration steps (moves, sweeps or clusters, depending on the engine): -e");
+        System.out.println("Measurement steps (moves, sweeps or clusters, depending on the engine): -m");
         System.out.println("Initial state: -s");
+        System.out.println("Save every magnetization measurement (true/false): -magfile");
+        System.out.println("Magnetization file format (double/float/text): -magformat");
+        System.out.println("Compress binary magnetization files (true/false): -magcompress");
+        System.out.println("State file format (binary/text): -stateformat");
+        System.out.println("Save the joint histogram of energy and magnetization (true/false): -histogram");
+        System.out.println("Largest snapshot width in pixels: -snapshotsize");
+        System.out.println("Sweeps between movie frames: -frames");
+        System.out.println("Sweeps between correlation measurements (N a power of two): -correlation");
+        System.out.println("Movie format (png/gif): -movie");
+        System.out.println("Update engine (metropolis/checkerboard/multispin/wolff/sw): -engine");
+        System.out.println("Worker threads: -threads");
+        System.out.println("Checkerboard row kernel (scalar/vector): -kernel");
+        System.out.println("Multispin lattice storage (heap/direct/<FILE>): -lattice");
+        System.out.println("Worker processes for a distributed multispin run: -slabs");
+        System.out.println("Port to wait for workers started by hand (default: start local workers): -slabport");
+        System.out.println("Serve a distributed run as a worker (<HOST>:<PORT>): -worker");
+        System.out.println("Temperature ladder for replica exchange (comma separated): -ladder");
+        System.out.println("Steps between replica exchanges: -swap");
+        System.out.println("Wang-Landau density of states at h = 0 (true/false): -wanglandau");
+        System.out.println("Wang-Landau energy windows: -windows");
+        System.out.println("Wang-Landau flatness criterion (0 to 1): -flatness");
+        System.out.println("Wang-Landau final modification factor ln f: -lnf");
+        System.out.println("Batch of parameter sets (file): -batch");
+        System.out.println("Concurrent batch runs: -permits");
+        System.out.println("Random number generator (xoshiro/splitmix/legacy): -rng");
+        System.out.println("Random seed: -seed");
+        System.out.println("Debug checks (true/false): -debug");
+        System.out.println("Engine steps between checkpoints: -checkpoint");
+        System.out.println("Seconds between checkpoints: -checkpointtime");
+        System.out.println("Resume from a checkpoint (file): -resume");
+        System.out.println("Live metrics over JMX (true/false): -metrics");
+        System.out.println("Local port serving live metrics over HTTP: -metricsport");
     }
 
     // Create a log file with the simulation parameters.
-    public void writeLog(Stats stats, int acceptance)
+    public void writeLog(Stats stats, Observables observables, long acceptance, long moves, double sweepRate)
     {
         // Determine acceptance rate.
-        double acceptRate = (double) acceptance/(double) measureSteps;
+        double acceptRate = (double) acceptance/(double) moves;
 
         // Determine starting condition.
         String initString = determineInitialCondition();
@@ -108,8 +350,31 @@ public class Communicator
             writer.newLine();
             writer.write("Measurement steps: " + measureSteps);
             writer.newLine();
+            writer.write("Engine: " + engineName);
+            writer.newLine();
+            writer.write("Threads: " + threads);
+            writer.newLine();
+            if (slabs > 0)
+            {
+                writer.write("Worker processes: " + slabs);
+                writer.newLine();
+            }
+            if (engineName.equals("checkerboard"))
+            {
+                writer.write("Row kernel: " + kernel);
+                writer.newLine();
+            }
+            if (engineName.equals("multispin") && slabs == 0)
+            {
+                writer.write("Lattice storage: " + lattice);
+                writer.newLine();
+            }
             writer.write("Initial state: " + initString);
             writer.newLine();
+            writer.write("Random number generator: " + rngName);
+            writer.newLine();
+            writer.write("Seed: " + seed);
+            writer.newLine();
             writer.newLine();
             writer.write("*** SIMULATION OUTCOME ***");
             writer.newLine();
@@ -117,9 +382,44 @@ public class Communicator
             writer.newLine();
             writer.write("Variance: " + stats.getVar());
             writer.newLine();
+            writer.write("Standard error (binning): " + stats.getError());
+            writer.newLine();
+            writer.write("Integrated autocorrelation time: " + stats.getTau());
+            writer.newLine();
+            writer.write("Minimum magnetization: " + stats.getMin());
+            writer.newLine();
+            writer.write("Maximum magnetization: " + stats.getMax());
+            writer.newLine();
+            writer.write("Energy per spin: " + observables.getEnergy() + " +/- " + observables.getEnergyError());
+            writer.newLine();
+            writer.write("Mean |magnetization|: " + observables.getAbsMag() + " +/- " + observables.getAbsMagError());
+            writer.newLine();
+            writer.write("Specific heat per spin: " + observables.getSpecificHeat() + " +/- "
+                    + observables.getSpecificHeatError());
+            writer.newLine();
+            writer.write("Susceptibility per spin: " + observables.getSusceptibility() + " +/- "
+                    + observables.getSusceptibilityError());
+            writer.newLine();
+            writer.write("Binder cumulant: " + observables.getBinder() + " +/- " + observables.getBinderError());
+            writer.newLine();
+            writer.write("Jackknife blocks: " + observables.getBlocks() + " of " + observables.getBlockLength()
+                    + " samples");
+            writer.newLine();
             writer.write("Acceptance ratio: " + acceptRate);
+            writer.newLine();
+            writer.write("Throughput (sweeps/s): " + sweepRate);
+            writer.newLine();
+            writer.newLine();
+            writer.write("*** BINNING ANALYSIS ***");
+            writer.newLine();
+            writer.write("Level, block size, blocks, standard error");
+            for (int l = 0; l < stats.getLevels(); l++)
+            {
+                writer.newLine();
+                writer.write(l + " " + (1L << l) + " " + stats.getBlocks(l) + " " + stats.getError(l));
+            }
 
-            System.out.println("Log file written.");
+            say("Log file written.");
         }
         catch(IOException e)
         {
@@ -127,49 +427,47 @@ public class Communicator
         }
     }
 
-    // Write a file containing all magnetization measurements.
-    public void writeMag(double[] results)
+    // Open a file for streaming all magnetization measurements, or return null if they are not saved.
+    public MagWriter openMag()
     {
-        String filename = "Ising-magnetization-"+id+".mag";
-        String formattedValue;
+        return openMag("Ising-magnetization-"+id+".mag", T);
+    }
 
-        try(BufferedWriter writer = new BufferedWriter(new FileWriter((filename))))
+    // Continue the magnetization file of a resumed run from the length it had at the checkpoint.
+    public MagWriter resumeMag(long bytes, long samples)
+    {
+        if (!saveMag || bytes < 0)
         {
-            for (double val: results)
-            {
-                formattedValue = String.format(Locale.US, "%.20f", val);
-                writer.write(formattedValue);
-                writer.newLine();
-            }
-            System.out.println("Magnetization results file written.");
+            return null;
+        }
+        try
+        {
+            return MagWriter.resume("Ising-magnetization-"+id+".mag", magFormat, magHeader(T), bytes, samples);
         }
         catch(IOException e)
         {
             System.err.println(e.getMessage());
+            return null;
         }
     }
 
-    // Write a file containing the state of the magnet in space delimited format.
-    public void writeState(Spins magnet)
+    // As above, for the measurements at one temperature of the ladder.
+    public MagWriter openMag(int slot)
     {
-        String filename = "Ising-state-"+id+".state";
+        return openMag("Ising-magnetization-"+id+"-T"+slot+".mag", ladder[slot]);
+    }
 
-        try(BufferedWriter writer = new BufferedWriter((new FileWriter(filename))))
+    // Finish the magnetization file.
+    public void closeMag(MagWriter writer)
+    {
+        if (writer == null)
         {
-            int[][] state = magnet.getState();
-
-            for (int i = 0; i < N; i++)
-            {
-                for (int j = 0; j < N; j++) {
-                    writer.write(String.valueOf(state[i][j]));
-                    if (j < N - 1)
-                    {
-                        writer.write(" ");
-                    }
-                }
-                writer.newLine();
-            }
-            System.out.println("State file written.");
+            return;
+        }
+        try
+        {
+            writer.close();
+            say("Magnetization results file written.");
         }
         catch(IOException e)
         {
@@ -177,147 +475,766 @@ public class Communicator
         }
     }
 
-
-    //
-    // Private methods.
-    //
-
-    // Assign a value to a simulation parameter from a command line argument.
-    private void assign(String parameterName, String parameterValue)
+    // Create a log file for a replica exchange run.
+    public void writeTemperingLog(Stats[] stats, Observables[] observables, long[] acceptance, long[] moves,
+            long[] swapAccepted, long[] swapAttempts, long roundTrips, double roundTripTime)
     {
-        try
+        String filename = "Ising-"+id+".log";
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter((filename))))
         {
-            if (parameterName.equals("-n"))
-            {
-                N = Integer.parseInt(parameterValue);
-                if (N <= 0)
-                {
-                    throw new IllegalArgumentException("N must be a positive-definite integer.");
-                }
-            }
-            if(parameterName.equals("-t"))
-            {
-                T = Double.parseDouble(parameterValue);
-                if (T==0.0)
-                {
-                    throw new IllegalArgumentException("Temperature must be nonzero!");
-                }
-            }
-            if(parameterName.equals("-h"))
+            writer.write("*** SIMULATION PARAMETERS ***");
+            writer.newLine();
+            writer.write("ID: " + id);
+            writer.newLine();
+            writer.write("Size: " + N + "x" + N);
+            writer.newLine();
+            writer.write("Temperature ladder: " + Arrays.toString(ladder));
+            writer.newLine();
+            writer.write("External field: " + h);
+            writer.newLine();
+            writer.write("Equilibration steps: " + eqSteps);
+            writer.newLine();
+            writer.write("Measurement steps: " + measureSteps);
+            writer.newLine();
+            writer.write("Steps between exchanges: " + getSwapInterval());
+            writer.newLine();
+            writer.write("Engine: " + engineName);
+            writer.newLine();
+            writer.write("Threads: " + threads);
+            writer.newLine();
+            if (engineName.equals("checkerboard"))
             {
-                h = Double.parseDouble(parameterValue);
+                writer.write("Row kernel: " + kernel);
+                writer.newLine();
             }
-            if (parameterName.equals("-e"))
+            if (engineName.equals("multispin"))
             {
-                eqSteps = Integer.parseInt(parameterValue);
-                if (eqSteps < 0)
-                {
-                    throw new IllegalArgumentException("Number of equilibration steps cannot be less than zero!");
-                }
+                writer.write("Lattice storage: " + lattice);
+                writer.newLine();
             }
-            if (parameterName.equals("-m"))
+            writer.write("Random number generator: " + rngName);
+            writer.newLine();
+            writer.write("Seed: " + seed);
+            writer.newLine();
+            writer.newLine();
+            writer.write("*** SIMULATION OUTCOME ***");
+            writer.newLine();
+            writer.write("T, mean magnetization, variance, standard error (binning), integrated autocorrelation time, "
+                    + "acceptance ratio, exchange acceptance to next T");
+            writer.newLine();
+            for (int k = 0; k < ladder.length; k++)
             {
-                measureSteps = Integer.parseInt(parameterValue);
-                if (measureSteps <= 0)
-                {
-                    throw new IllegalArgumentException("Number of measurement steps must be greater than zero!");
-                }
+                String swapRate = k < ladder.length - 1
+                        ? String.valueOf((double) swapAccepted[k]/(double) swapAttempts[k]) : "-";
+                writer.write(ladder[k] + " " + stats[k].getAvg() + " " + stats[k].getVar() + " " + stats[k].getError()
+                        + " " + stats[k].getTau() + " " + (double) acceptance[k]/(double) moves[k] + " " + swapRate);
+                writer.newLine();
             }
-            if (parameterName.equals("-s"))
+            writer.newLine();
+            writer.write("T, energy per spin, error, mean |magnetization|, error, specific heat, error, "
+                    + "susceptibility, error, Binder cumulant, error");
+            writer.newLine();
+            for (int k = 0; k < ladder.length; k++)
             {
-                loadState = true;
-                this.initialStateName = parameterValue;
-                readState(parameterValue);
+                Observables o = observables[k];
+                writer.write(ladder[k] + " " + o.getEnergy() + " " + o.getEnergyError() + " " + o.getAbsMag() + " "
+                        + o.getAbsMagError() + " " + o.getSpecificHeat() + " " + o.getSpecificHeatError() + " "
+                        + o.getSusceptibility() + " " + o.getSusceptibilityError() + " " + o.getBinder() + " "
+                        + o.getBinderError());
+                writer.newLine();
             }
+            writer.newLine();
+            writer.write("Round trips: " + roundTrips);
+            writer.newLine();
+            writer.write("Mean round trip time (exchange attempts): " + roundTripTime);
+
+            say("Log file written.");
         }
-        catch(NumberFormatException e)
-        {
-            inputValid = false;
-            System.err.println("Number format exception: " + e.getMessage());
-        }
-        catch(IllegalArgumentException e)
+        catch(IOException e)
         {
-            inputValid = false;
-            System.err.println("Illegal argument exception: " + e.getMessage());
+            System.err.println(e.getMessage());
         }
     }
 
-    // Start a simulation from a saved state.
-    private void readState(String stateName)
+    private MagWriter openMag(String filename, double T)
     {
-        try(BufferedReader reader = new BufferedReader(new FileReader(stateName)))
+        if (!saveMag)
         {
-            String line = reader.readLine();
-            if (line == null)
-            {
-                throw new RuntimeException("File is empty!");
-            }
-
-            N = line.split(" ").length; // This will overwrite the -n command line argument.
-            initalState = new int[N][N];
-
-            // Parse the file.
-            int row = 0;
-            initalState[row++] = Arrays.stream(line.split(" ")).mapToInt(Integer::parseInt).toArray();
-            while ((line = reader.readLine()) != null)
-            {
-                if (row >= N)
-                {
-                    throw new IOException("Numbers of rows and columns are not equal.");
-                }
-                initalState[row++] = Arrays.stream(line.split(" ")).mapToInt(Integer::parseInt).toArray();
-            }
-            if (row != N)
-            {
-                throw new IOException("Numbers of rows and columns are not equal.");
-            }
+            return null;
         }
-        catch(IOException e)
+        try
         {
-            inputValid = false;
-            System.err.println("IOException: " + e.getMessage());
+            return MagWriter.create(filename, magFormat, magHeader(T));
         }
-        catch (RuntimeException e)
+        catch(IOException e)
         {
-            inputValid = false;
-            System.err.println("RuntimeException: " + e.getMessage());
+            System.err.println(e.getMessage());
+            return null;
         }
-
-    }
-
-    //
-    // Getters, setters, and misc.
-    //
-
-    // Prompt the user that the program is finished.
-    public void bye()
-    {
-        System.out.println("*** SIMULATION COMPLETE ***");
     }
 
-    // Prompt user about the status of simulation.
-    public void informInitDone()
+    private void writeHistogram(String filename, Histogram histogram)
     {
-        System.out.println("Initialization complete.");
+        try
+        {
+            histogram.write(filename);
+            say("Histogram file written.");
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
     }
 
-    public void informEqDone()
+    private MagHeader magHeader(double T)
     {
-        System.out.println("Equilibration complete.");
+        return new MagHeader(id, N, T, h, eqSteps, measureSteps, seed, magFormat.equals("float"), magCompress,
+                BinaryMagWriter.CHUNK);
     }
 
-    public void informMeasureDone()
+    // Write the density of states of a Wang-Landau run.
+    public void writeDensityOfStates(DensityOfStates dos)
     {
-        System.out.println("Measurements complete.");
+        try
+        {
+            dos.write("Ising-dos-"+id+".dos");
+            say("Density of states file written.");
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
     }
 
-    public UUID getId()
+    // Create a log file for a Wang-Landau run.
+    public void writeWangLandauLog(DensityOfStates dos, long[] sweeps, double seconds)
     {
-        return id;
-    }
+        // Locate the peak of the specific heat, and count the levels reached.
+        double peakT = 0;
+        double peakC = 0;
+        for (int k = 0; k <= 4500; k++)
+        {
+            double t = 0.5 + 0.001*k;
+            double c = dos.thermodynamics(t)[1];
+            if (c > peakC)
+            {
+                peakT = t;
+                peakC = c;
+            }
+        }
+        int visited = 0;
+        for (int e = 0; e < dos.getLevels(); e++)
+        {
+            if (dos.getLogG(e) > Double.NEGATIVE_INFINITY)
+            {
+                visited++;
+            }
+        }
 
-    public int getN()
-    {
+        String filename = "Ising-"+id+".log";
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter((filename))))
+        {
+            writer.write("*** SIMULATION PARAMETERS ***");
+            writer.newLine();
+            writer.write("ID: " + id);
+            writer.newLine();
+            writer.write("Size: " + N + "x" + N);
+            writer.newLine();
+            writer.write("Wang-Landau energy windows: " + windows);
+            writer.newLine();
+            writer.write("Flatness: " + flatness);
+            writer.newLine();
+            writer.write("Final ln f: " + finalLnF);
+            writer.newLine();
+            writer.write("Threads: " + threads);
+            writer.newLine();
+            writer.write("Random number generator: " + rngName);
+            writer.newLine();
+            writer.write("Seed: " + seed);
+            writer.newLine();
+            writer.newLine();
+            writer.write("*** SIMULATION OUTCOME ***");
+            writer.newLine();
+            writer.write("Window, sweeps");
+            writer.newLine();
+            for (int k = 0; k < sweeps.length; k++)
+            {
+                writer.write(k + " " + sweeps[k]);
+                writer.newLine();
+            }
+            writer.write("Energy levels visited: " + visited + " of " + dos.getLevels());
+            writer.newLine();
+            writer.write("Ground state degeneracy (exact: 2): " + Math.exp(dos.getLogG(0)));
+            writer.newLine();
+            writer.write("Specific heat peak: T = " + peakT + ", c = " + peakC);
+            writer.newLine();
+            writer.write("Run time (s): " + seconds);
+
+            say("Log file written.");
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    // Write the parameters of a single run, for a checkpoint.
+    public void saveParameters(DataOutput out) throws IOException
+    {
+        out.writeLong(id.getMostSignificantBits());
+        out.writeLong(id.getLeastSignificantBits());
+        out.writeInt(N);
+        out.writeDouble(T);
+        out.writeDouble(h);
+        out.writeLong(eqSteps);
+        out.writeLong(measureSteps);
+        out.writeBoolean(saveMag);
+        out.writeUTF(magFormat);
+        out.writeBoolean(magCompress);
+        out.writeUTF(stateFormat);
+        out.writeBoolean(saveHistogram);
+        out.writeInt(snapshotSize);
+        out.writeLong(frameInterval);
+        out.writeLong(correlationInterval);
+        out.writeUTF(movieFormat);
+        out.writeUTF(initialStateName == null ? "" : initialStateName);
+        out.writeLong(loadState ? initalState.getSteps() : 0);
+        out.writeUTF(engineName);
+        out.writeInt(threads);
+        out.writeUTF(kernel);
+        out.writeBoolean(debug);
+        out.writeUTF(rngName);
+        out.writeLong(seed);
+    }
+
+    // Write the consolidated table of results for a batch, one row per run.
+    public void writeBatchTable(String[] rows)
+    {
+        String filename = "Ising-batch-"+id+".csv";
+
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter((filename))))
+        {
+            writer.write("run,id,N,T,h,eqSteps,measureSteps,engine,seed,mean_magnetization,variance,error,tau,"
+                    + "acceptance_ratio,sweeps_per_s");
+            writer.newLine();
+            for (String row : rows)
+            {
+                writer.write(row);
+                writer.newLine();
+            }
+            say("Batch results table written: " + filename);
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    // Write a file containing the number of clusters of each size, one "size count" pair per line.
+    public void writeClusterSizes(long[] clusterSizes)
+    {
+        String filename = "Ising-clusters-"+id+".dat";
+
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter((filename))))
+        {
+            for (int size = 1; size < clusterSizes.length; size++)
+            {
+                if (clusterSizes[size] != 0)
+                {
+                    writer.write(size + " " + clusterSizes[size]);
+                    writer.newLine();
+                }
+            }
+            say("Cluster size distribution written.");
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
+    }
+
+    // Write the joint histogram of the bond sum and magnetization over the measurements.
+    public void writeHistogram(Histogram histogram)
+    {
+        writeHistogram("Ising-histogram-"+id+".hist", histogram);
+    }
+
+    // As above, for the measurements at one temperature of the ladder.
+    public void writeHistogram(Histogram histogram, int slot)
+    {
+        writeHistogram("Ising-histogram-"+id+"-T"+slot+".hist", histogram);
+    }
+
+    // Write the radially averaged correlation function and structure factor, with the correlation length.
+    public void writeCorrelations(Correlations correlations)
+    {
+        if (correlations.getCount() == 0)
+        {
+            System.err.println("No correlations were measured; the run is shorter than the interval.");
+            return;
+        }
+        double xi = correlations.getCorrelationLength();
+        double mag = correlations.getMag();
+        String filename = "Ising-correlation-"+id+".dat";
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter((filename))))
+        {
+            writer.write("# Spin-spin correlation function over " + correlations.getCount() + " measurements.");
+            writer.newLine();
+            writer.write("# Second-moment correlation length: " + xi);
+            writer.newLine();
+            writer.write("# r C(r) C(r)-<m>^2");
+            writer.newLine();
+            for (double[] shell : correlations.radialAverage(correlations.getCorrelation()))
+            {
+                writer.write(shell[0] + " " + shell[1] + " " + (shell[1] - mag*mag));
+                writer.newLine();
+            }
+            say("Correlation file written.");
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
+        filename = "Ising-structure-"+id+".dat";
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter((filename))))
+        {
+            writer.write("# Structure factor over " + correlations.getCount() + " measurements, k in 2 pi/N.");
+            writer.newLine();
+            writer.write("# |k| S(k)");
+            writer.newLine();
+            for (double[] shell : correlations.radialAverage(correlations.getStructureFactor()))
+            {
+                writer.write(shell[0] + " " + shell[1]);
+                writer.newLine();
+            }
+            say("Structure factor file written.");
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
+        say("Correlation length: " + xi);
+    }
+
+    // Write a file containing the state of the magnet, with the number of engine steps that led to it.
+    public void writeState(Magnet magnet, long steps)
+    {
+        String filename = "Ising-state-"+id+".state";
+
+        try
+        {
+            if (stateFormat.equals("text"))
+            {
+                SpinState.writeText(filename, magnet);
+            }
+            else
+            {
+                SpinState.writeBinary(filename, magnet, magnet.getT(), magnet.getH(), seed, steps);
+            }
+            say("State file written.");
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
+    }
+
+
+    //
+    // Private methods.
+    //
+
+    // Assign a value to a simulation parameter from a command line argument.
+    private void assign(String parameterName, String parameterValue)
+    {
+        try
+        {
+            if (parameterName.equals("-n"))
+            {
+                setN(Integer.parseInt(parameterValue));
+            }
+            if(parameterName.equals("-t"))
+            {
+                setT(Double.parseDouble(parameterValue));
+            }
+            if(parameterName.equals("-h"))
+            {
+                setH(Double.parseDouble(parameterValue));
+            }
+            if (parameterName.equals("-e"))
+            {
+                setEqSteps(Long.parseLong(parameterValue));
+            }
+            if (parameterName.equals("-m"))
+            {
+                setMeasureSteps(Long.parseLong(parameterValue));
+            }
+            if (parameterName.equals("-magfile"))
+            {
+                saveMag = Boolean.parseBoolean(parameterValue);
+            }
+            if (parameterName.equals("-magformat"))
+            {
+                setMagFormat(parameterValue);
+            }
+            if (parameterName.equals("-magcompress"))
+            {
+                setMagCompress(Boolean.parseBoolean(parameterValue));
+            }
+            if (parameterName.equals("-stateformat"))
+            {
+                setStateFormat(parameterValue);
+            }
+            if (parameterName.equals("-histogram"))
+            {
+                saveHistogram = Boolean.parseBoolean(parameterValue);
+            }
+            if (parameterName.equals("-snapshotsize"))
+            {
+                snapshotSize = Integer.parseInt(parameterValue);
+                if (snapshotSize < 0)
+                {
+                    throw new IllegalArgumentException("Snapshot size cannot be less than zero!");
+                }
+            }
+            if (parameterName.equals("-frames"))
+            {
+                frameInterval = Long.parseLong(parameterValue);
+                if (frameInterval < 0)
+                {
+                    throw new IllegalArgumentException("Sweeps between frames cannot be less than zero!");
+                }
+            }
+            if (parameterName.equals("-correlation"))
+            {
+                correlationInterval = Long.parseLong(parameterValue);
+                if (correlationInterval < 0)
+                {
+                    throw new IllegalArgumentException("Sweeps between correlations cannot be less than zero!");
+                }
+            }
+            if (parameterName.equals("-movie"))
+            {
+                if (!parameterValue.equals("png") && !parameterValue.equals("gif"))
+                {
+                    throw new IllegalArgumentException("Unknown movie format: " + parameterValue);
+                }
+                movieFormat = parameterValue;
+            }
+            if (parameterName.equals("-s"))
+            {
+                loadState = true;
+                this.initialStateName = parameterValue;
+                readState(parameterValue);
+            }
+            if (parameterName.equals("-engine"))
+            {
+                setEngineName(parameterValue);
+            }
+            if (parameterName.equals("-threads"))
+            {
+                setThreads(Integer.parseInt(parameterValue));
+            }
+            if (parameterName.equals("-kernel"))
+            {
+                setKernel(parameterValue);
+            }
+            if (parameterName.equals("-lattice"))
+            {
+                setLattice(parameterValue);
+            }
+            if (parameterName.equals("-slabs"))
+            {
+                setSlabs(Integer.parseInt(parameterValue));
+            }
+            if (parameterName.equals("-slabport"))
+            {
+                setSlabPort(Integer.parseInt(parameterValue));
+            }
+            if (parameterName.equals("-worker"))
+            {
+                workerAddress = parameterValue;
+            }
+            if (parameterName.equals("-ladder"))
+            {
+                String[] temperatures = parameterValue.split(",");
+                double[] values = new double[temperatures.length];
+                for (int k = 0; k < temperatures.length; k++)
+                {
+                    values[k] = Double.parseDouble(temperatures[k]);
+                }
+                setLadder(values);
+            }
+            if (parameterName.equals("-swap"))
+            {
+                swapInterval = Integer.parseInt(parameterValue);
+                if (swapInterval < 0)
+                {
+                    throw new IllegalArgumentException("Steps between exchanges cannot be less than zero!");
+                }
+            }
+            if (parameterName.equals("-wanglandau"))
+            {
+                wangLandau = Boolean.parseBoolean(parameterValue);
+            }
+            if (parameterName.equals("-windows"))
+            {
+                windows = Integer.parseInt(parameterValue);
+                if (windows <= 0)
+                {
+                    throw new IllegalArgumentException("Number of energy windows must be greater than zero!");
+                }
+            }
+            if (parameterName.equals("-flatness"))
+            {
+                flatness = Double.parseDouble(parameterValue);
+                if (flatness <= 0 || flatness >= 1)
+                {
+                    throw new IllegalArgumentException("Flatness must be between 0 and 1!");
+                }
+            }
+            if (parameterName.equals("-lnf"))
+            {
+                finalLnF = Double.parseDouble(parameterValue);
+                if (finalLnF <= 0 || finalLnF >= 1)
+                {
+                    throw new IllegalArgumentException("Final ln f must be between 0 and 1!");
+                }
+            }
+            if (parameterName.equals("-batch"))
+            {
+                batchSpec = parameterValue;
+            }
+            if (parameterName.equals("-permits"))
+            {
+                permits = Integer.parseInt(parameterValue);
+                if (permits <= 0)
+                {
+                    throw new IllegalArgumentException("Number of permits must be greater than zero!");
+                }
+            }
+            if (parameterName.equals("-rng"))
+            {
+                setRngName(parameterValue);
+            }
+            if (parameterName.equals("-seed"))
+            {
+                setSeed(Long.parseLong(parameterValue));
+            }
+            if (parameterName.equals("-debug"))
+            {
+                setDebug(Boolean.parseBoolean(parameterValue));
+            }
+            if (parameterName.equals("-checkpoint"))
+            {
+                checkpointSteps = Long.parseLong(parameterValue);
+                if (checkpointSteps < 0)
+                {
+                    throw new IllegalArgumentException("Steps between checkpoints cannot be less than zero!");
+                }
+            }
+            if (parameterName.equals("-checkpointtime"))
+            {
+                checkpointSeconds = Double.parseDouble(parameterValue);
+                if (checkpointSeconds < 0)
+                {
+                    throw new IllegalArgumentException("Seconds between checkpoints cannot be less than zero!");
+                }
+            }
+            if (parameterName.equals("-resume"))
+            {
+                readCheckpoint(parameterValue);
+            }
+            if (parameterName.equals("-metrics"))
+            {
+                metrics = Boolean.parseBoolean(parameterValue);
+            }
+            if (parameterName.equals("-metricsport"))
+            {
+                metricsPort = Integer.parseInt(parameterValue);
+                if (metricsPort < 0 || metricsPort > 65535)
+                {
+                    throw new IllegalArgumentException("Metrics port must be between 0 and 65535!");
+                }
+            }
+        }
+        catch(NumberFormatException e)
+        {
+            inputValid = false;
+            System.err.println("Number format exception: " + e.getMessage());
+        }
+        catch(IllegalArgumentException e)
+        {
+            inputValid = false;
+            System.err.println("Illegal argument exception: " + e.getMessage());
+        }
+    }
+
+    // Continue a run from a checkpoint.  The parameters of the run are taken from the checkpoint and override any
+    // given before -resume on the command line; the checkpoint options may be given again after it.
+    private void readCheckpoint(String filename)
+    {
+        try
+        {
+            resume = Checkpoint.read(filename);
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(resume.getParameters()));
+            id = new UUID(in.readLong(), in.readLong());
+            N = in.readInt();
+            T = in.readDouble();
+            h = in.readDouble();
+            eqSteps = in.readLong();
+            measureSteps = in.readLong();
+            saveMag = in.readBoolean();
+            magFormat = in.readUTF();
+            magCompress = in.readBoolean();
+            stateFormat = in.readUTF();
+            saveHistogram = in.readBoolean();
+            snapshotSize = in.readInt();
+            frameInterval = in.readLong();
+            correlationInterval = in.readLong();
+            movieFormat = in.readUTF();
+            String name = in.readUTF();
+            initialStateName = name.isEmpty() ? null : name;
+            long priorSteps = in.readLong();
+            engineName = in.readUTF();
+            threads = in.readInt();
+            kernel = in.readUTF();
+            debug = in.readBoolean();
+            rngName = in.readUTF();
+            seed = in.readLong();
+
+            // The lattice of the checkpoint stands in for the initial state.
+            initalState = resume.getSpins();
+            initalState.setSteps(priorSteps);
+            loadState = true;
+        }
+        catch(IOException e)
+        {
+            inputValid = false;
+            System.err.println("IOException: " + e.getMessage());
+        }
+    }
+
+    // Start a simulation from a saved state, in either format.
+    private void readState(String stateName)
+    {
+        try
+        {
+            initalState = SpinState.read(stateName);
+            N = initalState.getN(); // This will overwrite the -n command line argument.
+        }
+        catch(IOException e)
+        {
+            inputValid = false;
+            System.err.println("IOException: " + e.getMessage());
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    // Prompt the user that the program is finished.
+    public void bye()
+    {
+        say("*** SIMULATION COMPLETE ***");
+    }
+
+    // Prompt user about the status of simulation.
+    public void informInitDone()
+    {
+        say("Initialization complete.");
+    }
+
+    public void informEqDone()
+    {
+        say("Equilibration complete.");
+    }
+
+    public void informMeasureDone()
+    {
+        say("Measurements complete.");
+    }
+
+    public void informBatchStart(int runs)
+    {
+        say("Batch of " + runs + " runs, at most " + permits + " at a time.");
+    }
+
+    public void informBatchProgress(int done, int runs, UUID runId)
+    {
+        say("Run " + done + "/" + runs + " complete: " + runId);
+    }
+
+    public void informInitialCondition(String condition)
+    {
+        say("The magnet is initialized at " + condition + ".");
+    }
+
+    public void informCheckpoint(int stage, long step)
+    {
+        String stageName = stage == Checkpoint.EQUILIBRATION ? "equilibration" : "measurement";
+        say("Checkpoint written at " + stageName + " step " + step + ".");
+    }
+
+    public void informResume(int stage, long step)
+    {
+        String stageName = stage == Checkpoint.EQUILIBRATION ? "equilibration" : "measurement";
+        say("Resuming at " + stageName + " step " + step + ".");
+    }
+
+    public void informFrames(long written, long dropped)
+    {
+        say("Movie frames written: " + written + (dropped > 0 ? " (" + dropped + " dropped)" : ""));
+    }
+
+    public void informWindow(int window, double lnF, long sweeps)
+    {
+        say("Window " + window + ": ln f = " + lnF + " after " + sweeps + " sweeps.");
+    }
+
+    public void informWorkers(String message)
+    {
+        say(message);
+    }
+
+    public void informMetrics(String where)
+    {
+        say("Live metrics: " + where);
+    }
+
+    public void informThroughput(double sweepRate)
+    {
+        say("Throughput: " + sweepRate + " sweeps/s");
+    }
+
+    public UUID getId()
+    {
+        return id;
+    }
+
+    public Checkpoint getResume()
+    {
+        return resume;
+    }
+
+    public String getCheckpointName()
+    {
+        return "Ising-checkpoint-"+id+".chk";
+    }
+
+    public long getCheckpointSteps()
+    {
+        return checkpointSteps;
+    }
+
+    public double getCheckpointSeconds()
+    {
+        return checkpointSeconds;
+    }
+
+    public int getN()
+    {
         return N;
     }
 
@@ -331,12 +1248,12 @@ public class Communicator
         return h;
     }
 
-    public int getEqSteps()
+    public long getEqSteps()
     {
         return eqSteps;
     }
 
-    public int getMeasureSteps()
+    public long getMeasureSteps()
     {
         return measureSteps;
     }
@@ -351,14 +1268,182 @@ public class Communicator
         return loadState;
     }
 
-    public int[][] getState()
+    public SpinState getState()
     {
         return initalState;
     }
 
+    public boolean isDebug()
+    {
+        return debug;
+    }
+
+    public String getEngineName()
+    {
+        return engineName;
+    }
+
+    public int getThreads()
+    {
+        return threads;
+    }
+
+    public boolean isWangLandau()
+    {
+        return wangLandau;
+    }
+
+    public int getWindows()
+    {
+        return windows;
+    }
+
+    public double getFlatness()
+    {
+        return flatness;
+    }
+
+    public double getFinalLnF()
+    {
+        return finalLnF;
+    }
+
+    public String getKernel()
+    {
+        return kernel;
+    }
+
+    public int getSlabs()
+    {
+        return slabs;
+    }
+
+    public int getSlabPort()
+    {
+        return slabPort;
+    }
+
+    public boolean isWorker()
+    {
+        return workerAddress != null;
+    }
+
+    public String getWorkerAddress()
+    {
+        return workerAddress;
+    }
+
+    // "heap", "direct" for direct buffers, or the name of a file to map.
+    public String getLattice()
+    {
+        return lattice;
+    }
+
+    // True when a temperature ladder was given, selecting a replica exchange run.
+    public boolean isTempering()
+    {
+        return ladder != null;
+    }
+
+    public double[] getLadder()
+    {
+        return ladder;
+    }
+
+    // By default, exchange replicas once per sweep.
+    public int getSwapInterval()
+    {
+        if (swapInterval == 0)
+        {
+            return engineName.equals("metropolis") ? N*N : 1;
+        }
+        return swapInterval;
+    }
+
+    // True when a batch specification was given, selecting a batch of runs.
+    public boolean isBatch()
+    {
+        return batchSpec != null;
+    }
+
+    public String getBatchSpec()
+    {
+        return batchSpec;
+    }
+
+    public int getPermits()
+    {
+        return permits;
+    }
+
+    public boolean isQuiet()
+    {
+        return quiet;
+    }
+
+    public String getRngName()
+    {
+        return rngName;
+    }
+
+    public String getMagFormat()
+    {
+        return magFormat;
+    }
+
+    public boolean getMagCompress()
+    {
+        return magCompress;
+    }
+
+    public boolean isSaveHistogram()
+    {
+        return saveHistogram;
+    }
+
+    public String getStateFormat()
+    {
+        return stateFormat;
+    }
+
+    public int getSnapshotSize()
+    {
+        return snapshotSize;
+    }
+
+    public long getFrameInterval()
+    {
+        return frameInterval;
+    }
+
+    public long getCorrelationInterval()
+    {
+        return correlationInterval;
+    }
+
+    public String getMovieFormat()
+    {
+        return movieFormat;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public boolean isMetrics()
+    {
+        return metrics;
+    }
+
+    public int getMetricsPort()
+    {
+        return metricsPort;
+    }
+
     private String determineInitialCondition()
     {
-        if (loadState)
+        if (loadState && initialStateName != null)
         {
             return initialStateName;
         }
@@ -376,4 +1461,173 @@ public class Communicator
         }
 
     }
+
+    // Setters for building parameter sets programmatically.  These apply the same checks as the command line.
+    public void setN(int N)
+    {
+        if (N <= 0)
+        {
+            throw new IllegalArgumentException("N must be a positive-definite integer.");
+        }
+        this.N = N;
+    }
+
+    public void setT(double T)
+    {
+        if (T==0.0)
+        {
+            throw new IllegalArgumentException("Temperature must be nonzero!");
+        }
+        this.T = T;
+    }
+
+    public void setH(double h)
+    {
+        this.h = h;
+    }
+
+    public void setEqSteps(long eqSteps)
+    {
+        if (eqSteps < 0)
+        {
+            throw new IllegalArgumentException("Number of equilibration steps cannot be less than zero!");
+        }
+        this.eqSteps = eqSteps;
+    }
+
+    public void setMeasureSteps(long measureSteps)
+    {
+        if (measureSteps <= 0)
+        {
+            throw new IllegalArgumentException("Number of measurement steps must be greater than zero!");
+        }
+        this.measureSteps = measureSteps;
+    }
+
+    public void setEngineName(String engineName)
+    {
+        if (!Engine.isKnown(engineName))
+        {
+            throw new IllegalArgumentException("Unknown engine: " + engineName);
+        }
+        this.engineName = engineName;
+    }
+
+    public void setThreads(int threads)
+    {
+        if (threads <= 0)
+        {
+            throw new IllegalArgumentException("Number of threads must be greater than zero!");
+        }
+        this.threads = threads;
+    }
+
+    public void setKernel(String kernel)
+    {
+        if (!RowKernel.isKnown(kernel))
+        {
+            throw new IllegalArgumentException("Unknown kernel: " + kernel);
+        }
+        this.kernel = kernel;
+    }
+
+    public void setSlabs(int slabs)
+    {
+        if (slabs == 1 || slabs < 0)
+        {
+            throw new IllegalArgumentException("A distributed run needs at least two slabs!");
+        }
+        this.slabs = slabs;
+    }
+
+    public void setSlabPort(int slabPort)
+    {
+        if (slabPort < 0 || slabPort > 65535)
+        {
+            throw new IllegalArgumentException("Invalid port: " + slabPort);
+        }
+        this.slabPort = slabPort;
+    }
+
+    public void setLattice(String lattice)
+    {
+        if (lattice.isEmpty())
+        {
+            throw new IllegalArgumentException("Lattice storage must be heap, direct or a file name!");
+        }
+        this.lattice = lattice;
+    }
+
+    public void setLadder(double[] ladder)
+    {
+        if (ladder.length < 2)
+        {
+            throw new IllegalArgumentException("The temperature ladder needs at least two temperatures!");
+        }
+        for (double temperature : ladder)
+        {
+            if (temperature <= 0.0)
+            {
+                throw new IllegalArgumentException("Ladder temperatures must be positive!");
+            }
+        }
+        this.ladder = ladder.clone();
+        Arrays.sort(this.ladder);
+    }
+
+    public void setRngName(String rngName)
+    {
+        if (!Rng.isKnown(rngName))
+        {
+            throw new IllegalArgumentException("Unknown random number generator: " + rngName);
+        }
+        this.rngName = rngName;
+    }
+
+    public void setMagFormat(String magFormat)
+    {
+        if (!MagWriter.isKnown(magFormat))
+        {
+            throw new IllegalArgumentException("Unknown magnetization file format: " + magFormat);
+        }
+        this.magFormat = magFormat;
+    }
+
+    public void setMagCompress(boolean magCompress)
+    {
+        this.magCompress = magCompress;
+    }
+
+    public void setStateFormat(String stateFormat)
+    {
+        if (!stateFormat.equals("binary") && !stateFormat.equals("text"))
+        {
+            throw new IllegalArgumentException("Unknown state file format: " + stateFormat);
+        }
+        this.stateFormat = stateFormat;
+    }
+
+    public void setSeed(long seed)
+    {
+        this.seed = seed;
+    }
+
+    public void setDebug(boolean debug)
+    {
+        this.debug = debug;
+    }
+
+    public void setQuiet(boolean quiet)
+    {
+        this.quiet = quiet;
+    }
+
+    // Print a message for the user unless running quietly.
+    private void say(String message)
+    {
+        if (!quiet)
+        {
+            System.out.println(message);
+        }
+    }
 }
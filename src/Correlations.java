@@ -0,0 +1,361 @@
+// FILE: Correlations.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Measures the structure factor S(k) = <|sum_x s_x exp(-i k.x)|^2>/N^2 every K sweeps of the measurement stage
+// (-correlation=K), and from it the spin-spin correlation function C(r) = <s_0 s_r> and the second-moment correlation
+// length.  Each measurement is a two-dimensional FFT of the lattice: a radix-2 transform of every row and then of
+// every column, O(N^2 log N) in all, with the rows and the columns split into strips on a ForkJoinPool.  The lattice
+// is transformed in two reusable arrays of N^2 doubles, and only |F(k)|^2 is kept, summed over the measurements.
+// N must be a power of two.
+//
+// At the end C(r) is the transform of the mean S(k), since the two are a Fourier pair on the periodic lattice, and
+// both are averaged over shells of equal distance |r| or |k| (in units of 2 pi/N).  The correlation length is
+// xi = sqrt(S(0)/S(k_min) - 1)/(2 sin(k_min/2)) with k_min = 2 pi/N, which needs no fit.
+public class Correlations
+{
+    private final int N;
+    private final long interval; // Spin updates between measurements, i.e. K sweeps.
+    private long nextMeasurement = Long.MAX_VALUE; // Spin updates at which the next measurement is due.
+    private final ForkJoinPool pool;
+    private final int[] stripStart;
+    private final double[][] stripRe; // Scratch column per strip.
+    private final double[][] stripIm;
+    private final long[][] stripRow; // Scratch packed row per strip.
+    private final int[] reverse; // Bit-reversal permutation.
+    private final double[] cos;
+    private final double[] sin;
+    private final double[] re;
+    private final double[] im;
+    private final double[] power; // Sum of |F(k)|^2 over the measurements, at ky*N + kx.
+    private final Pass rowPass; // Task trees, built once and reinitialized for each measurement.
+    private final Pass columnPass;
+    private double magSum = 0; // Sum of the magnetization per spin over the measurements.
+    private long count = 0;
+    private Magnet magnet; // The magnet being measured.
+
+    //
+    // Constructor.
+    //
+    public Correlations(Communicator comms)
+    {
+        N = comms.getN();
+        interval = comms.getCorrelationInterval()*comms.getN()*comms.getN();
+        pool = new ForkJoinPool(comms.getThreads());
+
+        int strips = Math.min(N, 4*comms.getThreads());
+        stripStart = new int[strips + 1];
+        for (int s = 0; s <= strips; s++)
+        {
+            stripStart[s] = (int) ((long) s*N/strips);
+        }
+        stripRe = new double[strips][N];
+        stripIm = new double[strips][N];
+        stripRow = new long[strips][(N + 63) >>> 6];
+
+        int bits = Integer.numberOfTrailingZeros(N);
+        reverse = new int[N];
+        for (int a = 0; a < N; a++)
+        {
+            reverse[a] = bits == 0 ? 0 : Integer.reverse(a) >>> (32 - bits);
+        }
+        cos = new double[Math.max(1, N/2)];
+        sin = new double[Math.max(1, N/2)];
+        for (int k = 0; k < N/2; k++)
+        {
+            cos[k] = Math.cos(2*Math.PI*k/N);
+            sin[k] = Math.sin(2*Math.PI*k/N);
+        }
+        re = new double[N*N];
+        im = new double[N*N];
+        power = new double[N*N];
+        rowPass = new Pass(true, 0, strips);
+        columnPass = new Pass(false, 0, strips);
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Start measuring, after the given number of spin updates, at the next multiple of the interval.
+    public void begin(long moves)
+    {
+        nextMeasurement = (moves/interval + 1)*interval;
+    }
+
+    // Measure if a measurement is due after the given number of spin updates.
+    public void measure(Magnet magnet, long moves)
+    {
+        if (moves < nextMeasurement)
+        {
+            return;
+        }
+        nextMeasurement = (moves/interval + 1)*interval;
+        this.magnet = magnet;
+        rowPass.reinitialize();
+        pool.invoke(rowPass);
+        columnPass.reinitialize();
+        pool.invoke(columnPass);
+        magSum += magnet.getMag();
+        count++;
+    }
+
+    // Write the accumulated sums, e.g. for a checkpoint.
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeLong(count);
+        out.writeDouble(magSum);
+        for (double value : power)
+        {
+            out.writeDouble(value);
+        }
+    }
+
+    // Replace the accumulated sums with those written by save.
+    public void restore(DataInput in) throws IOException
+    {
+        count = in.readLong();
+        magSum = in.readDouble();
+        for (int k = 0; k < power.length; k++)
+        {
+            power[k] = in.readDouble();
+        }
+    }
+
+    // The mean structure factor S(k), at ky*N + kx.
+    public double[] getStructureFactor()
+    {
+        double[] s = new double[N*N];
+        for (int k = 0; k < s.length; k++)
+        {
+            s[k] = power[k]/count/((double) N*N);
+        }
+        return s;
+    }
+
+    // The correlation function C(r) = <s_0 s_r>, at y*N + x, as the transform of the mean structure factor.  This
+    // reuses the measurement arrays, so it is only for the end of the run.
+    public double[] getCorrelation()
+    {
+        double[] s = getStructureFactor();
+        for (int k = 0; k < s.length; k++)
+        {
+            re[k] = s[k];
+            im[k] = 0;
+        }
+        for (int i = 0; i < N; i++)
+        {
+            fft(re, im, i*N, 1);
+        }
+        for (int j = 0; j < N; j++)
+        {
+            fft(re, im, j, N);
+        }
+        double[] c = new double[N*N];
+        for (int r = 0; r < c.length; r++)
+        {
+            c[r] = re[r]/((double) N*N);
+        }
+        return c;
+    }
+
+    // Second-moment correlation length, from S(0) and S at the smallest nonzero wave vector.
+    public double getCorrelationLength()
+    {
+        double[] s = getStructureFactor();
+        double s1 = 0.25*(s[1] + s[N-1] + s[N] + s[(N-1)*N]);
+        return Math.sqrt(s[0]/s1 - 1)/(2*Math.sin(Math.PI/N));
+    }
+
+    // Average over shells of equal periodic distance from the origin, the shell of an index pair being its rounded
+    // distance.  Returns {mean distance, mean value} per shell that holds any points.
+    public double[][] radialAverage(double[] values)
+    {
+        int shells = (int) Math.round(Math.sqrt(2)*(N/2)) + 1;
+        double[] distance = new double[shells];
+        double[] sum = new double[shells];
+        long[] points = new long[shells];
+        for (int y = 0; y < N; y++)
+        {
+            int dy = Math.min(y, N - y);
+            for (int x = 0; x < N; x++)
+            {
+                int dx = Math.min(x, N - x);
+                double r = Math.sqrt(dx*dx + dy*dy);
+                int shell = (int) Math.round(r);
+                distance[shell] += r;
+                sum[shell] += values[y*N + x];
+                points[shell]++;
+            }
+        }
+        int filled = 0;
+        for (long p : points)
+        {
+            filled += p > 0 ? 1 : 0;
+        }
+        double[][] average = new double[filled][2];
+        int next = 0;
+        for (int shell = 0; shell < shells; shell++)
+        {
+            if (points[shell] > 0)
+            {
+                average[next][0] = distance[shell]/points[shell];
+                average[next][1] = sum[shell]/points[shell];
+                next++;
+            }
+        }
+        return average;
+    }
+
+    public void close()
+    {
+        pool.shutdown();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Load the rows of a strip from the magnet and transform them in place.
+    private void transformRows(int s)
+    {
+        long[] row = stripRow[s];
+        for (int i = stripStart[s]; i < stripStart[s+1]; i++)
+        {
+            magnet.getRow(i, row);
+            int offset = i*N;
+            for (int j = 0; j < N; j++)
+            {
+                re[offset + j] = ((row[j >>> 6] >>> j) & 1L) != 0 ? 1 : -1;
+                im[offset + j] = 0;
+            }
+            fft(re, im, offset, 1);
+        }
+    }
+
+    // Transform the columns of a strip in its scratch column and add their power to the sums.
+    private void transformColumns(int s)
+    {
+        double[] columnRe = stripRe[s];
+        double[] columnIm = stripIm[s];
+        for (int j = stripStart[s]; j < stripStart[s+1]; j++)
+        {
+            for (int i = 0; i < N; i++)
+            {
+                columnRe[i] = re[i*N + j];
+                columnIm[i] = im[i*N + j];
+            }
+            fft(columnRe, columnIm, 0, 1);
+            for (int i = 0; i < N; i++)
+            {
+                power[i*N + j] += columnRe[i]*columnRe[i] + columnIm[i]*columnIm[i];
+            }
+        }
+    }
+
+    // In-place radix-2 FFT of the N values at offset, offset + stride, ...
+    private void fft(double[] re, double[] im, int offset, int stride)
+    {
+        for (int a = 0; a < N; a++)
+        {
+            int b = reverse[a];
+            if (a < b)
+            {
+                int p = offset + a*stride;
+                int q = offset + b*stride;
+                double t = re[p];
+                re[p] = re[q];
+                re[q] = t;
+                t = im[p];
+                im[p] = im[q];
+                im[q] = t;
+            }
+        }
+        for (int size = 2; size <= N; size <<= 1)
+        {
+            int half = size >>> 1;
+            int step = N/size;
+            for (int start = 0; start < N; start += size)
+            {
+                for (int k = 0; k < half; k++)
+                {
+                    double wr = cos[k*step];
+                    double wi = -sin[k*step];
+                    int p = offset + (start + k)*stride;
+                    int q = p + half*stride;
+                    double tr = wr*re[q] - wi*im[q];
+                    double ti = wr*im[q] + wi*re[q];
+                    re[q] = re[p] - tr;
+                    im[q] = im[p] - ti;
+                    re[p] += tr;
+                    im[p] += ti;
+                }
+            }
+        }
+    }
+
+    // Recursively split a range of strips across the pool, transforming either rows or columns.  The halves are
+    // built with the task, so that a pass can be run again after reinitialize() without allocating.
+    private class Pass extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private final boolean rows;
+        private final int from;
+        private final int to;
+        private final Pass lower; // Null for a single strip.
+        private final Pass upper;
+
+        Pass(boolean rows, int from, int to)
+        {
+            this.rows = rows;
+            this.from = from;
+            this.to = to;
+            int mid = (from + to) >>> 1;
+            lower = to - from == 1 ? null : new Pass(rows, from, mid);
+            upper = to - from == 1 ? null : new Pass(rows, mid, to);
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from == 1)
+            {
+                if (rows)
+                {
+                    transformRows(from);
+                }
+                else
+                {
+                    transformColumns(from);
+                }
+            }
+            else
+            {
+                lower.reinitialize();
+                upper.reinitialize();
+                invokeAll(lower, upper);
+            }
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    // Mean magnetization per spin over the measurements.
+    public double getMag()
+    {
+        return magSum/count;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+}
@@ -0,0 +1,225 @@
+// FILE: DensityOfStates.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+// The density of states g(E) of an NxN lattice at h = 0, as sampled by WangLandau.  The energies E = -B are
+// spaced by 4 from the ground state E = -2N^2, and ln g is kept per level, -infinity for levels never visited.
+// From it the canonical averages at any temperature are sums over at most N^2 + 1 levels.
+//
+// The file is text: a header line "N <N>", then one line "<E> <ln g>" per visited level.  Lines starting with # are
+// comments.
+//
+// Usage: java DensityOfStates [-t=<T1,T2,...> | -t=<FROM:TO:STEP>] <FILE.dos>
+// Prints, per temperature, the energy u, specific heat c, free energy f and entropy s per spin.  Without -t the
+// temperatures run from 0.5 to 5 in steps of 0.05.
+public class DensityOfStates
+{
+    private final int N;
+    private final double[] logG;
+
+    //
+    // Constructor.
+    //
+    public DensityOfStates(int N, double[] logG)
+    {
+        this.N = N;
+        this.logG = logG;
+    }
+
+    //
+    // Public methods.
+    //
+
+    public static void main(String[] args)
+    {
+        List<Double> temperatures = null;
+        String filename = null;
+        for (String arg : args)
+        {
+            if (arg.startsWith("-t="))
+            {
+                try
+                {
+                    temperatures = Reweight.parseTemperatures(arg.substring(3));
+                }
+                catch(IllegalArgumentException e)
+                {
+                    System.err.println(e.getMessage());
+                    return;
+                }
+            }
+            else
+            {
+                filename = arg;
+            }
+        }
+        if (filename == null)
+        {
+            System.out.println("Usage: java DensityOfStates [-t=<T1,T2,...> | -t=<FROM:TO:STEP>] <FILE.dos>");
+            return;
+        }
+        if (temperatures == null)
+        {
+            temperatures = Reweight.parseTemperatures("0.5:5:0.05");
+        }
+
+        DensityOfStates dos;
+        try
+        {
+            dos = read(filename);
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+            return;
+        }
+        System.out.println("# T u c f s");
+        for (double T : temperatures)
+        {
+            double[] t = dos.thermodynamics(T);
+            System.out.println(String.format(Locale.ROOT, "%.6f %.10g %.10g %.10g %.10g", T, t[0], t[1], t[2], t[3]));
+        }
+    }
+
+    // Thermodynamics per spin at temperature T: {u, c, f, s}, the energy, specific heat, free energy and entropy.
+    public double[] thermodynamics(double T)
+    {
+        double beta = 1/T;
+        double[] logW = new double[logG.length];
+        double largest = Double.NEGATIVE_INFINITY;
+        for (int e = 0; e < logG.length; e++)
+        {
+            logW[e] = logG[e] - beta*getEnergy(e);
+            largest = Math.max(largest, logW[e]);
+        }
+
+        // The mean first, then the variance about it.
+        double z = 0;
+        double u = 0;
+        for (int e = 0; e < logG.length; e++)
+        {
+            double w = Math.exp(logW[e] - largest);
+            z += w;
+            u += w*getEnergy(e);
+        }
+        u /= z;
+        double varE = 0;
+        for (int e = 0; e < logG.length; e++)
+        {
+            double d = getEnergy(e) - u;
+            varE += Math.exp(logW[e] - largest)*d*d;
+        }
+        varE /= z;
+
+        double spins = (double) N*N;
+        double f = -T*(largest + Math.log(z))/spins;
+        return new double[] {u/spins, beta*beta*varE/spins, f, (u/spins - f)/T};
+    }
+
+    public void write(String filename) throws IOException
+    {
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(filename)))
+        {
+            writer.write("# Density of states of the bond energy E = -B at h = 0, normalized to 2^(N^2) states.");
+            writer.newLine();
+            writer.write("N " + N);
+            writer.newLine();
+            writer.write("# E ln(g)");
+            writer.newLine();
+            for (int e = 0; e < logG.length; e++)
+            {
+                if (logG[e] > Double.NEGATIVE_INFINITY)
+                {
+                    writer.write(getEnergy(e) + " " + logG[e]);
+                    writer.newLine();
+                }
+            }
+        }
+    }
+
+    public static DensityOfStates read(String filename) throws IOException
+    {
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename)))
+        {
+            int N = 0;
+            double[] logG = null;
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                try
+                {
+                    if (fields.length == 2 && fields[0].equals("N"))
+                    {
+                        N = Integer.parseInt(fields[1]);
+                        logG = new double[N*N + 1];
+                        Arrays.fill(logG, Double.NEGATIVE_INFINITY);
+                    }
+                    else if (fields.length == 2 && logG != null)
+                    {
+                        long energy = Long.parseLong(fields[0]);
+                        long level = (energy + 2L*N*N)/4;
+                        if ((energy + 2L*N*N) % 4 != 0 || level < 0 || level >= logG.length)
+                        {
+                            throw new IOException(filename + ": Invalid energy: " + line);
+                        }
+                        logG[(int) level] = Double.parseDouble(fields[1]);
+                    }
+                    else
+                    {
+                        throw new IOException(filename + ": Invalid line: " + line);
+                    }
+                }
+                catch(NumberFormatException e)
+                {
+                    throw new IOException(filename + ": Invalid line: " + line);
+                }
+            }
+            if (logG == null)
+            {
+                throw new IOException(filename + ": The density of states is empty.");
+            }
+            return new DensityOfStates(N, logG);
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public int getN()
+    {
+        return N;
+    }
+
+    // Energy of a level.
+    public long getEnergy(int level)
+    {
+        return 4L*level - 2L*N*N;
+    }
+
+    // ln g of a level, -infinity if it was never visited.
+    public double getLogG(int level)
+    {
+        return logG[level];
+    }
+
+    public int getLevels()
+    {
+        return logG.length;
+    }
+}
@@ -0,0 +1,71 @@
+// FILE: Engine.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface Engine
+{
+    // Perform one update step and return the number of accepted spin flips.
+    long step();
+
+    // Total number of attempted spin updates so far.
+    long getMoves();
+
+    // Called once equilibration is over, for engines that record observables of their own.
+    default void beginMeasurement()
+    {
+    }
+
+    // Write the state the engine carries from step to step, e.g. for a checkpoint.  The magnet and its generator
+    // are saved separately.
+    void save(DataOutput out) throws IOException;
+
+    // Continue from a state written by save.  An engine resumed during measurement has had beginMeasurement called.
+    void restore(DataInput in) throws IOException;
+
+    // Release any threads held by the engine.
+    default void close()
+    {
+    }
+
+    // Create the update engine selected on the command line: "metropolis", "checkerboard", "multispin", "wolff"
+    // or "sw" (Swendsen-Wang).
+    // The magnet must have been created by Magnet.create() from the same Communicator.
+    static Engine create(Communicator comms, Magnet magnet)
+    {
+        return create(comms, magnet, comms.getThreads());
+    }
+
+    // As above, with the given number of worker threads for the parallel engines.
+    static Engine create(Communicator comms, Magnet magnet, int threads)
+    {
+        if (comms.getSlabs() > 0)
+        {
+            return new SlabEngine((SlabLattice) magnet);
+        }
+        switch (comms.getEngineName())
+        {
+            case "metropolis":
+                return new MetropolisEngine((Spins) magnet);
+            case "checkerboard":
+                return new CheckerboardEngine((Spins) magnet, threads, comms.getKernel());
+            case "multispin":
+                return new MultiSpinEngine((PackedSpins) magnet, threads);
+            case "wolff":
+                return new WolffEngine((Spins) magnet);
+            case "sw":
+                return new SwendsenWangEngine((Spins) magnet, threads);
+            default:
+                throw new IllegalArgumentException("Unknown engine: " + comms.getEngineName());
+        }
+    }
+
+    static boolean isKnown(String name)
+    {
+        return name.equals("metropolis") || name.equals("checkerboard") || name.equals("multispin")
+                || name.equals("wolff") || name.equals("sw");
+    }
+}
@@ -0,0 +1,213 @@
+// FILE: FrameRecorder.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageTypeSpecifier;
+import javax.imageio.ImageWriter;
+import javax.imageio.metadata.IIOMetadata;
+import javax.imageio.metadata.IIOMetadataNode;
+import javax.imageio.stream.ImageOutputStream;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+// Captures a frame of the magnet every K sweeps during the run and encodes the frames on a background thread, either
+// as a sequence of PNG files in the directory Ising-frames-<ID> or as the animated GIF Ising-movie-<ID>.gif.  Frames
+// are rendered on the simulation thread, which only takes a pass over the lattice, and handed over through a bounded
+// queue.  If the encoder falls behind and the queue is full, the frame is dropped rather than making the simulation
+// wait, and the number of dropped frames is reported at the end.
+public class FrameRecorder implements AutoCloseable
+{
+    private static final int QUEUE = 8; // Frames waiting to be encoded.
+    private static final int GIF_DELAY = 10; // Hundredths of a second per frame of the animated GIF.
+    private static final BufferedImage END = new BufferedImage(1, 1, BufferedImage.TYPE_BYTE_BINARY);
+    private final Communicator comms;
+    private final Visualizer visualizer;
+    private final long interval; // Spin updates between frames, i.e. K sweeps.
+    private final boolean gif;
+    private final BlockingQueue<BufferedImage> queue = new ArrayBlockingQueue<>(QUEUE);
+    private final Thread encoder;
+    private long nextFrame; // Spin updates at which the next frame is due.
+    private long dropped = 0;
+    private volatile long written = 0;
+    private volatile IOException failure;
+
+    //
+    // Constructor.
+    //
+    public FrameRecorder(Communicator comms, long moves)
+    {
+        this.comms = comms;
+        visualizer = new Visualizer(true, comms.getSnapshotSize());
+        interval = comms.getFrameInterval()*comms.getN()*comms.getN();
+        gif = comms.getMovieFormat().equals("gif");
+        nextFrame = (moves/interval + 1)*interval;
+        encoder = new Thread(this::encode, "frame-encoder");
+        encoder.setDaemon(true);
+        encoder.start();
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Capture a frame if one is due after the given number of spin updates.
+    public void capture(Magnet magnet, long moves)
+    {
+        if (moves < nextFrame)
+        {
+            return;
+        }
+        nextFrame = (moves/interval + 1)*interval;
+        if (!queue.offer(visualizer.render(magnet)))
+        {
+            dropped++;
+        }
+    }
+
+    // Encode the frames still queued and finish the file.
+    @Override
+    public void close()
+    {
+        try
+        {
+            queue.put(END);
+            encoder.join();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        if (failure != null)
+        {
+            System.err.println("Error saving frames: " + failure.getMessage());
+        }
+        comms.informFrames(written, dropped);
+    }
+
+    //
+    // Private methods.
+    //
+
+    // The encoder thread: write frames until the end marker arrives.
+    private void encode()
+    {
+        try
+        {
+            if (gif)
+            {
+                encodeGif();
+            }
+            else
+            {
+                encodePng();
+            }
+        }
+        catch(IOException e)
+        {
+            failure = e;
+            drain();
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void encodePng() throws IOException, InterruptedException
+    {
+        File directory = new File("Ising-frames-" + comms.getId());
+        if (!directory.isDirectory() && !directory.mkdirs())
+        {
+            throw new IOException("Cannot create " + directory);
+        }
+        BufferedImage frame;
+        while ((frame = queue.take()) != END)
+        {
+            ImageIO.write(frame, "png", new File(directory, String.format("frame-%06d.png", written)));
+            written++;
+        }
+    }
+
+    private void encodeGif() throws IOException, InterruptedException
+    {
+        ImageWriter writer = ImageIO.getImageWritersByFormatName("gif").next();
+        try(ImageOutputStream out = ImageIO.createImageOutputStream(new File("Ising-movie-" + comms.getId() + ".gif")))
+        {
+            writer.setOutput(out);
+            writer.prepareWriteSequence(null);
+            BufferedImage frame;
+            while ((frame = queue.take()) != END)
+            {
+                writer.writeToSequence(new IIOImage(frame, null, gifMetadata(writer, frame, written == 0)), null);
+                written++;
+            }
+            writer.endWriteSequence();
+        }
+        finally
+        {
+            writer.dispose();
+        }
+    }
+
+    // Frame delay, plus the Netscape extension on the first frame so that the movie loops.
+    private static IIOMetadata gifMetadata(ImageWriter writer, BufferedImage frame, boolean first) throws IOException
+    {
+        IIOMetadata metadata = writer.getDefaultImageMetadata(ImageTypeSpecifier.createFromRenderedImage(frame), null);
+        String format = metadata.getNativeMetadataFormatName();
+        IIOMetadataNode root = (IIOMetadataNode) metadata.getAsTree(format);
+
+        IIOMetadataNode control = child(root, "GraphicControlExtension");
+        control.setAttribute("disposalMethod", "none");
+        control.setAttribute("userInputFlag", "FALSE");
+        control.setAttribute("transparentColorFlag", "FALSE");
+        control.setAttribute("delayTime", String.valueOf(GIF_DELAY));
+        control.setAttribute("transparentColorIndex", "0");
+
+        if (first)
+        {
+            IIOMetadataNode extensions = child(root, "ApplicationExtensions");
+            IIOMetadataNode loop = new IIOMetadataNode("ApplicationExtension");
+            loop.setAttribute("applicationID", "NETSCAPE");
+            loop.setAttribute("authenticationCode", "2.0");
+            loop.setUserObject(new byte[]{1, 0, 0}); // Loop forever.
+            extensions.appendChild(loop);
+        }
+        metadata.setFromTree(format, root);
+        return metadata;
+    }
+
+    // The child node of the given name, added if there is none yet.
+    private static IIOMetadataNode child(IIOMetadataNode root, String name)
+    {
+        for (int k = 0; k < root.getLength(); k++)
+        {
+            if (root.item(k).getNodeName().equals(name))
+            {
+                return (IIOMetadataNode) root.item(k);
+            }
+        }
+        IIOMetadataNode node = new IIOMetadataNode(name);
+        root.appendChild(node);
+        return node;
+    }
+
+    // After a failure, keep taking frames so the simulation is never blocked, until the end marker.
+    private void drain()
+    {
+        try
+        {
+            while (queue.take() != END)
+            {
+            }
+        }
+        catch(InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
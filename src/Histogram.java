@@ -0,0 +1,282 @@
+// FILE: Histogram.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Comparator;
+import java.util.stream.IntStream;
+
+// The joint histogram of the bond sum B and the sum of spins M over the measurements of a run, for reweighting to
+// other temperatures and fields (see Reweight).  Both are integers, and the energy is E = -B - h*M, so the histogram
+// keeps the joint distribution of energy and magnetization exactly.  Only the (B, M) pairs that occur are stored,
+// in an open-addressing hash table of primitive arrays that doubles when half full; a run at one temperature
+// visits a narrow band of states, so the table stays small whatever the lattice size.
+//
+// The file is text: header lines "N <N>", "T <T>" and "h <h>", then one line "<B> <M> <count>" per pair, sorted.
+// Lines starting with # are comments.
+public class Histogram
+{
+    private final int N;
+    private final double T;
+    private final double h;
+    private long[] bonds;
+    private long[] mags;
+    private long[] counts; // Zero marks an empty slot.
+    private int size = 0;
+    private long samples = 0;
+
+    // Receives the pairs of a histogram.
+    public interface Visitor
+    {
+        void visit(long bondSum, long magSum, long count);
+    }
+
+    //
+    // Constructor.
+    //
+    public Histogram(int N, double T, double h)
+    {
+        this.N = N;
+        this.T = T;
+        this.h = h;
+        allocate(1024);
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Count one measurement.
+    public void add(long bondSum, long magSum)
+    {
+        add(bondSum, magSum, 1);
+    }
+
+    // Add the counts of another histogram to these.
+    public void merge(Histogram other)
+    {
+        other.forEach(this::add);
+    }
+
+    // Visit every pair, in no particular order.
+    public void forEach(Visitor visitor)
+    {
+        for (int k = 0; k < counts.length; k++)
+        {
+            if (counts[k] != 0)
+            {
+                visitor.visit(bonds[k], mags[k], counts[k]);
+            }
+        }
+    }
+
+    // Write the accumulated counts, e.g. for a checkpoint.
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeInt(size);
+        for (int k = 0; k < counts.length; k++)
+        {
+            if (counts[k] != 0)
+            {
+                out.writeLong(bonds[k]);
+                out.writeLong(mags[k]);
+                out.writeLong(counts[k]);
+            }
+        }
+    }
+
+    // Replace the counts with those written by save.
+    public void restore(DataInput in) throws IOException
+    {
+        int entries = in.readInt();
+        allocate(Math.max(1024, Integer.highestOneBit(Math.max(1, entries))*4));
+        for (int k = 0; k < entries; k++)
+        {
+            add(in.readLong(), in.readLong(), in.readLong());
+        }
+    }
+
+    public void write(String filename) throws IOException
+    {
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(filename), 1 << 16))
+        {
+            writer.write("# Joint histogram of the bond sum B and the sum of spins M; E = -B - h*M.");
+            writer.newLine();
+            writer.write("N " + N);
+            writer.newLine();
+            writer.write("T " + T);
+            writer.newLine();
+            writer.write("h " + h);
+            writer.newLine();
+            writer.write("# B M count");
+            writer.newLine();
+            int[] order = IntStream.range(0, counts.length).filter(k -> counts[k] != 0).boxed()
+                    .sorted(Comparator.<Integer>comparingLong(k -> bonds[k]).thenComparingLong(k -> mags[k]))
+                    .mapToInt(Integer::intValue).toArray();
+            for (int k : order)
+            {
+                writer.write(bonds[k] + " " + mags[k] + " " + counts[k]);
+                writer.newLine();
+            }
+        }
+    }
+
+    public static Histogram read(String filename) throws IOException
+    {
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename), 1 << 16))
+        {
+            int N = 0;
+            double T = Double.NaN;
+            double h = Double.NaN;
+            Histogram histogram = null;
+            String line;
+            while ((line = reader.readLine()) != null)
+            {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#"))
+                {
+                    continue;
+                }
+                String[] fields = line.split("\\s+");
+                try
+                {
+                    if (fields.length == 2 && fields[0].equals("N"))
+                    {
+                        N = Integer.parseInt(fields[1]);
+                    }
+                    else if (fields.length == 2 && fields[0].equals("T"))
+                    {
+                        T = Double.parseDouble(fields[1]);
+                    }
+                    else if (fields.length == 2 && fields[0].equals("h"))
+                    {
+                        h = Double.parseDouble(fields[1]);
+                    }
+                    else if (fields.length == 3)
+                    {
+                        if (histogram == null)
+                        {
+                            if (N <= 0 || Double.isNaN(T) || Double.isNaN(h))
+                            {
+                                throw new IOException(filename + ": N, T and h must precede the counts.");
+                            }
+                            histogram = new Histogram(N, T, h);
+                        }
+                        long count = Long.parseLong(fields[2]);
+                        if (count <= 0)
+                        {
+                            throw new IOException(filename + ": Invalid count: " + line);
+                        }
+                        histogram.add(Long.parseLong(fields[0]), Long.parseLong(fields[1]), count);
+                    }
+                    else
+                    {
+                        throw new IOException(filename + ": Invalid line: " + line);
+                    }
+                }
+                catch(NumberFormatException e)
+                {
+                    throw new IOException(filename + ": Invalid line: " + line);
+                }
+            }
+            if (histogram == null)
+            {
+                throw new IOException(filename + ": The histogram is empty.");
+            }
+            return histogram;
+        }
+    }
+
+    //
+    // Private methods.
+    //
+
+    private void add(long bondSum, long magSum, long count)
+    {
+        int mask = counts.length - 1;
+        int k = slot(bondSum, magSum) & mask;
+        while (counts[k] != 0 && (bonds[k] != bondSum || mags[k] != magSum))
+        {
+            k = (k + 1) & mask;
+        }
+        if (counts[k] == 0)
+        {
+            bonds[k] = bondSum;
+            mags[k] = magSum;
+            size++;
+        }
+        counts[k] += count;
+        samples += count;
+        if (size > counts.length/2)
+        {
+            grow();
+        }
+    }
+
+    private static int slot(long bondSum, long magSum)
+    {
+        long mixed = bondSum*0x9E3779B97F4A7C15L ^ magSum*0xC2B2AE3D27D4EB4FL;
+        return (int) (mixed ^ (mixed >>> 32));
+    }
+
+    private void allocate(int capacity)
+    {
+        bonds = new long[capacity];
+        mags = new long[capacity];
+        counts = new long[capacity];
+        size = 0;
+        samples = 0;
+    }
+
+    private void grow()
+    {
+        long[] oldBonds = bonds;
+        long[] oldMags = mags;
+        long[] oldCounts = counts;
+        allocate(2*oldCounts.length);
+        for (int k = 0; k < oldCounts.length; k++)
+        {
+            if (oldCounts[k] != 0)
+            {
+                add(oldBonds[k], oldMags[k], oldCounts[k]);
+            }
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public int getN()
+    {
+        return N;
+    }
+
+    public double getT()
+    {
+        return T;
+    }
+
+    public double getH()
+    {
+        return h;
+    }
+
+    // Number of measurements counted.
+    public long getSamples()
+    {
+        return samples;
+    }
+
+    // Number of distinct (B, M) pairs.
+    public int getSize()
+    {
+        return size;
+    }
+}
@@ -4,12 +4,6 @@
 
 public class Ising
 {
-    private static int eqSteps;
-    private static int measureSteps;
-    private static int acceptance = 0;
-    private static double[] results;
-    private static boolean moveAccepted;
-
     // Simulation driver.
     public static void main(String[] args)
     {
@@ -23,48 +17,37 @@ public class Ising
             return;
         }
 
-        // Initialization stage.
-        comms.greet();
-        Spins magnet = new Spins(comms);
-        comms.informInitDone();
-
-        // Equilibration stage.
-        eqSteps = comms.getEqSteps();
-        if (eqSteps > 0)
+        // A worker of a distributed run takes its parameters from the coordinator.
+        if (comms.isWorker())
         {
-            for (int s = 0; s < eqSteps; s++)
-            {
-                moveAccepted = magnet.tryMove();
-            }
+            new SlabWorker(comms.getWorkerAddress()).run();
+            return;
         }
-        comms.informEqDone();
 
-        // Measurement stage.
-        measureSteps = comms.getMeasureSteps();
-        results = new double[measureSteps];
-        for (int s = 0; s < measureSteps; s++)
+        // A batch specification runs many parameter sets, each with the remaining arguments as defaults.
+        if (comms.isBatch())
         {
-            moveAccepted = magnet.tryMove();
-            if (moveAccepted)
-            {
-                acceptance++;
-            }
+            new BatchRunner(comms).run();
+            return;
+        }
 
-            // Accumulate the results.
-            results[s] = magnet.getMag();
+        comms.greet();
+
+        // A temperature ladder selects a replica exchange run instead of a single temperature.
+        if (comms.isTempering())
+        {
+            new ParallelTempering(comms).run();
+            return;
         }
-        comms.informMeasureDone();
 
-        // Display results.
-        Stats stats = new Stats(results);
-        stats.printOutcome();
+        // A Wang-Landau run samples the density of states, for all temperatures at once.
+        if (comms.isWangLandau())
+        {
+            new WangLandau(comms).run();
+            return;
+        }
 
-        // Save results.
-        Visualizer vis = new Visualizer();
-        vis.makeSnapshot(comms.getId(), magnet.getState());
-        comms.writeLog(stats, acceptance);
-        comms.writeMag(results);
-        comms.writeState(magnet);
+        new Simulation(comms).run();
         comms.bye();
     }
-}
\ No newline at end of file
+}
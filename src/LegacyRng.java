@@ -0,0 +1,82 @@
+// FILE: LegacyRng.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Random;
+
+// The java.util.Random generator used by earlier versions of the program, kept for comparison.
+public class LegacyRng implements Rng
+{
+    private Random random;
+
+    //
+    // Constructor.
+    //
+    public LegacyRng(long seed)
+    {
+        random = new Random(seed);
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long nextLong()
+    {
+        return random.nextLong();
+    }
+
+    @Override
+    public int nextInt(int bound)
+    {
+        return random.nextInt(bound);
+    }
+
+    @Override
+    public double nextDouble()
+    {
+        return random.nextDouble();
+    }
+
+    // java.util.Random does not expose its seed, so the whole object is serialized.
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream objects = new ObjectOutputStream(bytes))
+        {
+            objects.writeObject(random);
+        }
+        out.writeInt(bytes.size());
+        out.write(bytes.toByteArray());
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        byte[] bytes = new byte[in.readInt()];
+        in.readFully(bytes);
+        try(ObjectInputStream objects = new ObjectInputStream(new ByteArrayInputStream(bytes)))
+        {
+            random = (Random) objects.readObject();
+        }
+        catch(ClassNotFoundException | ClassCastException e)
+        {
+            throw new IOException("Invalid generator state: " + e.getMessage());
+        }
+    }
+
+    @Override
+    public Rng split()
+    {
+        return new LegacyRng(random.nextLong());
+    }
+}
@@ -0,0 +1,51 @@
+// FILE: MagConvert.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.IOException;
+
+// Converts a binary magnetization file back to the text format, one number per line.
+//
+// Usage: java MagConvert <FILE.mag> [<OUTPUT>]
+// Without an output name, the text goes to <FILE>.txt.
+public class MagConvert
+{
+    public static void main(String[] args)
+    {
+        if (args.length < 1 || args.length > 2)
+        {
+            System.out.println("Usage: java MagConvert <FILE.mag> [<OUTPUT>]");
+            return;
+        }
+        String input = args[0];
+        String output = args.length == 2 ? args[1] : input.replaceFirst("\\.mag$", "") + ".txt";
+
+        try(MagReader reader = new MagReader(input); TextMagWriter writer = new TextMagWriter(output))
+        {
+            MagHeader header = reader.getHeader();
+            System.out.println("ID: " + header.getId());
+            System.out.println("Size: " + header.getN() + "x" + header.getN());
+            System.out.println("Temperature: " + header.getT());
+            System.out.println("External field: " + header.getH());
+            System.out.println("Equilibration steps: " + header.getEqSteps());
+            System.out.println("Measurement steps: " + header.getMeasureSteps());
+            System.out.println("Seed: " + header.getSeed());
+            System.out.println("Samples: " + header.getSamples());
+
+            double[] values = new double[BinaryMagWriter.CHUNK];
+            int count;
+            while ((count = reader.read(values)) >= 0)
+            {
+                for (int k = 0; k < count; k++)
+                {
+                    writer.add(values[k]);
+                }
+            }
+            System.out.println("Text file written: " + output);
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
+    }
+}
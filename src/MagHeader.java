@@ -0,0 +1,210 @@
+// FILE: MagHeader.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.UUID;
+
+// Header of a binary magnetization file.  It occupies the first HEADER_BYTES bytes, little-endian:
+//
+//   0  "ISINGMAG"                       40  double T
+//   8  int version                      48  double h
+//  12  int flags (1 float, 2 deflate)   56  long equilibration steps
+//  16  long, long run ID                64  long measurement steps
+//  32  int N                            72  long seed
+//  36  int samples per block            80  long number of samples
+//
+// The rest is reserved and zero.  The samples follow as little-endian doubles or floats.  If the file is compressed,
+// they come in blocks, each an int sample count and an int byte count followed by that many bytes of deflate data.
+public class MagHeader
+{
+    public static final int HEADER_BYTES = 128;
+    private static final byte[] MAGIC = {'I', 'S', 'I', 'N', 'G', 'M', 'A', 'G'};
+    private static final int VERSION = 1;
+    private static final int FLOAT = 1;
+    private static final int DEFLATE = 2;
+    private static final int SAMPLES_OFFSET = 80;
+    private final UUID id;
+    private final int N;
+    private final double T;
+    private final double h;
+    private final long eqSteps;
+    private final long measureSteps;
+    private final long seed;
+    private final boolean useFloat;
+    private final boolean compressed;
+    private final int blockSamples;
+    private long samples = 0;
+
+    //
+    // Constructor.
+    //
+    public MagHeader(UUID id, int N, double T, double h, long eqSteps, long measureSteps, long seed, boolean useFloat,
+            boolean compressed, int blockSamples)
+    {
+        this.id = id;
+        this.N = N;
+        this.T = T;
+        this.h = h;
+        this.eqSteps = eqSteps;
+        this.measureSteps = measureSteps;
+        this.seed = seed;
+        this.useFloat = useFloat;
+        this.compressed = compressed;
+        this.blockSamples = blockSamples;
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Write the header at the start of the file.
+    public void write(FileChannel channel) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(MAGIC);
+        buffer.putInt(VERSION);
+        buffer.putInt((useFloat ? FLOAT : 0) | (compressed ? DEFLATE : 0));
+        buffer.putLong(id.getMostSignificantBits());
+        buffer.putLong(id.getLeastSignificantBits());
+        buffer.putInt(N);
+        buffer.putInt(blockSamples);
+        buffer.putDouble(T);
+        buffer.putDouble(h);
+        buffer.putLong(eqSteps);
+        buffer.putLong(measureSteps);
+        buffer.putLong(seed);
+        buffer.putLong(samples);
+        buffer.clear();
+        writeFully(channel, buffer, 0);
+    }
+
+    // Record the number of samples written so far, in the file as well.
+    public void writeSamples(FileChannel channel, long samples) throws IOException
+    {
+        this.samples = samples;
+        ByteBuffer buffer = ByteBuffer.allocate(Long.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putLong(0, samples);
+        writeFully(channel, buffer, SAMPLES_OFFSET);
+    }
+
+    // Read the header from the start of the file, leaving the channel positioned at the first sample.
+    public static MagHeader read(FileChannel channel) throws IOException
+    {
+        ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        while (buffer.hasRemaining())
+        {
+            if (channel.read(buffer) < 0)
+            {
+                throw new EOFException("File is too short for a magnetization header.");
+            }
+        }
+        buffer.flip();
+        byte[] magic = new byte[MAGIC.length];
+        buffer.get(magic);
+        if (!Arrays.equals(magic, MAGIC))
+        {
+            throw new IOException("Not a binary magnetization file.");
+        }
+        int version = buffer.getInt();
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported magnetization file version: " + version);
+        }
+        int flags = buffer.getInt();
+        UUID id = new UUID(buffer.getLong(), buffer.getLong());
+        int N = buffer.getInt();
+        int blockSamples = buffer.getInt();
+        double T = buffer.getDouble();
+        double h = buffer.getDouble();
+        long eqSteps = buffer.getLong();
+        long measureSteps = buffer.getLong();
+        long seed = buffer.getLong();
+        MagHeader header = new MagHeader(id, N, T, h, eqSteps, measureSteps, seed, (flags & FLOAT) != 0,
+                (flags & DEFLATE) != 0, blockSamples);
+        header.samples = buffer.getLong();
+        return header;
+    }
+
+    //
+    // Private methods.
+    //
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        while (buffer.hasRemaining())
+        {
+            position += channel.write(buffer, position);
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    // Bytes per sample.
+    public int getWidth()
+    {
+        return useFloat ? Float.BYTES : Double.BYTES;
+    }
+
+    public UUID getId()
+    {
+        return id;
+    }
+
+    public int getN()
+    {
+        return N;
+    }
+
+    public double getT()
+    {
+        return T;
+    }
+
+    public double getH()
+    {
+        return h;
+    }
+
+    public long getEqSteps()
+    {
+        return eqSteps;
+    }
+
+    public long getMeasureSteps()
+    {
+        return measureSteps;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public boolean getFloat()
+    {
+        return useFloat;
+    }
+
+    public boolean getCompressed()
+    {
+        return compressed;
+    }
+
+    public int getBlockSamples()
+    {
+        return blockSamples;
+    }
+
+    public long getSamples()
+    {
+        return samples;
+    }
+}
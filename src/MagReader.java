@@ -0,0 +1,167 @@
+// FILE: MagReader.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Reads the samples of a binary magnetization file written by BinaryMagWriter, a buffer at a time.
+public class MagReader implements AutoCloseable
+{
+    private final FileChannel channel;
+    private final MagHeader header;
+    private final int width;
+    private final ByteBuffer buffer;
+    private ByteBuffer packed; // Deflated block, grown if a block does not fit.
+    private final Inflater inflater;
+    private long remaining; // Samples not yet read.
+
+    //
+    // Constructor.
+    //
+    public MagReader(String filename) throws IOException
+    {
+        channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ);
+        try
+        {
+            header = MagHeader.read(channel);
+        }
+        catch(IOException e)
+        {
+            channel.close();
+            throw e;
+        }
+        width = header.getWidth();
+        remaining = header.getSamples();
+        int samples = Math.max(header.getBlockSamples(), 1);
+        buffer = ByteBuffer.allocateDirect(samples*width).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.limit(0);
+        if (header.getCompressed())
+        {
+            packed = ByteBuffer.allocateDirect(buffer.capacity()).order(ByteOrder.LITTLE_ENDIAN);
+            inflater = new Inflater();
+        }
+        else
+        {
+            inflater = null;
+        }
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Read up to values.length samples.  Returns the number read, or -1 once all samples have been read.
+    public int read(double[] values) throws IOException
+    {
+        if (remaining == 0)
+        {
+            return -1;
+        }
+        if (!buffer.hasRemaining())
+        {
+            fill();
+        }
+        int count = (int) Math.min(values.length, Math.min(buffer.remaining()/width, remaining));
+        for (int k = 0; k < count; k++)
+        {
+            values[k] = width == Float.BYTES ? buffer.getFloat() : buffer.getDouble();
+        }
+        remaining -= count;
+        return count;
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        if (inflater != null)
+        {
+            inflater.end();
+        }
+        channel.close();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Refill the buffer with the next stretch of samples, or the next block of a compressed file.
+    private void fill() throws IOException
+    {
+        buffer.clear();
+        if (inflater == null)
+        {
+            buffer.limit((int) Math.min(buffer.capacity(), remaining*width));
+            readFully(buffer);
+            buffer.flip();
+            return;
+        }
+
+        ByteBuffer counts = ByteBuffer.allocate(2*Integer.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        readFully(counts);
+        int count = counts.getInt(0);
+        int bytes = counts.getInt(Integer.BYTES);
+        if (count <= 0 || count*width > buffer.capacity() || bytes < 0)
+        {
+            throw new IOException("Corrupt block in magnetization file.");
+        }
+        if (bytes > packed.capacity())
+        {
+            packed = ByteBuffer.allocateDirect(bytes).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        packed.clear();
+        packed.limit(bytes);
+        readFully(packed);
+        packed.flip();
+
+        inflater.reset();
+        inflater.setInput(packed);
+        buffer.limit(count*width);
+        try
+        {
+            while (buffer.hasRemaining() && !inflater.finished())
+            {
+                if (inflater.inflate(buffer) == 0 && inflater.needsInput())
+                {
+                    break;
+                }
+            }
+        }
+        catch(DataFormatException e)
+        {
+            throw new IOException("Corrupt block in magnetization file: " + e.getMessage());
+        }
+        if (buffer.hasRemaining())
+        {
+            throw new IOException("Corrupt block in magnetization file.");
+        }
+        buffer.flip();
+    }
+
+    private void readFully(ByteBuffer target) throws IOException
+    {
+        while (target.hasRemaining())
+        {
+            if (channel.read(target) < 0)
+            {
+                throw new EOFException("Magnetization file ends early.");
+            }
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public MagHeader getHeader()
+    {
+        return header;
+    }
+}
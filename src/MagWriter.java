@@ -0,0 +1,59 @@
+// FILE: MagWriter.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.IOException;
+
+// Streams magnetization measurements to a file as they are made.
+public interface MagWriter extends AutoCloseable
+{
+    // Add one sample.
+    void add(double value) throws IOException;
+
+    // Write out the samples collected so far.
+    void flush() throws IOException;
+
+    @Override
+    void close() throws IOException;
+
+    // Length of the file after the last flush.
+    long getBytes() throws IOException;
+
+    // Open a writer by format: "double" or "float" for the binary format, "text" for one number per line.  The
+    // header is only written by the binary formats, which may also be compressed.
+    static MagWriter create(String filename, String format, MagHeader header) throws IOException
+    {
+        switch (format)
+        {
+            case "double":
+            case "float":
+                return new BinaryMagWriter(filename, header);
+            case "text":
+                return new TextMagWriter(filename);
+            default:
+                throw new IllegalArgumentException("Unknown magnetization file format: " + format);
+        }
+    }
+
+    // Reopen a file written by a writer of the same format, cut it back to the given length and number of samples,
+    // and continue writing from there, e.g. when a run resumes from a checkpoint.
+    static MagWriter resume(String filename, String format, MagHeader header, long bytes, long samples)
+            throws IOException
+    {
+        switch (format)
+        {
+            case "double":
+            case "float":
+                return new BinaryMagWriter(filename, header, bytes, samples);
+            case "text":
+                return new TextMagWriter(filename, bytes);
+            default:
+                throw new IllegalArgumentException("Unknown magnetization file format: " + format);
+        }
+    }
+
+    static boolean isKnown(String format)
+    {
+        return format.equals("double") || format.equals("float") || format.equals("text");
+    }
+}
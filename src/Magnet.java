@@ -0,0 +1,74 @@
+// FILE: Magnet.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.util.Arrays;
+
+// The state of the magnet, independent of how the lattice is stored.
+public interface Magnet
+{
+    int getN();
+
+    // Spin (i, j), either +1 or -1.
+    int getSpin(int i, int j);
+
+    // Row i packed one bit per spin (set for +1) into (N + 63)/64 words, as in a state file.
+    default void getRow(int i, long[] words)
+    {
+        int N = getN();
+        Arrays.fill(words, 0, (N + 63) >>> 6, 0L);
+        for (int j = 0; j < N; j++)
+        {
+            if (getSpin(i, j) > 0)
+            {
+                words[j >>> 6] |= 1L << j;
+            }
+        }
+    }
+
+    // Magnetization per spin in the current state.
+    double getMag();
+
+    // Energy per spin in the current state.
+    double getEnergy();
+
+    // Sum of all spins.
+    long getMagSum();
+
+    // Sum of s_i*s_j over all nearest-neighbor bonds.
+    long getBondSum();
+
+    // Compare the running totals against a full recount of the lattice.
+    void checkTotals();
+
+    double getT();
+
+    double getH();
+
+    void setT(double T);
+
+    void setH(double h);
+
+    // The random number generator driving this magnet.  Parallel workers should split() their own streams from it.
+    Rng getRng();
+
+    // Create the lattice representation needed by the engine selected on the command line.
+    static Magnet create(Communicator comms)
+    {
+        return create(comms, comms.getT(), Rng.create(comms.getRngName(), comms.getSeed()));
+    }
+
+    // As above, at temperature T and driven by the given generator.
+    static Magnet create(Communicator comms, double T, Rng rng)
+    {
+        if (comms.getSlabs() > 0)
+        {
+            return new SlabLattice(comms, T, rng);
+        }
+        if (comms.getEngineName().equals("multispin"))
+        {
+            return new PackedSpins(comms, T, rng);
+        }
+        return new Spins(comms, T, rng);
+    }
+}
@@ -0,0 +1,282 @@
+// FILE: Metrics.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+// Live progress of a single run, for watching a long simulation while it goes on.  The simulation thread only
+// stores its step and acceptance counts after every step, with opaque writes, which cost no more than plain ones;
+// readers, e.g. JMX or MetricsServer, sample them together with the engine's move count and the magnet's running
+// sums whenever they ask, and derive rates and the ETA from those.  Anything that made the step loops call out,
+// even once a sweep, slowed single-spin Metropolis runs by several percent, as the loop could no longer keep the
+// lattice and generator state in registers.  The samples are read without locking, so they may be a step apart.
+public class Metrics implements MetricsMBean
+{
+    private static final VarHandle STEPS;
+    private static final VarHandle ACCEPTED;
+    private final long spins;
+    private final long eqSteps;
+    private final long measureSteps;
+    private final long startTime = System.nanoTime();
+    private long steps; // Steps of the current stage.  Written opaquely.
+    private long accepted; // Accepted spin flips so far in the current stage.  Written opaquely.
+    private volatile Engine engine;
+    private volatile Magnet magnet;
+    private volatile String stage = "initialization";
+    private volatile long stageStart = startTime;
+    private volatile long stageFirstStep = 0;
+    private volatile long stageAccepted = 0; // Accepted flips at the start of the stage.
+    private volatile long stageMoves = 0; // Engine moves at the start of the stage.
+    private volatile long priorMoves = 0; // Moves of this process in earlier stages.
+    private ObjectName name;
+
+    static
+    {
+        try
+        {
+            MethodHandles.Lookup lookup = MethodHandles.lookup();
+            STEPS = lookup.findVarHandle(Metrics.class, "steps", long.class);
+            ACCEPTED = lookup.findVarHandle(Metrics.class, "accepted", long.class);
+        }
+        catch(ReflectiveOperationException e)
+        {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    //
+    // Constructor.
+    //
+    public Metrics(Communicator comms)
+    {
+        spins = (long) comms.getN()*comms.getN();
+        eqSteps = comms.getEqSteps();
+        measureSteps = comms.getMeasureSteps();
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Start following a stage ("equilibration" or "measurement") at the given step, which is not zero on a resume,
+    // with the given number of flips accepted so far.  Moves the engine made before, e.g. in a run continued from a
+    // checkpoint, do not count as moves of this process.
+    public void beginStage(String stage, long firstStep, long accepted, Engine engine, Magnet magnet)
+    {
+        if (this.engine != null)
+        {
+            priorMoves += this.engine.getMoves() - stageMoves;
+        }
+        count(firstStep, accepted);
+        stageFirstStep = firstStep;
+        stageAccepted = accepted;
+        stageMoves = engine.getMoves();
+        stageStart = System.nanoTime();
+        this.magnet = magnet;
+        this.engine = engine;
+        this.stage = stage;
+    }
+
+    // Record the steps completed in the current stage and the flips accepted so far.  Called after every step.
+    public void count(long steps, long accepted)
+    {
+        STEPS.setOpaque(this, steps);
+        ACCEPTED.setOpaque(this, accepted);
+    }
+
+    public void finish()
+    {
+        stage = "done";
+    }
+
+    // Make the metrics visible to JMX clients, as ising:type=Simulation,id=<ID>.
+    public void register(String id) throws JMException
+    {
+        name = new ObjectName("ising:type=Simulation,id=" + id);
+        ManagementFactory.getPlatformMBeanServer().registerMBean(this, name);
+    }
+
+    public void unregister()
+    {
+        if (name != null)
+        {
+            try
+            {
+                ManagementFactory.getPlatformMBeanServer().unregisterMBean(name);
+            }
+            catch(JMException e)
+            {
+                System.err.println(e.getMessage());
+            }
+            name = null;
+        }
+    }
+
+    // The metrics as a JSON object.
+    public String toJson()
+    {
+        return String.format(Locale.ROOT, "{\"stage\":\"%s\",\"steps\":%d,\"stageSteps\":%d,\"sweeps\":%s,"
+                + "\"stepsPerSecond\":%s,\"sweepsPerSecond\":%s,\"acceptanceRatio\":%s,\"magnetization\":%s,"
+                + "\"energy\":%s,\"heapUsed\":%d,\"heapMax\":%d,\"etaSeconds\":%s}\n",
+                getStage(), getSteps(), getStageSteps(), number(getSweeps()), number(getStepsPerSecond()),
+                number(getSweepsPerSecond()), number(getAcceptanceRatio()), number(getMagnetization()),
+                number(getEnergy()), getHeapUsed(), getHeapMax(), number(getEtaSeconds()));
+    }
+
+    // The metrics in the Prometheus text exposition format.
+    public String toPrometheus()
+    {
+        StringBuilder text = new StringBuilder();
+        gauge(text, "ising_stage_info", "Current stage of the run.", "{stage=\"" + getStage() + "\"} 1");
+        gauge(text, "ising_steps", "Engine steps completed in the current stage.", " " + getSteps());
+        gauge(text, "ising_stage_steps", "Engine steps in the current stage when complete.", " " + getStageSteps());
+        gauge(text, "ising_sweeps", "Sweeps completed by this process.", " " + number(getSweeps()));
+        gauge(text, "ising_steps_per_second", "Engine steps per second in the current stage.",
+                " " + number(getStepsPerSecond()));
+        gauge(text, "ising_sweeps_per_second", "Sweeps per second.", " " + number(getSweepsPerSecond()));
+        gauge(text, "ising_acceptance_ratio", "Fraction of attempted spin updates accepted in the current stage.",
+                " " + number(getAcceptanceRatio()));
+        gauge(text, "ising_magnetization", "Magnetization per spin.", " " + number(getMagnetization()));
+        gauge(text, "ising_energy", "Energy per spin.", " " + number(getEnergy()));
+        gauge(text, "ising_heap_used_bytes", "Java heap in use.", " " + getHeapUsed());
+        gauge(text, "ising_heap_max_bytes", "Largest Java heap.", " " + getHeapMax());
+        gauge(text, "ising_eta_seconds", "Estimated seconds until the measurements are complete.",
+                " " + number(getEtaSeconds()));
+        return text.toString();
+    }
+
+    //
+    // Private methods.
+    //
+
+    private static void gauge(StringBuilder text, String metric, String help, String sample)
+    {
+        text.append("# HELP ").append(metric).append(' ').append(help).append('\n');
+        text.append("# TYPE ").append(metric).append(" gauge\n");
+        text.append(metric).append(sample).append('\n');
+    }
+
+    // A number as JSON and Prometheus both accept it.
+    private static String number(double value)
+    {
+        return Double.isFinite(value) ? Double.toString(value) : "-1";
+    }
+
+    private static double seconds(long nanos)
+    {
+        return nanos*1e-9;
+    }
+
+    // Moves the engine has made in the current stage.
+    private long getStageMoves()
+    {
+        Engine current = engine;
+        return current == null ? 0 : current.getMoves() - stageMoves;
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    @Override
+    public String getStage()
+    {
+        return stage;
+    }
+
+    @Override
+    public long getSteps()
+    {
+        return (long) STEPS.getOpaque(this);
+    }
+
+    @Override
+    public long getStageSteps()
+    {
+        return stage.equals("equilibration") ? eqSteps : measureSteps;
+    }
+
+    @Override
+    public double getSweeps()
+    {
+        return (double) (priorMoves + getStageMoves())/spins;
+    }
+
+    @Override
+    public double getStepsPerSecond()
+    {
+        return (getSteps() - stageFirstStep)/seconds(System.nanoTime() - stageStart);
+    }
+
+    @Override
+    public double getSweepsPerSecond()
+    {
+        return getSweeps()/seconds(System.nanoTime() - startTime);
+    }
+
+    @Override
+    public double getAcceptanceRatio()
+    {
+        return (double) ((long) ACCEPTED.getOpaque(this) - stageAccepted)/getStageMoves();
+    }
+
+    // From the running sums rather than Magnet.getMag(), which may recount the lattice in debug mode.
+    @Override
+    public double getMagnetization()
+    {
+        Magnet current = magnet;
+        return current == null ? Double.NaN : (double) current.getMagSum()/spins;
+    }
+
+    @Override
+    public double getEnergy()
+    {
+        Magnet current = magnet;
+        if (current == null)
+        {
+            return Double.NaN;
+        }
+        return (-(double) current.getBondSum() - current.getH()*current.getMagSum())/spins;
+    }
+
+    @Override
+    public long getHeapUsed()
+    {
+        Runtime runtime = Runtime.getRuntime();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    @Override
+    public long getHeapMax()
+    {
+        return Runtime.getRuntime().maxMemory();
+    }
+
+    // The remaining steps at the rate of the current stage.  Equilibration steps stand in for measurement steps,
+    // which cost about the same.
+    @Override
+    public double getEtaSeconds()
+    {
+        String current = stage;
+        long remaining;
+        if (current.equals("equilibration"))
+        {
+            remaining = eqSteps - getSteps() + measureSteps;
+        }
+        else if (current.equals("measurement"))
+        {
+            remaining = measureSteps - getSteps();
+        }
+        else
+        {
+            return current.equals("done") ? 0 : -1;
+        }
+        double rate = getStepsPerSecond();
+        return rate > 0 ? remaining/rate : -1;
+    }
+}
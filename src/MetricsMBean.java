@@ -0,0 +1,39 @@
+// FILE: MetricsMBean.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+// The live metrics of a running simulation, as seen through JMX (e.g. in jconsole under ising:type=Simulation).
+public interface MetricsMBean
+{
+    // "initialization", "equilibration", "measurement" or "done".
+    String getStage();
+
+    // Engine steps completed in the current stage, including any before a resume.
+    long getSteps();
+
+    // Engine steps in the current stage when it is complete.
+    long getStageSteps();
+
+    // Sweeps (N*N attempted spin updates) completed by this process.
+    double getSweeps();
+
+    double getStepsPerSecond();
+
+    double getSweepsPerSecond();
+
+    // Fraction of attempted spin updates accepted in the current stage, by this process.
+    double getAcceptanceRatio();
+
+    // Magnetization per spin now.
+    double getMagnetization();
+
+    // Energy per spin now.
+    double getEnergy();
+
+    long getHeapUsed();
+
+    long getHeapMax();
+
+    // Estimated seconds until the measurements are complete, or -1 if not yet known.
+    double getEtaSeconds();
+}
@@ -0,0 +1,72 @@
+// FILE: MetricsServer.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+import java.util.function.Supplier;
+
+// Serves the live metrics of a run over HTTP, on the loopback interface only: /metrics in the Prometheus text
+// format and /status as JSON.  Requests are answered on one daemon thread, away from the simulation.
+public class MetricsServer implements AutoCloseable
+{
+    private final HttpServer server;
+
+    //
+    // Constructor.
+    //
+    public MetricsServer(Metrics metrics, int port) throws IOException
+    {
+        server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+        server.createContext("/metrics", exchange -> respond(exchange, "text/plain; version=0.0.4",
+                metrics::toPrometheus));
+        server.createContext("/status", exchange -> respond(exchange, "application/json", metrics::toJson));
+        server.setExecutor(Executors.newSingleThreadExecutor(task ->
+        {
+            Thread thread = new Thread(task, "metrics-server");
+            thread.setDaemon(true);
+            return thread;
+        }));
+        server.start();
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public void close()
+    {
+        server.stop(0);
+    }
+
+    //
+    // Private methods.
+    //
+
+    private static void respond(HttpExchange exchange, String type, Supplier<String> body) throws IOException
+    {
+        byte[] bytes = body.get().getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", type + "; charset=utf-8");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try(OutputStream out = exchange.getResponseBody())
+        {
+            out.write(bytes);
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public int getPort()
+    {
+        return server.getAddress().getPort();
+    }
+}
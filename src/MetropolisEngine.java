@@ -0,0 +1,51 @@
+// FILE: MetropolisEngine.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Single-spin Metropolis updates at randomly chosen sites.  One step is one attempted move.
+public class MetropolisEngine implements Engine
+{
+    private final Spins magnet;
+    private long moves = 0;
+
+    //
+    // Constructor.
+    //
+    public MetropolisEngine(Spins magnet)
+    {
+        this.magnet = magnet;
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long step()
+    {
+        moves++;
+        return magnet.tryMove() ? 1 : 0;
+    }
+
+    @Override
+    public long getMoves()
+    {
+        return moves;
+    }
+
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeLong(moves);
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        moves = in.readLong();
+    }
+}
@@ -0,0 +1,195 @@
+// FILE: MultiSpinEngine.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Multi-spin coded checkerboard Metropolis sweeps on a PackedSpins lattice, updating the 64 spins of a word at once
+// with a MultiSpinKernel per strip.  The acceptance probabilities are identical to those of the scalar engines.  One
+// step is one full sweep of the lattice.
+//
+// A lattice off the heap is updated a half-row at a time: the half-row and the three half-rows of its neighbors are
+// copied into a small array of the strip, updated there, and the half-row is copied back.  The neighbors are all of
+// the other color, which no strip writes during the half-sweep.
+public class MultiSpinEngine implements Engine
+{
+    private final PackedSpins magnet;
+    private final int N;
+    private final int W;
+    private final long[] bits; // Null when the lattice is off the heap.
+    private final ForkJoinPool pool;
+    private final int[] stripStart;
+    private final Rng[] stripRng;
+    private final MultiSpinKernel[] stripKernel;
+    private final long[][] stripRows; // Copies of the half-rows around the one updated, for lattices off the heap.
+    private final long[][] stripTotals;
+    private long moves = 0;
+
+    //
+    // Constructor.
+    //
+    public MultiSpinEngine(PackedSpins magnet, int threads)
+    {
+        this.magnet = magnet;
+        this.N = magnet.getN();
+        this.W = magnet.getWords();
+        this.bits = magnet.getBits();
+        this.pool = new ForkJoinPool(threads);
+
+        // Use a few strips per thread for load balancing.
+        int strips = Math.min(N, 4*threads);
+        stripStart = new int[strips + 1];
+        stripRng = new Rng[strips];
+        stripKernel = new MultiSpinKernel[strips];
+        stripRows = new long[strips][];
+        stripTotals = new long[strips][3];
+        for (int s = 0; s < strips; s++)
+        {
+            stripStart[s] = (int) ((long) s*N/strips);
+            stripRng[s] = magnet.getRng().split();
+            stripKernel[s] = new MultiSpinKernel(W, magnet.getLastMask(), magnet.getAcceptThresholds());
+            if (bits == null)
+            {
+                stripRows[s] = new long[4*W];
+            }
+        }
+        stripStart[strips] = N;
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long step()
+    {
+        // The magnet's temperature may have changed since the last step, e.g. in a replica exchange.
+        for (MultiSpinKernel kernel : stripKernel)
+        {
+            kernel.makeThresholds();
+        }
+
+        long accepted = 0;
+        for (int color = 0; color < 2; color++)
+        {
+            pool.invoke(new HalfSweep(color, 0, stripRng.length));
+
+            long dMag = 0;
+            long dBond = 0;
+            for (long[] totals : stripTotals)
+            {
+                dMag += totals[0];
+                dBond += totals[1];
+                accepted += totals[2];
+            }
+            magnet.addTotals(dMag, dBond);
+        }
+        moves += (long) N*N;
+        return accepted;
+    }
+
+    @Override
+    public long getMoves()
+    {
+        return moves;
+    }
+
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeLong(moves);
+        for (Rng rng : stripRng)
+        {
+            rng.save(out);
+        }
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        moves = in.readLong();
+        for (Rng rng : stripRng)
+        {
+            rng.restore(in);
+        }
+    }
+
+    @Override
+    public void close()
+    {
+        pool.shutdown();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Update all spins of one color in a strip of rows, recording the changes in the running totals.
+    private void updateStrip(int s, int color)
+    {
+        Rng rng = stripRng[s];
+        MultiSpinKernel kernel = stripKernel[s];
+        long[] totals = stripTotals[s];
+        long[] rows = stripRows[s];
+        totals[0] = 0;
+        totals[1] = 0;
+        totals[2] = 0;
+
+        for (int i = stripStart[s]; i < stripStart[s+1]; i++)
+        {
+            // Column parity of this color in row i.  The vertical neighbors have the same parity in the rows above
+            // and below, and the horizontal neighbors are in the other half of the same row.
+            int p = (color + i) & 1;
+            int above = i == 0 ? N-1 : i-1;
+            int below = i == N-1 ? 0 : i+1;
+            if (bits != null)
+            {
+                kernel.update(bits, magnet.halfRow(i, p), magnet.halfRow(above, p), magnet.halfRow(below, p),
+                        magnet.halfRow(i, 1 - p), p, rng, totals);
+            }
+            else
+            {
+                magnet.readHalfRow(i, p, rows, 0);
+                magnet.readHalfRow(above, p, rows, W);
+                magnet.readHalfRow(below, p, rows, 2*W);
+                magnet.readHalfRow(i, 1 - p, rows, 3*W);
+                kernel.update(rows, 0, W, 2*W, 3*W, p, rng, totals);
+                magnet.writeHalfRow(i, p, rows, 0);
+            }
+        }
+    }
+
+    // Recursively split a range of strips across the pool.
+    private class HalfSweep extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private final int color;
+        private final int from;
+        private final int to;
+
+        HalfSweep(int color, int from, int to)
+        {
+            this.color = color;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from == 1)
+            {
+                updateStrip(from, color);
+            }
+            else
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new HalfSweep(color, from, mid), new HalfSweep(color, mid, to));
+            }
+        }
+    }
+}
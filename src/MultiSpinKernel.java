@@ -0,0 +1,168 @@
+// FILE: MultiSpinKernel.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+// The multi-spin coded update of one half-row of a packed lattice (see PackedSpins), shared by MultiSpinEngine and
+// the workers of a distributed run (see SlabWorker).  The number of anti-aligned neighbors of every spin is counted
+// with a bit-sliced adder, which sorts the spins into the ten (spin, neighbor sum) classes of the acceptance table.
+// Moves with deltaE <= 0 are accepted outright.  The others are accepted by comparing a uniform 53-bit random number
+// per spin against the class threshold, one bit at a time from the most significant bit down, using one random word
+// for all 64 spins per bit.  The comparison stops as soon as every spin is decided, which takes about eight random
+// words per 64 spins on average.  The acceptance probabilities are identical to those of the scalar engines.
+//
+// A kernel keeps scratch arrays of its own, so each thread needs its own kernel.
+public final class MultiSpinKernel
+{
+    private final int W;
+    private final long lastMask;
+    private final int lastBit;
+    private final long[] acceptThreshold;
+    private final long[] classThreshold = new long[10];
+    private final long[] classMask = new long[5];
+    private final long[] pendingMask = new long[10];
+    private final long[] pendingThreshold = new long[10];
+
+    //
+    // Constructor.
+    //
+    public MultiSpinKernel(int W, long lastMask, long[] acceptThreshold)
+    {
+        this.W = W;
+        this.lastMask = lastMask;
+        this.lastBit = 63 - Long.numberOfLeadingZeros(lastMask);
+        this.acceptThreshold = acceptThreshold;
+        makeThresholds();
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Thresholds by number of anti-aligned neighbors a and spin bit, for a spin with neighbor sum s*(4-2a).  This
+    // must be called again whenever the acceptance table changes.
+    public void makeThresholds()
+    {
+        for (int a = 0; a <= 4; a++)
+        {
+            classThreshold[2*a] = acceptThreshold[Spins.tableIndex(-1, -(4 - 2*a))];
+            classThreshold[2*a + 1] = acceptThreshold[Spins.tableIndex(+1, 4 - 2*a)];
+        }
+    }
+
+    // Update the half-row at offset self of the given words, whose neighbors are at offsets up, down and other, and
+    // add the changes to totals: {change in the sum of spins, change in the bond sum, accepted flips}.  The spins of
+    // the half-row are in the columns of parity p.
+    public void update(long[] words, int self, int up, int down, int other, int p, Rng rng, long[] totals)
+    {
+        long dMag = 0;
+        long dBond = 0;
+        long accepted = 0;
+        for (int w = 0; w < W; w++)
+        {
+            long spins = words[self + w];
+            long valid = w == W-1 ? lastMask : -1L;
+
+            // For even columns 2k the horizontal neighbors are odd columns k-1 and k; for odd columns 2k+1 they
+            // are even columns k and k+1.
+            long x1 = spins ^ words[up + w];
+            long x2 = spins ^ words[down + w];
+            long x3 = spins ^ words[other + w];
+            long x4 = spins ^ (p == 0 ? shiftedPrev(words, other, w) : shiftedNext(words, other, w));
+
+            // Bit-sliced count a = b0 + 2*b1 + 4*b2 of anti-aligned neighbors.
+            long t1 = x1 ^ x2;
+            long c1 = x1 & x2;
+            long t2 = x3 ^ x4;
+            long c2 = x3 & x4;
+            long b0 = t1 ^ t2;
+            long c3 = t1 & t2;
+            long b1 = c1 ^ c2 ^ c3;
+            long b2 = c1 & c2;
+            classMask[0] = ~(b0 | b1 | b2) & valid;
+            classMask[1] = b0 & ~b1 & valid;
+            classMask[2] = ~b0 & b1 & valid;
+            classMask[3] = b0 & b1 & valid;
+            classMask[4] = b2 & valid;
+
+            // Sort the spins into accepted outright and pending a random comparison.
+            long flip = 0;
+            int pending = 0;
+            for (int a = 0; a <= 4; a++)
+            {
+                for (int sb = 0; sb < 2; sb++)
+                {
+                    long mask = classMask[a] & (sb == 1 ? spins : ~spins);
+                    long threshold = classThreshold[2*a + sb];
+                    if (mask == 0 || threshold == 0)
+                    {
+                        continue;
+                    }
+                    if (threshold == Spins.ALWAYS)
+                    {
+                        flip |= mask;
+                    }
+                    else
+                    {
+                        pendingMask[pending] = mask;
+                        pendingThreshold[pending] = threshold;
+                        pending++;
+                    }
+                }
+            }
+
+            // Bit-serial comparison u < threshold, where bit b of the random word r is the current bit of u
+            // for spin b.  The masks keep the spins whose comparison is still tied.
+            long less = 0;
+            boolean undecided = pending > 0;
+            for (int bit = 52; bit >= 0 && undecided; bit--)
+            {
+                long r = rng.nextLong();
+                undecided = false;
+                for (int k = 0; k < pending; k++)
+                {
+                    long pb = -((pendingThreshold[k] >>> bit) & 1);
+                    long tied = pendingMask[k];
+                    less |= tied & ~r & pb;
+                    tied &= ~(r ^ pb);
+                    pendingMask[k] = tied;
+                    undecided |= tied != 0;
+                }
+            }
+            flip |= less;
+
+            words[self + w] = spins ^ flip;
+
+            // Flipping a spin with a anti-aligned neighbors changes the bond sum by 4a - 8.
+            accepted += Long.bitCount(flip);
+            dMag += 2*(Long.bitCount(flip & ~spins) - Long.bitCount(flip & spins));
+            dBond += -8*Long.bitCount(flip & classMask[0]) - 4*Long.bitCount(flip & classMask[1])
+                    + 4*Long.bitCount(flip & classMask[3]) + 8*Long.bitCount(flip & classMask[4]);
+        }
+        totals[0] += dMag;
+        totals[1] += dBond;
+        totals[2] += accepted;
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Word w of the half-row at the given offset, shifted so that bit k holds spin k-1 (periodically).
+    private long shiftedPrev(long[] words, int offset, int w)
+    {
+        long carry = w > 0 ? words[offset + w - 1] >>> 63 : (words[offset + W - 1] >>> lastBit) & 1;
+        long shifted = (words[offset + w] << 1) | carry;
+        return w == W-1 ? shifted & lastMask : shifted;
+    }
+
+    // Word w of the half-row at the given offset, shifted so that bit k holds spin k+1 (periodically).
+    private long shiftedNext(long[] words, int offset, int w)
+    {
+        long shifted = words[offset + w] >>> 1;
+        if (w < W-1)
+        {
+            return shifted | (words[offset + w + 1] << 63);
+        }
+        return shifted | ((words[offset] & 1) << lastBit);
+    }
+}
@@ -0,0 +1,313 @@
+// FILE: Observables.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Streaming thermodynamic observables of the measurements.  From the energy e and magnetization m per spin of each
+// sample, the moments <e>, <e^2>, <|m|>, <m^2> and <m^4> are accumulated, and from them the specific heat
+// c = N^2 (<e^2> - <e>^2)/T^2, the susceptibility chi = N^2 (<m^2> - <|m|>^2)/T and the Binder cumulant
+// U4 = 1 - <m^4>/(3 <m^2>^2), all per spin.  Samples are summed per block, and the block sums into compensated
+// (Neumaier) totals; with the energy taken relative to the first sample, so that its variance does not cancel against
+// its mean, 10^9 samples lose no precision.  Adding a sample costs a few multiply-adds, as it is done every step.
+//
+// The errors come from a jackknife over blocks of consecutive samples, which averages out the correlations between
+// samples once the blocks are much longer than the autocorrelation time.  Between BLOCKS and 2*BLOCKS complete
+// blocks are kept: when all are full, adjacent pairs are merged and the block length doubles, so memory is fixed
+// whatever the number of samples.  Samples in the block being filled count towards the means but not the errors.
+public class Observables
+{
+    private static final int BLOCKS = 64;
+    private static final int MOMENTS = 5; // e - e0, (e - e0)^2, |m|, m^2, m^4.
+    private static final int ENERGY = 0;
+    private static final int SPECIFIC_HEAT = 1;
+    private static final int ABS_MAG = 2;
+    private static final int SUSCEPTIBILITY = 3;
+    private static final int BINDER = 4;
+    private final int N;
+    private final double T;
+    private double e0 = Double.NaN; // Energy of the first sample.
+    private long count = 0;
+    private final double[] sum = new double[MOMENTS];
+    private final double[] compensation = new double[MOMENTS];
+    private final double[][] blocks = new double[2*BLOCKS][MOMENTS]; // Sums over the complete blocks.
+    private int fullBlocks = 0;
+    private long blockLength = 1;
+    private final double[] current = new double[MOMENTS]; // Sums over the block being filled.
+    private long currentCount = 0;
+
+    //
+    // Constructor.
+    //
+    public Observables(int N, double T)
+    {
+        this.N = N;
+        this.T = T;
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Add one sample: the energy and magnetization per spin.
+    public void add(double energy, double mag)
+    {
+        if (count == 0)
+        {
+            e0 = energy;
+        }
+        double d = energy - e0;
+        double m2 = mag*mag;
+        current[0] += d;
+        current[1] += d*d;
+        current[2] += Math.abs(mag);
+        current[3] += m2;
+        current[4] += m2*m2;
+        count++;
+        currentCount++;
+        if (currentCount == blockLength)
+        {
+            closeBlock();
+        }
+    }
+
+    // Write the accumulated state, e.g. for a checkpoint.
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeDouble(e0);
+        out.writeLong(count);
+        for (int k = 0; k < MOMENTS; k++)
+        {
+            out.writeDouble(sum[k]);
+            out.writeDouble(compensation[k]);
+            out.writeDouble(current[k]);
+        }
+        out.writeInt(fullBlocks);
+        out.writeLong(blockLength);
+        out.writeLong(currentCount);
+        for (int b = 0; b < fullBlocks; b++)
+        {
+            for (int k = 0; k < MOMENTS; k++)
+            {
+                out.writeDouble(blocks[b][k]);
+            }
+        }
+    }
+
+    // Replace the accumulated state with one written by save.
+    public void restore(DataInput in) throws IOException
+    {
+        e0 = in.readDouble();
+        count = in.readLong();
+        for (int k = 0; k < MOMENTS; k++)
+        {
+            sum[k] = in.readDouble();
+            compensation[k] = in.readDouble();
+            current[k] = in.readDouble();
+        }
+        fullBlocks = in.readInt();
+        blockLength = in.readLong();
+        currentCount = in.readLong();
+        for (int b = 0; b < fullBlocks; b++)
+        {
+            for (int k = 0; k < MOMENTS; k++)
+            {
+                blocks[b][k] = in.readDouble();
+            }
+        }
+    }
+
+    // Print the observables to the terminal.
+    public void printOutcome()
+    {
+        System.out.println("Energy per spin: " + getEnergy() + " +/- " + getEnergyError());
+        System.out.println("Mean |magnetization|: " + getAbsMag() + " +/- " + getAbsMagError());
+        System.out.println("Specific heat per spin: " + getSpecificHeat() + " +/- " + getSpecificHeatError());
+        System.out.println("Susceptibility per spin: " + getSusceptibility() + " +/- " + getSusceptibilityError());
+        System.out.println("Binder cumulant: " + getBinder() + " +/- " + getBinderError());
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Add to a compensated sum, keeping the low-order bits lost to rounding in the compensation (Neumaier).
+    private void accumulate(int k, double value)
+    {
+        double total = sum[k] + value;
+        if (Math.abs(sum[k]) >= Math.abs(value))
+        {
+            compensation[k] += (sum[k] - total) + value;
+        }
+        else
+        {
+            compensation[k] += (value - total) + sum[k];
+        }
+        sum[k] = total;
+    }
+
+    // File the block being filled and add it to the totals, merging pairs of blocks once all are full.
+    private void closeBlock()
+    {
+        for (int k = 0; k < MOMENTS; k++)
+        {
+            accumulate(k, current[k]);
+        }
+        System.arraycopy(current, 0, blocks[fullBlocks], 0, MOMENTS);
+        Arrays.fill(current, 0);
+        currentCount = 0;
+        fullBlocks++;
+        if (fullBlocks == 2*BLOCKS)
+        {
+            for (int b = 0; b < BLOCKS; b++)
+            {
+                for (int k = 0; k < MOMENTS; k++)
+                {
+                    blocks[b][k] = blocks[2*b][k] + blocks[2*b + 1][k];
+                }
+            }
+            fullBlocks = BLOCKS;
+            blockLength *= 2;
+        }
+    }
+
+    // One of the observables from the means of the moments.
+    private double derive(int quantity, double[] means)
+    {
+        double spins = (double) N*N;
+        switch (quantity)
+        {
+            case ENERGY:
+                return e0 + means[0];
+            case SPECIFIC_HEAT:
+                return spins*(means[1] - means[0]*means[0])/(T*T);
+            case ABS_MAG:
+                return means[2];
+            case SUSCEPTIBILITY:
+                return spins*(means[3] - means[2]*means[2])/T;
+            default:
+                return 1 - means[4]/(3*means[3]*means[3]);
+        }
+    }
+
+    private double estimate(int quantity)
+    {
+        double[] means = new double[MOMENTS];
+        for (int k = 0; k < MOMENTS; k++)
+        {
+            means[k] = (sum[k] + compensation[k] + current[k])/count;
+        }
+        return derive(quantity, means);
+    }
+
+    // Jackknife error over the complete blocks: the spread of the estimates with one block left out at a time.
+    // NaN with fewer than two blocks.
+    private double error(int quantity)
+    {
+        if (fullBlocks < 2)
+        {
+            return Double.NaN;
+        }
+        double[] total = new double[MOMENTS];
+        for (int b = 0; b < fullBlocks; b++)
+        {
+            for (int k = 0; k < MOMENTS; k++)
+            {
+                total[k] += blocks[b][k];
+            }
+        }
+        double samples = (double) (fullBlocks - 1)*blockLength;
+        double[] estimates = new double[fullBlocks];
+        double[] means = new double[MOMENTS];
+        double mean = 0;
+        for (int b = 0; b < fullBlocks; b++)
+        {
+            for (int k = 0; k < MOMENTS; k++)
+            {
+                means[k] = (total[k] - blocks[b][k])/samples;
+            }
+            estimates[b] = derive(quantity, means);
+            mean += estimates[b];
+        }
+        mean /= fullBlocks;
+        double squares = 0;
+        for (double estimate : estimates)
+        {
+            squares += (estimate - mean)*(estimate - mean);
+        }
+        return Math.sqrt(squares*(fullBlocks - 1)/fullBlocks);
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public double getEnergy()
+    {
+        return estimate(ENERGY);
+    }
+
+    public double getEnergyError()
+    {
+        return error(ENERGY);
+    }
+
+    public double getAbsMag()
+    {
+        return estimate(ABS_MAG);
+    }
+
+    public double getAbsMagError()
+    {
+        return error(ABS_MAG);
+    }
+
+    public double getSpecificHeat()
+    {
+        return estimate(SPECIFIC_HEAT);
+    }
+
+    public double getSpecificHeatError()
+    {
+        return error(SPECIFIC_HEAT);
+    }
+
+    public double getSusceptibility()
+    {
+        return estimate(SUSCEPTIBILITY);
+    }
+
+    public double getSusceptibilityError()
+    {
+        return error(SUSCEPTIBILITY);
+    }
+
+    public double getBinder()
+    {
+        return estimate(BINDER);
+    }
+
+    public double getBinderError()
+    {
+        return error(BINDER);
+    }
+
+    // Number of samples in each block of the jackknife.
+    public long getBlockLength()
+    {
+        return blockLength;
+    }
+
+    public int getBlocks()
+    {
+        return fullBlocks;
+    }
+
+    public long getCount()
+    {
+        return count;
+    }
+}
@@ -0,0 +1,124 @@
+// FILE: OffHeapWords.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+// An array of 64-bit words outside the Java heap, for lattices too large to keep on it (see PackedSpins).  The
+// garbage collector never scans or moves the words, so a lattice of any size costs the heap nothing.  The words are
+// held either in direct buffers, which count against -XX:MaxDirectMemorySize (by default the largest heap), or in a
+// memory-mapped scratch file, which is only limited by the disk and paged in and out by the operating system.  A
+// buffer is indexed by int, so the words are split into chunks of CHUNK words.  New words are zero.
+public class OffHeapWords
+{
+    private static final int CHUNK_BITS = 27; // 2^27 words, 1 GiB per chunk.
+    private static final int CHUNK = 1 << CHUNK_BITS;
+    private final long length;
+    private final LongBuffer[] chunks;
+
+    //
+    // Constructor.
+    //
+    private OffHeapWords(long length)
+    {
+        this.length = length;
+        chunks = new LongBuffer[(int) ((length + CHUNK - 1) >>> CHUNK_BITS)];
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Words in direct buffers.
+    public static OffHeapWords allocate(long length)
+    {
+        OffHeapWords words = new OffHeapWords(length);
+        for (int c = 0; c < words.chunks.length; c++)
+        {
+            words.chunks[c] = ByteBuffer.allocateDirect(8*words.chunkLength(c)).order(ByteOrder.nativeOrder())
+                    .asLongBuffer();
+        }
+        return words;
+    }
+
+    // Words in the given file, which is created, mapped, and deleted when the program exits.  An existing file is
+    // refused rather than overwritten, since it may be something other than an old scratch file.
+    public static OffHeapWords map(String filename, long length) throws IOException
+    {
+        OffHeapWords words = new OffHeapWords(length);
+        try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE_NEW,
+                StandardOpenOption.READ, StandardOpenOption.WRITE))
+        {
+            new File(filename).deleteOnExit();
+            for (int c = 0; c < words.chunks.length; c++)
+            {
+                words.chunks[c] = channel.map(FileChannel.MapMode.READ_WRITE, 8L*c*CHUNK, 8L*words.chunkLength(c))
+                        .order(ByteOrder.nativeOrder()).asLongBuffer();
+            }
+        }
+        return words;
+    }
+
+    public long get(long index)
+    {
+        return chunks[(int) (index >>> CHUNK_BITS)].get((int) index & (CHUNK - 1));
+    }
+
+    public void set(long index, long value)
+    {
+        chunks[(int) (index >>> CHUNK_BITS)].put((int) index & (CHUNK - 1), value);
+    }
+
+    // Copy count words from index on into dst, starting at offset.
+    public void read(long index, long[] dst, int offset, int count)
+    {
+        while (count > 0)
+        {
+            int at = (int) index & (CHUNK - 1);
+            int n = Math.min(count, CHUNK - at);
+            chunks[(int) (index >>> CHUNK_BITS)].get(at, dst, offset, n);
+            index += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    // Copy count words from src, starting at offset, to index on.
+    public void write(long index, long[] src, int offset, int count)
+    {
+        while (count > 0)
+        {
+            int at = (int) index & (CHUNK - 1);
+            int n = Math.min(count, CHUNK - at);
+            chunks[(int) (index >>> CHUNK_BITS)].put(at, src, offset, n);
+            index += n;
+            offset += n;
+            count -= n;
+        }
+    }
+
+    //
+    // Private methods.
+    //
+
+    private int chunkLength(int c)
+    {
+        return (int) Math.min(CHUNK, length - (long) c*CHUNK);
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public long getLength()
+    {
+        return length;
+    }
+}
@@ -0,0 +1,88 @@
+// FILE: OutputStage.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Consumer;
+
+// Runs the output of a simulation on a small pool of writer threads.  Magnetization files are written in batches
+// while the simulation runs (see AsyncMagWriter), the files saved at the end are written concurrently, and the
+// program waits for all of them once, in finish().  Write tasks report their own errors, as the Communicator's
+// write methods do, and must not wait for other tasks, which could be queued behind them.
+public class OutputStage
+{
+    private static final int THREADS = 2;
+    private final ExecutorService writers;
+    private final List<Future<?>> pending = new ArrayList<>();
+
+    //
+    // Constructor.
+    //
+    public OutputStage()
+    {
+        writers = Executors.newFixedThreadPool(THREADS, task ->
+        {
+            Thread thread = new Thread(task, "output-writer");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Stream magnetizations through the writer threads.  Returns null for a null writer, i.e. no file.
+    public MagWriter stream(MagWriter writer)
+    {
+        return writer == null ? null : new AsyncMagWriter(writer, writers);
+    }
+
+    // Queue the closing of a magnetization file, e.g. by Communicator.closeMag, behind its outstanding batches.
+    // Does nothing for a null writer.
+    public void close(MagWriter writer, Consumer<MagWriter> closer)
+    {
+        if (writer instanceof AsyncMagWriter)
+        {
+            pending.add(((AsyncMagWriter) writer).closeLater(closer));
+        }
+        else if (writer != null)
+        {
+            submit(() -> closer.accept(writer));
+        }
+    }
+
+    // Queue a write task.
+    public void submit(Runnable task)
+    {
+        pending.add(writers.submit(task));
+    }
+
+    // Wait for every queued task to finish and release the writer threads.
+    public void finish()
+    {
+        for (Future<?> future : pending)
+        {
+            try
+            {
+                future.get();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            catch(ExecutionException e)
+            {
+                System.err.println("Output failed: " + e.getCause());
+            }
+        }
+        pending.clear();
+        writers.shutdown();
+    }
+}
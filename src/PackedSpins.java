@@ -0,0 +1,421 @@
+// FILE: PackedSpins.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+// A bit-packed lattice for multi-spin coding, storing one spin per bit (1 = +1, 0 = -1).  Each row is split into
+// its even and odd columns, and each half-row of N/2 spins is packed into W consecutive long words, so that the 64
+// spins of a word all belong to the same checkerboard color.  Half-row (i, p) holds the spins (i, 2k+p) at bit k%64
+// of word k/64, starting at offset (2i+p)*W in a single flat array.  Unused high bits of the last word are kept zero.
+//
+// The words are on the heap by default.  With -lattice=direct or -lattice=<FILE> they are kept off it instead, in
+// OffHeapWords, so that lattices of up to about 10^5 x 10^5 spins (1.25 GB) need neither a large heap nor time in
+// the garbage collector.  MultiSpinEngine then works on copies of the few half-rows around the one it updates.
+public final class PackedSpins implements Magnet
+{
+    private static final long EVEN = 0x5555555555555555L; // Bits of the even columns of a state file word.
+    private static final long ODD = 0xAAAAAAAAAAAAAAAAL;
+    private final double Tc = 2.26918;
+    private final Rng rng;
+    private final long[] bits; // Null when the lattice is off the heap.
+    private final OffHeapWords words; // Null when the lattice is on the heap.
+    private final int N;
+    private final int M; // Spins per half-row.
+    private final int W; // Words per half-row.
+    private final long lastMask; // Valid bits of the last word of a half-row.
+    private double T;
+    private double h;
+    private boolean debug;
+
+    // Running totals, as in Spins.
+    private long magSum;
+    private long bondSum;
+
+    // Acceptance probabilities, shared with Spins.
+    private final long[] acceptThreshold = new long[10];
+
+    //
+    // Constructors.
+    //
+    public PackedSpins(Communicator comms)
+    {
+        this(comms, comms.getT(), Rng.create(comms.getRngName(), comms.getSeed()));
+    }
+
+    // A magnet at temperature T driven by the given generator, e.g. one of several replicas.
+    public PackedSpins(Communicator comms, double T, Rng rng)
+    {
+        this.N = comms.getN();
+        this.T = T;
+        this.h = comms.getH();
+        this.debug = comms.isDebug();
+        this.rng = rng;
+
+        M = N/2;
+        W = words(N);
+        lastMask = lastMask(N);
+        String lattice = comms.getLattice();
+        if (lattice.equals("heap"))
+        {
+            bits = new long[2*N*W];
+            words = null;
+        }
+        else
+        {
+            bits = null;
+            try
+            {
+                words = lattice.equals("direct") ? OffHeapWords.allocate(2L*N*W)
+                        : OffHeapWords.map(lattice, 2L*N*W);
+            }
+            catch(IOException e)
+            {
+                throw new UncheckedIOException("Lattice file cannot be mapped", e);
+            }
+        }
+
+        if (comms.isLoadState())
+        {
+            load(comms.getState());
+        }
+        else
+        {
+            makeState(comms);
+        }
+
+        Spins.makeAcceptTable(acceptThreshold, T, h);
+        recount();
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public int getSpin(int i, int j)
+    {
+        int k = j >> 1;
+        long word = getWord(halfRowIndex(i, j & 1) + (k >> 6));
+        return ((word >>> (k & 63)) & 1) != 0 ? +1 : -1;
+    }
+
+    // Interleave the two half-rows of row i back into the layout of a state file.  The words are read in place, so
+    // nothing is allocated, e.g. for measurements that gather every row.
+    @Override
+    public void getRow(int i, long[] row)
+    {
+        long evenRow = halfRowIndex(i, 0);
+        long oddRow = halfRowIndex(i, 1);
+        int R = (N + 63) >>> 6;
+        for (int w = 0; w < W; w++)
+        {
+            long even = getWord(evenRow + w);
+            long odd = getWord(oddRow + w);
+            row[2*w] = Long.expand(even, EVEN) | Long.expand(odd, ODD);
+            if (2*w + 1 < R)
+            {
+                row[2*w + 1] = Long.expand(even >>> 32, EVEN) | Long.expand(odd >>> 32, ODD);
+            }
+        }
+    }
+
+    // Unpack the lattice into a new array.
+    public int[][] getState()
+    {
+        int[][] state = new int[N][N];
+        for (int i = 0; i < N; i++)
+        {
+            for (int j = 0; j < N; j++)
+            {
+                state[i][j] = getSpin(i, j);
+            }
+        }
+        return state;
+    }
+
+    @Override
+    public double getMag()
+    {
+        if (debug)
+        {
+            checkTotals();
+        }
+        return (double) magSum /((double) N * (double) N);
+    }
+
+    @Override
+    public double getEnergy()
+    {
+        if (debug)
+        {
+            checkTotals();
+        }
+        return (-(double) bondSum - h*(double) magSum) /((double) N * (double) N);
+    }
+
+    @Override
+    public void checkTotals()
+    {
+        long trackedMag = magSum;
+        long trackedBond = bondSum;
+        recount();
+        if (trackedMag != magSum || trackedBond != bondSum)
+        {
+            throw new IllegalStateException("Running totals (M = " + trackedMag + ", bonds = " + trackedBond
+                    + ") do not match the lattice (M = " + magSum + ", bonds = " + bondSum + ").");
+        }
+    }
+
+    //
+    // Private methods.
+    //
+
+    private void makeState(Communicator comms)
+    {
+        if (T >= Tc)
+        {
+            for (int i = 0; i < N; i++)
+            {
+                for (int p = 0; p < 2; p++)
+                {
+                    long offset = halfRowIndex(i, p);
+                    for (int w = 0; w < W; w++)
+                    {
+                        setWord(offset + w, w == W-1 ? rng.nextLong() & lastMask : rng.nextLong());
+                    }
+                }
+            }
+            comms.informInitialCondition("T = inf");
+        }
+        else
+        {
+            // All spins up for h >= 0; the array is already all spins down otherwise.
+            if (h >= 0)
+            {
+                for (int i = 0; i < N; i++)
+                {
+                    for (int p = 0; p < 2; p++)
+                    {
+                        long offset = halfRowIndex(i, p);
+                        for (int w = 0; w < W; w++)
+                        {
+                            setWord(offset + w, w == W-1 ? lastMask : -1L);
+                        }
+                    }
+                }
+            }
+            comms.informInitialCondition("T = 0");
+        }
+    }
+
+    // Split each row of a saved state into its even and odd columns.
+    private void load(SpinState initial)
+    {
+        long[] row = new long[2*W];
+        long[] even = new long[W];
+        long[] odd = new long[W];
+        int R = (N + 63) >>> 6;
+        for (int i = 0; i < N; i++)
+        {
+            row[2*W - 1] = 0;
+            initial.getRow(i, row);
+            for (int w = 0; w < W; w++)
+            {
+                even[w] = Long.compress(row[2*w], EVEN) | Long.compress(row[2*w + 1], EVEN) << 32;
+                odd[w] = Long.compress(row[2*w], ODD) | Long.compress(row[2*w + 1], ODD) << 32;
+            }
+            even[W - 1] &= lastMask;
+            odd[W - 1] &= lastMask;
+            writeHalfRow(i, 0, even, 0);
+            writeHalfRow(i, 1, odd, 0);
+        }
+    }
+
+    // Recompute the running totals from scratch, a word at a time.  Each bond is counted once via the right and down
+    // neighbors: spin (i, 2k) is bonded to (i, 2k+1), spin (i, 2k+1) to (i, 2k+2), and each half-row to the same
+    // half-row of the next row.  Every anti-aligned bond takes 2 off the bond sum of a uniform lattice, 2N^2.
+    private void recount()
+    {
+        long[] even = new long[W];
+        long[] odd = new long[W];
+        long[] nextEven = new long[W];
+        long[] nextOdd = new long[W];
+        int lastBit = 63 - Long.numberOfLeadingZeros(lastMask);
+        long up = 0;
+        long anti = 0;
+        readHalfRow(0, 0, nextEven, 0);
+        readHalfRow(0, 1, nextOdd, 0);
+        for (int i = 0; i < N; i++)
+        {
+            long[] swap = even;
+            even = nextEven;
+            nextEven = swap;
+            swap = odd;
+            odd = nextOdd;
+            nextOdd = swap;
+            readHalfRow((i+1)%N, 0, nextEven, 0);
+            readHalfRow((i+1)%N, 1, nextOdd, 0);
+            for (int w = 0; w < W; w++)
+            {
+                // Even column k+1, periodically.
+                long evenNext = (even[w] >>> 1) | (w < W-1 ? even[w + 1] << 63 : (even[0] & 1) << lastBit);
+                up += Long.bitCount(even[w]) + Long.bitCount(odd[w]);
+                anti += Long.bitCount(even[w] ^ odd[w]) + Long.bitCount(odd[w] ^ evenNext)
+                        + Long.bitCount(even[w] ^ nextEven[w]) + Long.bitCount(odd[w] ^ nextOdd[w]);
+            }
+        }
+        magSum = 2*up - (long) N*N;
+        bondSum = 2L*N*N - 2*anti;
+    }
+
+    private long getWord(long index)
+    {
+        return bits != null ? bits[(int) index] : words.get(index);
+    }
+
+    private void setWord(long index, long value)
+    {
+        if (bits != null)
+        {
+            bits[(int) index] = value;
+        }
+        else
+        {
+            words.set(index, value);
+        }
+    }
+
+    private long halfRowIndex(int i, int p)
+    {
+        return (2L*i + p)*W;
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    // Offset of half-row (i, p) in the packed array.
+    int halfRow(int i, int p)
+    {
+        return (2*i + p)*W;
+    }
+
+    // Copy the W words of half-row (i, p) into dst, starting at offset.
+    void readHalfRow(int i, int p, long[] dst, int offset)
+    {
+        if (bits != null)
+        {
+            System.arraycopy(bits, halfRow(i, p), dst, offset, W);
+        }
+        else
+        {
+            words.read(halfRowIndex(i, p), dst, offset, W);
+        }
+    }
+
+    // Copy W words from src, starting at offset, into half-row (i, p).
+    void writeHalfRow(int i, int p, long[] src, int offset)
+    {
+        if (bits != null)
+        {
+            System.arraycopy(src, offset, bits, halfRow(i, p), W);
+        }
+        else
+        {
+            words.write(halfRowIndex(i, p), src, offset, W);
+        }
+    }
+
+    // The packed array, or null when the lattice is off the heap and must be accessed through readHalfRow and
+    // writeHalfRow.
+    long[] getBits()
+    {
+        return bits;
+    }
+
+    int getWords()
+    {
+        return W;
+    }
+
+    // Words per half-row of an N x N lattice.
+    static int words(int N)
+    {
+        return (N/2 + 63)/64;
+    }
+
+    // Valid bits of the last word of a half-row of an N x N lattice.
+    static long lastMask(int N)
+    {
+        int lastBits = N/2 - 64*(words(N) - 1);
+        return lastBits == 64 ? -1L : (1L << lastBits) - 1;
+    }
+
+    long getLastMask()
+    {
+        return lastMask;
+    }
+
+    long[] getAcceptThresholds()
+    {
+        return acceptThreshold;
+    }
+
+    void addTotals(long dMag, long dBond)
+    {
+        magSum += dMag;
+        bondSum += dBond;
+    }
+
+    @Override
+    public int getN()
+    {
+        return N;
+    }
+
+    @Override
+    public Rng getRng()
+    {
+        return rng;
+    }
+
+    @Override
+    public double getT()
+    {
+        return T;
+    }
+
+    @Override
+    public double getH()
+    {
+        return h;
+    }
+
+    @Override
+    public long getMagSum()
+    {
+        return magSum;
+    }
+
+    @Override
+    public long getBondSum()
+    {
+        return bondSum;
+    }
+
+    @Override
+    public void setT(double T)
+    {
+        this.T = T;
+        Spins.makeAcceptTable(acceptThreshold, T, h);
+    }
+
+    @Override
+    public void setH(double h)
+    {
+        this.h = h;
+        Spins.makeAcceptTable(acceptThreshold, T, h);
+    }
+}
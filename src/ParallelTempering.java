@@ -0,0 +1,263 @@
+// FILE: ParallelTempering.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Replica exchange across a ladder of temperatures.  One replica per temperature is advanced concurrently on a
+// thread pool for a fixed number of engine steps, and then exchanges between neighboring temperatures are attempted
+// with probability min(1, exp((1/T_k - 1/T_k+1)(E_k - E_k+1))) using the tracked total energies.  Replicas exchange
+// temperatures rather than lattices.  Pairs (0,1), (2,3), ... and (1,2), (3,4), ... are attempted on alternate
+// rounds.  The magnetization is recorded per temperature, along with the exchange acceptance rates and the number
+// and mean duration of round trips of replicas from the lowest to the highest temperature and back.  The joint
+// histograms of the bond sum and magnetization kept per temperature suit multiple-histogram reweighting.
+public class ParallelTempering
+{
+    private final Communicator comms;
+    private final double[] ladder;
+    private final int K;
+    private final Magnet[] replicas;
+    private final Engine[] engines;
+    private final int[] slotOf; // Ladder position of each replica.
+    private final int[] replicaAt; // Replica at each ladder position.
+    private final Rng rng;
+    private final ExecutorService pool;
+    private final long[] swapAttempts;
+    private final long[] swapAccepted;
+    private final long[] acceptance;
+    private final long[] moves;
+    private final int[] direction; // +1 after visiting the lowest temperature, -1 after the highest, 0 before either.
+    private final long[] tripStart;
+    private long roundTrips = 0;
+    private long roundTripTime = 0;
+    private long round = 0;
+    private final Stats[] stats;
+    private final Observables[] observables;
+    private final MagWriter[] magWriters;
+    private final Histogram[] histograms; // Per temperature; null unless the histograms are kept.
+    private final OutputStage output = new OutputStage();
+
+    //
+    // Constructor.
+    //
+    public ParallelTempering(Communicator comms)
+    {
+        this.comms = comms;
+        this.ladder = comms.getLadder();
+        this.K = ladder.length;
+
+        // Each replica gets its own stream split from the master generator, which also decides the exchanges.
+        rng = Rng.create(comms.getRngName(), comms.getSeed());
+        replicas = new Magnet[K];
+        engines = new Engine[K];
+        slotOf = new int[K];
+        replicaAt = new int[K];
+        for (int k = 0; k < K; k++)
+        {
+            replicas[k] = Magnet.create(comms, ladder[k], rng.split());
+            engines[k] = Engine.create(comms, replicas[k], 1);
+            slotOf[k] = k;
+            replicaAt[k] = k;
+        }
+        pool = Executors.newFixedThreadPool(Math.min(K, comms.getThreads()));
+
+        swapAttempts = new long[K];
+        swapAccepted = new long[K];
+        acceptance = new long[K];
+        moves = new long[K];
+        direction = new int[K];
+        tripStart = new long[K];
+        stats = new Stats[K];
+        observables = new Observables[K];
+        magWriters = new MagWriter[K];
+        histograms = comms.isSaveHistogram() ? new Histogram[K] : null;
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Run the equilibration and measurement stages and save the results.
+    public void run()
+    {
+        int interval = comms.getSwapInterval();
+        comms.informInitDone();
+
+        // Equilibration stage.
+        long eqSteps = comms.getEqSteps();
+        for (long s = 0; s < eqSteps; s += interval)
+        {
+            advance((int) Math.min(interval, eqSteps - s), false);
+            exchange();
+        }
+        comms.informEqDone();
+
+        // Measurement stage.  Only exchanges made while measuring count towards the statistics.
+        long measureSteps = comms.getMeasureSteps();
+        for (int k = 0; k < K; k++)
+        {
+            stats[k] = new Stats();
+            observables[k] = new Observables(comms.getN(), ladder[k]);
+            magWriters[k] = output.stream(comms.openMag(k));
+            if (histograms != null)
+            {
+                histograms[k] = new Histogram(comms.getN(), ladder[k], comms.getH());
+            }
+        }
+        clearCounters();
+        for (long s = 0; s < measureSteps; s += interval)
+        {
+            advance((int) Math.min(interval, measureSteps - s), true);
+            exchange();
+        }
+        for (MagWriter writer : magWriters)
+        {
+            output.close(writer, comms::closeMag);
+        }
+        comms.informMeasureDone();
+        pool.shutdown();
+        for (Engine engine : engines)
+        {
+            engine.close();
+        }
+
+        // Display and save results.
+        for (int k = 0; k < K; k++)
+        {
+            System.out.println("T = " + ladder[k] + ":");
+            stats[k].printOutcome();
+            observables[k].printOutcome();
+        }
+        double meanTrip = roundTrips > 0 ? (double) roundTripTime/(double) roundTrips : Double.NaN;
+        System.out.println("Round trips: " + roundTrips);
+        output.submit(() -> comms.writeTemperingLog(stats, observables, acceptance, moves, swapAccepted, swapAttempts,
+                roundTrips, meanTrip));
+        if (histograms != null)
+        {
+            for (int k = 0; k < K; k++)
+            {
+                final int slot = k;
+                output.submit(() -> comms.writeHistogram(histograms[slot], slot));
+            }
+        }
+        output.finish();
+        comms.bye();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Advance every replica by the given number of steps in parallel.  When measuring, the magnetization after each
+    // step is recorded at the replica's temperature.  Each temperature is held by exactly one replica in a round.
+    private void advance(int steps, boolean measure)
+    {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (int r = 0; r < K; r++)
+        {
+            final int replica = r;
+            final int slot = slotOf[r];
+            tasks.add(() ->
+            {
+                Engine engine = engines[replica];
+                Magnet magnet = replicas[replica];
+                long accepted = 0;
+                long startMoves = engine.getMoves();
+                for (int s = 0; s < steps; s++)
+                {
+                    accepted += engine.step();
+                    if (measure)
+                    {
+                        double mag = magnet.getMag();
+                        stats[slot].add(mag);
+                        observables[slot].add(magnet.getEnergy(), mag);
+                        if (magWriters[slot] != null)
+                        {
+                            magWriters[slot].add(mag);
+                        }
+                        if (histograms != null)
+                        {
+                            histograms[slot].add(magnet.getBondSum(), magnet.getMagSum());
+                        }
+                    }
+                }
+                acceptance[slot] += accepted;
+                moves[slot] += engine.getMoves() - startMoves;
+                return null;
+            });
+        }
+
+        try
+        {
+            for (Future<Void> future : pool.invokeAll(tasks))
+            {
+                future.get();
+            }
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new IllegalStateException("Replica update failed: " + e.getMessage(), e);
+        }
+    }
+
+    // Attempt exchanges between neighboring temperatures, alternating between even and odd pairs.
+    private void exchange()
+    {
+        double sites = (double) comms.getN()*comms.getN();
+        for (int k = (int) (round & 1); k + 1 < K; k += 2)
+        {
+            int a = replicaAt[k];
+            int b = replicaAt[k+1];
+            double delta = (1.0/ladder[k] - 1.0/ladder[k+1])*(replicas[a].getEnergy() - replicas[b].getEnergy())*sites;
+            swapAttempts[k]++;
+            if (delta >= 0 || rng.nextDouble() < Math.exp(delta))
+            {
+                replicas[a].setT(ladder[k+1]);
+                replicas[b].setT(ladder[k]);
+                replicaAt[k] = b;
+                replicaAt[k+1] = a;
+                slotOf[a] = k+1;
+                slotOf[b] = k;
+                swapAccepted[k]++;
+            }
+        }
+        round++;
+
+        // A round trip ends when a replica returns to the lowest temperature after visiting the highest.
+        int bottom = replicaAt[0];
+        if (direction[bottom] == -1)
+        {
+            roundTrips++;
+            roundTripTime += round - tripStart[bottom];
+        }
+        if (direction[bottom] != +1)
+        {
+            direction[bottom] = +1;
+            tripStart[bottom] = round;
+        }
+        direction[replicaAt[K-1]] = -1;
+    }
+
+    // Start the counters afresh for the measurements.  Trips under way are forgotten, so that only trips made
+    // entirely while measuring are counted.
+    private void clearCounters()
+    {
+        for (int k = 0; k < K; k++)
+        {
+            swapAttempts[k] = 0;
+            swapAccepted[k] = 0;
+            acceptance[k] = 0;
+            moves[k] = 0;
+            direction[k] = 0;
+            tripStart[k] = round;
+        }
+        roundTrips = 0;
+        roundTripTime = 0;
+    }
+}
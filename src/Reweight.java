@@ -0,0 +1,292 @@
+// FILE: Reweight.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+
+// Extrapolates observables from the (B, M) histograms of one or more runs (see Histogram) to other temperatures and
+// fields.  With one histogram this is single-histogram reweighting (Ferrenberg and Swendsen, 1988); with several,
+// the histograms are combined by the multiple-histogram method (Ferrenberg and Swendsen, 1989, also known as WHAM),
+// which solves self-consistently for the density of states
+//
+//   g(B, M) = sum_k H_k(B, M) / sum_k n_k exp(b_k B + b_k h_k M - f_k)
+//   exp(f_k) = sum_(B, M) g(B, M) exp(b_k B + b_k h_k M)
+//
+// where run k at b_k = 1/T_k and field h_k has n_k samples.  All sums are done on logarithms, so that the weights
+// of large lattices do not overflow.  Results are only reliable at temperatures and fields whose typical states the
+// runs visited, i.e. between or close to those of the runs.
+//
+// Usage: java Reweight [-t=<T1,T2,...> | -t=<FROM:TO:STEP>] [-h=<H>] <FILE.hist> [<FILE.hist> ...]
+// Without -t the temperatures of the runs are used, and without -h the field of the first run.  Prints, per
+// temperature, the energy e and specific heat c per spin, the magnetization m and |m| per spin, the susceptibility
+// chi = (<M^2> - <|M|>^2)/(T N^2) and the Binder cumulant U4 = 1 - <M^4>/(3 <M^2>^2).
+public class Reweight
+{
+    private static final double TOLERANCE = 1e-10; // Largest change of the f_k at convergence.
+    private static final int MAX_ITERATIONS = 100000;
+    private final int N;
+    private final long[] bonds;
+    private final long[] mags;
+    private final double[] logG; // Logarithm of the density of states, up to a constant.
+    private int iterations = 0;
+
+    //
+    // Constructor.
+    //
+    public Reweight(List<Histogram> runs)
+    {
+        N = runs.get(0).getN();
+        Histogram all = new Histogram(N, Double.NaN, Double.NaN);
+        for (Histogram run : runs)
+        {
+            if (run.getN() != N)
+            {
+                throw new IllegalArgumentException("The histograms are of different lattice sizes.");
+            }
+            all.merge(run);
+        }
+        bonds = new long[all.getSize()];
+        mags = new long[all.getSize()];
+        double[] logCount = new double[all.getSize()];
+        int[] next = {0};
+        all.forEach((bondSum, magSum, count) ->
+        {
+            bonds[next[0]] = bondSum;
+            mags[next[0]] = magSum;
+            logCount[next[0]] = Math.log(count);
+            next[0]++;
+        });
+        logG = new double[bonds.length];
+        solve(runs, logCount);
+    }
+
+    //
+    // Public methods.
+    //
+
+    public static void main(String[] args)
+    {
+        List<Double> temperatures = new ArrayList<>();
+        Double field = null;
+        List<Histogram> runs = new ArrayList<>();
+        try
+        {
+            for (String arg : args)
+            {
+                if (arg.startsWith("-t="))
+                {
+                    temperatures = parseTemperatures(arg.substring(3));
+                }
+                else if (arg.startsWith("-h="))
+                {
+                    field = Double.parseDouble(arg.substring(3));
+                }
+                else
+                {
+                    runs.add(Histogram.read(arg));
+                }
+            }
+        }
+        catch(IOException | IllegalArgumentException e)
+        {
+            System.err.println(e.getMessage());
+            return;
+        }
+        if (runs.isEmpty())
+        {
+            System.out.println("Usage: java Reweight [-t=<T1,T2,...> | -t=<FROM:TO:STEP>] [-h=<H>] "
+                    + "<FILE.hist> [<FILE.hist> ...]");
+            return;
+        }
+        if (temperatures.isEmpty())
+        {
+            for (Histogram run : runs)
+            {
+                temperatures.add(run.getT());
+            }
+        }
+        double h = field != null ? field : runs.get(0).getH();
+
+        Reweight reweight;
+        try
+        {
+            reweight = new Reweight(runs);
+        }
+        catch(IllegalArgumentException e)
+        {
+            System.err.println(e.getMessage());
+            return;
+        }
+        System.out.println("# " + runs.size() + " histograms, " + reweight.bonds.length + " (B, M) pairs, "
+                + reweight.iterations + " iterations.");
+        System.out.println("# T h e c m |m| chi U4");
+        for (double T : temperatures)
+        {
+            double[] o = reweight.observables(T, h);
+            System.out.println(String.format(Locale.ROOT, "%.6f %.6f %.10g %.10g %.10g %.10g %.10g %.10g", T, h,
+                    o[0], o[1], o[2], o[3], o[4], o[5]));
+        }
+    }
+
+    // Observables at temperature T and field h: {e, c, m, |m|, chi, U4}, as in the usage above.
+    public double[] observables(double T, double h)
+    {
+        double beta = 1/T;
+        double[] logW = new double[bonds.length];
+        double largest = Double.NEGATIVE_INFINITY;
+        for (int s = 0; s < bonds.length; s++)
+        {
+            logW[s] = logG[s] + beta*bonds[s] + beta*h*mags[s];
+            largest = Math.max(largest, logW[s]);
+        }
+
+        // Means first, then the variance of the energy about its mean.
+        double z = 0;
+        double e = 0;
+        double m = 0;
+        double absM = 0;
+        double m2 = 0;
+        double m4 = 0;
+        for (int s = 0; s < bonds.length; s++)
+        {
+            double w = Math.exp(logW[s] - largest);
+            double magSum = mags[s];
+            z += w;
+            e += w*(-bonds[s] - h*magSum);
+            m += w*magSum;
+            absM += w*Math.abs(magSum);
+            m2 += w*magSum*magSum;
+            m4 += w*magSum*magSum*magSum*magSum;
+        }
+        e /= z;
+        m /= z;
+        absM /= z;
+        m2 /= z;
+        m4 /= z;
+        double varE = 0;
+        for (int s = 0; s < bonds.length; s++)
+        {
+            double d = -bonds[s] - h*mags[s] - e;
+            varE += Math.exp(logW[s] - largest)*d*d;
+        }
+        varE /= z;
+
+        double spins = (double) N*N;
+        return new double[] {e/spins, beta*beta*varE/spins, m/spins, absM/spins, beta*(m2 - absM*absM)/spins,
+                1 - m4/(3*m2*m2)};
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Iterate the multiple-histogram equations until the f_k settle.  f_0 is held at zero.
+    private void solve(List<Histogram> runs, double[] logCount)
+    {
+        int K = runs.size();
+        double[][] exponent = new double[K][bonds.length]; // b_k B + b_k h_k M.
+        double[] logSamples = new double[K];
+        for (int k = 0; k < K; k++)
+        {
+            Histogram run = runs.get(k);
+            double beta = 1/run.getT();
+            for (int s = 0; s < bonds.length; s++)
+            {
+                exponent[k][s] = beta*bonds[s] + beta*run.getH()*mags[s];
+            }
+            logSamples[k] = Math.log(run.getSamples());
+        }
+
+        double[] f = new double[K];
+        double[] terms = new double[Math.max(K, bonds.length)];
+        double change = Double.POSITIVE_INFINITY;
+        while (change > TOLERANCE && iterations < MAX_ITERATIONS)
+        {
+            for (int s = 0; s < bonds.length; s++)
+            {
+                for (int k = 0; k < K; k++)
+                {
+                    terms[k] = logSamples[k] + exponent[k][s] - f[k];
+                }
+                logG[s] = logCount[s] - logSumExp(terms, K);
+            }
+            change = 0;
+            double f0 = 0;
+            for (int k = 0; k < K; k++)
+            {
+                for (int s = 0; s < bonds.length; s++)
+                {
+                    terms[s] = logG[s] + exponent[k][s];
+                }
+                double fk = logSumExp(terms, bonds.length);
+                if (k == 0)
+                {
+                    f0 = fk;
+                }
+                fk -= f0;
+                change = Math.max(change, Math.abs(fk - f[k]));
+                f[k] = fk;
+            }
+            iterations++;
+        }
+        if (change > TOLERANCE)
+        {
+            System.err.println("The histogram equations did not converge; the histograms may not overlap.");
+        }
+    }
+
+    // log(sum exp(x[i])) over the first n values, without overflow.
+    private static double logSumExp(double[] x, int n)
+    {
+        double largest = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++)
+        {
+            largest = Math.max(largest, x[i]);
+        }
+        double sum = 0;
+        for (int i = 0; i < n; i++)
+        {
+            sum += Math.exp(x[i] - largest);
+        }
+        return largest + Math.log(sum);
+    }
+
+    // Temperatures from a list T1,T2,... or a range FROM:TO:STEP.  Shared with DensityOfStates.
+    static List<Double> parseTemperatures(String spec)
+    {
+        List<Double> temperatures = new ArrayList<>();
+        String[] range = spec.split(":");
+        if (range.length == 3)
+        {
+            double from = Double.parseDouble(range[0]);
+            double to = Double.parseDouble(range[1]);
+            double step = Double.parseDouble(range[2]);
+            if (step <= 0 || to < from)
+            {
+                throw new IllegalArgumentException("Invalid temperature range: " + spec);
+            }
+            for (int k = 0; from + k*step <= to + 1e-9*step; k++)
+            {
+                temperatures.add(from + k*step);
+            }
+        }
+        else
+        {
+            for (String value : spec.split(","))
+            {
+                temperatures.add(Double.parseDouble(value));
+            }
+        }
+        for (double T : temperatures)
+        {
+            if (T <= 0)
+            {
+                throw new IllegalArgumentException("Temperatures must be positive: " + T);
+            }
+        }
+        return temperatures;
+    }
+}
@@ -0,0 +1,66 @@
+// FILE: Rng.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+public interface Rng
+{
+    // Next 64 random bits.
+    long nextLong();
+
+    // Split off an independent generator, e.g. for a parallel worker.
+    Rng split();
+
+    // Write the internal state, e.g. for a checkpoint.
+    void save(DataOutput out) throws IOException;
+
+    // Continue from a state written by save, exactly where the saved generator left off.
+    void restore(DataInput in) throws IOException;
+
+    // Uniform integer in [0, bound), using Lemire's multiply-and-shift method with rejection.
+    default int nextInt(int bound)
+    {
+        long m = (nextLong() >>> 32) * bound;
+        long low = m & 0xFFFFFFFFL;
+        if (low < bound)
+        {
+            long threshold = (0x100000000L - bound) % bound;
+            while (low < threshold)
+            {
+                m = (nextLong() >>> 32) * bound;
+                low = m & 0xFFFFFFFFL;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+
+    // Uniform double in [0, 1).
+    default double nextDouble()
+    {
+        return (nextLong() >>> 11) * 0x1.0p-53;
+    }
+
+    // Create a generator by name: "xoshiro", "splitmix" or "legacy".
+    static Rng create(String name, long seed)
+    {
+        switch (name)
+        {
+            case "xoshiro":
+                return new XoshiroRng(seed);
+            case "splitmix":
+                return new SplitMixRng(seed);
+            case "legacy":
+                return new LegacyRng(seed);
+            default:
+                throw new IllegalArgumentException("Unknown random number generator: " + name);
+        }
+    }
+
+    static boolean isKnown(String name)
+    {
+        return name.equals("xoshiro") || name.equals("splitmix") || name.equals("legacy");
+    }
+}
@@ -0,0 +1,53 @@
+// FILE: RowKernel.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+// Updates the sites of one color in one row of a checkerboard sweep (see CheckerboardEngine).  Each strip of rows has
+// a kernel of its own, so a kernel is only ever used by one thread at a time.
+public interface RowKernel
+{
+    // Update the sites j = first, first + 2, ... of a row, given the rows above and below it, and add the changes to
+    // totals: {change in the sum of spins, change in the bond sum, accepted flips}.
+    void update(int[] row, int[] up, int[] down, int first, Rng rng, long[] totals);
+
+    // Create the kernel selected on the command line: "scalar", or "vector" for the Vector API kernel, which falls
+    // back to scalar when the Vector API is unavailable.  The kernel reads the acceptance table of the magnet on
+    // every row, so it follows changes of temperature.
+    static RowKernel create(String name, int N, int[] next, int[] prev, long[] acceptThreshold)
+    {
+        if (name.equals("vector") && isVectorAvailable())
+        {
+            try
+            {
+                return (RowKernel) Class.forName("VectorRowKernel")
+                        .getConstructor(int.class, int[].class, int[].class, long[].class)
+                        .newInstance(N, next, prev, acceptThreshold);
+            }
+            catch(ReflectiveOperationException e)
+            {
+                // Fall through to the scalar kernel.
+            }
+        }
+        return new ScalarRowKernel(N, next, prev, acceptThreshold);
+    }
+
+    // True if the Vector API kernel was built and the jdk.incubator.vector module is present, i.e. the program was
+    // started with --add-modules jdk.incubator.vector.
+    static boolean isVectorAvailable()
+    {
+        try
+        {
+            Class.forName("VectorRowKernel").getMethod("species").invoke(null);
+            return true;
+        }
+        catch(ReflectiveOperationException | LinkageError e)
+        {
+            return false;
+        }
+    }
+
+    static boolean isKnown(String name)
+    {
+        return name.equals("scalar") || name.equals("vector");
+    }
+}
@@ -0,0 +1,52 @@
+// FILE: ScalarRowKernel.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+// The site-by-site checkerboard row update.  A random number is only drawn for moves that are not always accepted,
+// exactly as Spins.tryMove does.
+public class ScalarRowKernel implements RowKernel
+{
+    private final int N;
+    private final int[] next;
+    private final int[] prev;
+    private final long[] acceptThreshold;
+
+    //
+    // Constructor.
+    //
+    public ScalarRowKernel(int N, int[] next, int[] prev, long[] acceptThreshold)
+    {
+        this.N = N;
+        this.next = next;
+        this.prev = prev;
+        this.acceptThreshold = acceptThreshold;
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public void update(int[] row, int[] up, int[] down, int first, Rng rng, long[] totals)
+    {
+        long dMag = 0;
+        long dBond = 0;
+        long accepted = 0;
+        for (int j = first; j < N; j += 2)
+        {
+            int spin = row[j];
+            int sum = up[j] + down[j] + row[next[j]] + row[prev[j]];
+            long threshold = acceptThreshold[Spins.tableIndex(spin, sum)];
+            if (threshold == Spins.ALWAYS || (rng.nextLong() >>> 11) < threshold)
+            {
+                row[j] = -spin;
+                dMag -= 2*spin;
+                dBond -= 2*spin*sum;
+                accepted++;
+            }
+        }
+        totals[0] += dMag;
+        totals[1] += dBond;
+        totals[2] += accepted;
+    }
+}
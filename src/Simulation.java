@@ -0,0 +1,356 @@
+// FILE: Simulation.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.concurrent.CompletableFuture;
+import javax.management.JMException;
+
+// A single simulation at one set of parameters: initialization, equilibration, measurement, and saving the results.
+public class Simulation
+{
+    private final Communicator comms;
+    private final Stats stats = new Stats();
+    private Observables observables;
+    private Histogram histogram; // Null unless the histogram is kept.
+    private Correlations correlations; // Null unless the correlations are measured.
+    private MagWriter magWriter;
+    private Checkpointer checkpointer;
+    private final OutputStage output = new OutputStage();
+    private final Metrics metrics;
+    private MetricsServer metricsServer;
+    private long startTime;
+    private long acceptance = 0;
+    private long moves = 0;
+    private double sweepRate;
+
+    //
+    // Constructor.
+    //
+    public Simulation(Communicator comms)
+    {
+        this.comms = comms;
+        metrics = new Metrics(comms);
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Run the simulation and save the results.  A run resumed from a checkpoint continues where it left off.
+    public void run()
+    {
+        // Initialization stage.
+        Magnet magnet = Magnet.create(comms);
+        Engine engine = Engine.create(comms, magnet);
+        observables = new Observables(comms.getN(), magnet.getT());
+        if (comms.isSaveHistogram())
+        {
+            histogram = new Histogram(comms.getN(), magnet.getT(), magnet.getH());
+        }
+        if (comms.getCorrelationInterval() > 0)
+        {
+            correlations = new Correlations(comms);
+        }
+        Checkpoint resume = comms.getResume();
+        int stage = Checkpoint.EQUILIBRATION;
+        long firstStep = 0;
+        long elapsed = 0;
+        long eqMoves = 0;
+        if (resume != null)
+        {
+            stage = resume.getStage();
+            firstStep = resume.getStep();
+            elapsed = resume.getElapsed();
+            acceptance = resume.getAcceptance();
+            eqMoves = resume.getEqMoves();
+            restore(resume.getMagnetRng(), magnet.getRng()::restore);
+            restore(resume.getStats(), this::restoreStatistics);
+            comms.informResume(stage, firstStep);
+        }
+        comms.informInitDone();
+        exposeMetrics();
+        checkpointer = new Checkpointer(comms);
+        FrameRecorder frames = comms.getFrameInterval() > 0 ? new FrameRecorder(comms, engine.getMoves()) : null;
+        startTime = System.nanoTime() - elapsed;
+
+        // Equilibration stage.
+        if (stage == Checkpoint.EQUILIBRATION)
+        {
+            if (resume != null)
+            {
+                restore(resume.getEngine(), engine::restore);
+            }
+            metrics.beginStage("equilibration", firstStep, 0, engine, magnet);
+            long eqSteps = comms.getEqSteps();
+            long eqAccepted = 0;
+            for (long s = firstStep; s < eqSteps; s++)
+            {
+                eqAccepted += engine.step();
+                metrics.count(s + 1, eqAccepted);
+                if (frames != null)
+                {
+                    frames.capture(magnet, engine.getMoves());
+                }
+                if (checkpointer.due())
+                {
+                    checkpoint(magnet, engine, Checkpoint.EQUILIBRATION, s + 1, 0);
+                }
+            }
+            firstStep = 0;
+            eqMoves = engine.getMoves();
+            engine.beginMeasurement();
+            magWriter = output.stream(comms.openMag());
+        }
+        else
+        {
+            engine.beginMeasurement();
+            restore(resume.getEngine(), engine::restore);
+            magWriter = output.stream(comms.resumeMag(resume.getMagBytes(), stats.getCount()));
+        }
+        comms.informEqDone();
+
+        // Measurement stage.
+        metrics.beginStage("measurement", firstStep, acceptance, engine, magnet);
+        if (correlations != null)
+        {
+            correlations.begin(engine.getMoves());
+        }
+        long measureSteps = comms.getMeasureSteps();
+        for (long s = firstStep; s < measureSteps; s++)
+        {
+            acceptance += engine.step();
+            metrics.count(s + 1, acceptance);
+
+            // Accumulate the results.
+            record(magnet.getMag(), magnet.getEnergy());
+            if (histogram != null)
+            {
+                histogram.add(magnet.getBondSum(), magnet.getMagSum());
+            }
+            if (correlations != null)
+            {
+                correlations.measure(magnet, engine.getMoves());
+            }
+
+            if (frames != null)
+            {
+                frames.capture(magnet, engine.getMoves());
+            }
+
+            if (checkpointer.due())
+            {
+                checkpoint(magnet, engine, Checkpoint.MEASUREMENT, s + 1, eqMoves);
+            }
+        }
+        metrics.finish();
+        checkpointer.close();
+        if (frames != null)
+        {
+            frames.close();
+        }
+        output.close(magWriter, comms::closeMag);
+        comms.informMeasureDone();
+        engine.close();
+
+        // Determine the throughput in sweeps per second.
+        double seconds = (System.nanoTime() - startTime)*1e-9;
+        moves = engine.getMoves() - eqMoves;
+        double sweeps = (double) engine.getMoves()/((double) comms.getN()*comms.getN());
+        sweepRate = sweeps/seconds;
+        comms.informThroughput(sweepRate);
+
+        // Display results.
+        if (!comms.isQuiet())
+        {
+            stats.printOutcome();
+            observables.printOutcome();
+        }
+
+        // Save results.  The files are written concurrently, and this waits once for all of them.
+        Visualizer vis = new Visualizer(comms.isQuiet(), comms.getSnapshotSize());
+        output.submit(() -> vis.makeSnapshot(comms.getId(), magnet));
+        output.submit(() -> comms.writeLog(stats, observables, acceptance, moves, sweepRate));
+        long priorSteps = comms.isLoadState() ? comms.getState().getSteps() : 0;
+        output.submit(() -> comms.writeState(magnet, priorSteps + comms.getEqSteps() + comms.getMeasureSteps()));
+        if (histogram != null)
+        {
+            output.submit(() -> comms.writeHistogram(histogram));
+        }
+        if (correlations != null)
+        {
+            correlations.close();
+            output.submit(() -> comms.writeCorrelations(correlations));
+        }
+        if (engine instanceof SwendsenWangEngine)
+        {
+            output.submit(() -> comms.writeClusterSizes(((SwendsenWangEngine) engine).getClusterSizes()));
+        }
+        output.finish();
+        hideMetrics();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Register the live metrics with JMX and start the HTTP server, as requested on the command line.
+    private void exposeMetrics()
+    {
+        try
+        {
+            if (comms.isMetrics())
+            {
+                metrics.register(comms.getId().toString());
+                comms.informMetrics("JMX ising:type=Simulation,id=" + comms.getId());
+            }
+            if (comms.getMetricsPort() > 0)
+            {
+                metricsServer = new MetricsServer(metrics, comms.getMetricsPort());
+                comms.informMetrics("http://localhost:" + metricsServer.getPort() + "/metrics and /status");
+            }
+        }
+        catch(JMException | IOException e)
+        {
+            System.err.println("Live metrics unavailable: " + e.getMessage());
+        }
+    }
+
+    private void hideMetrics()
+    {
+        metrics.unregister();
+        if (metricsServer != null)
+        {
+            metricsServer.close();
+        }
+    }
+
+    // Capture the state of the run after the given step and hand it to the checkpoint writer.  The magnetization
+    // file is flushed behind its outstanding batches, and the checkpoint is completed with the length of the file
+    // on the output thread, so the simulation only waits for the copies of the lattice and the small state.
+    private void checkpoint(Magnet magnet, Engine engine, int stage, long step, long eqMoves)
+    {
+        try
+        {
+            CompletableFuture<Long> magBytes = CompletableFuture.completedFuture(-1L);
+            if (magWriter instanceof AsyncMagWriter)
+            {
+                magBytes = ((AsyncMagWriter) magWriter).flushLater();
+            }
+            else if (magWriter != null)
+            {
+                magWriter.flush();
+                magBytes = CompletableFuture.completedFuture(magWriter.getBytes());
+            }
+            byte[] parameters = Checkpoint.capture(comms::saveParameters);
+            SpinState spins = SpinState.of(magnet);
+            byte[] magnetRng = Checkpoint.capture(magnet.getRng()::save);
+            byte[] engineState = Checkpoint.capture(engine::save);
+            byte[] statistics = Checkpoint.capture(this::saveStatistics);
+            long elapsed = System.nanoTime() - startTime;
+            long accepted = acceptance;
+            checkpointer.submit(magBytes.thenApply(bytes -> new Checkpoint(parameters, spins, magnetRng, engineState,
+                    statistics, stage, step, accepted, eqMoves, elapsed, bytes)));
+        }
+        catch(IOException e)
+        {
+            System.err.println("Checkpoint failed: " + e.getMessage());
+        }
+    }
+
+    // Restore part of the run from the bytes captured in a checkpoint.
+    private static void restore(byte[] bytes, Restorer part)
+    {
+        try
+        {
+            part.restore(new DataInputStream(new ByteArrayInputStream(bytes)));
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Checkpoint cannot be restored", e);
+        }
+    }
+
+    // The statistics and observables of the measurements so far, with the histogram and the correlations if they
+    // are kept.
+    private void saveStatistics(DataOutput out) throws IOException
+    {
+        stats.save(out);
+        observables.save(out);
+        if (histogram != null)
+        {
+            histogram.save(out);
+        }
+        if (correlations != null)
+        {
+            correlations.save(out);
+        }
+    }
+
+    private void restoreStatistics(DataInput in) throws IOException
+    {
+        stats.restore(in);
+        observables.restore(in);
+        if (histogram != null)
+        {
+            histogram.restore(in);
+        }
+        if (correlations != null)
+        {
+            correlations.restore(in);
+        }
+    }
+
+    private interface Restorer
+    {
+        void restore(DataInput in) throws IOException;
+    }
+
+    // Add one measurement to the statistics, the observables and the magnetization file.
+    private void record(double mag, double energy)
+    {
+        stats.add(mag);
+        observables.add(energy, mag);
+        if (magWriter != null)
+        {
+            try
+            {
+                magWriter.add(mag);
+            }
+            catch(IOException e)
+            {
+                System.err.println(e.getMessage());
+                magWriter = null;
+            }
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public Stats getStats()
+    {
+        return stats;
+    }
+
+    public Observables getObservables()
+    {
+        return observables;
+    }
+
+    public double getAcceptRate()
+    {
+        return (double) acceptance/(double) moves;
+    }
+
+    public double getSweepRate()
+    {
+        return sweepRate;
+    }
+}
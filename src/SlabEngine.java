@@ -0,0 +1,64 @@
+// FILE: SlabEngine.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Multi-spin coded checkerboard Metropolis sweeps of a distributed lattice (see SlabLattice), each slab updated by its
+// own worker process.  The outcome depends only on the seed and the number of slabs.  One step is one full
+// sweep of the lattice.
+public class SlabEngine implements Engine
+{
+    private final SlabLattice lattice;
+    private final int N;
+    private long moves = 0;
+
+    //
+    // Constructor.
+    //
+    public SlabEngine(SlabLattice lattice)
+    {
+        this.lattice = lattice;
+        this.N = lattice.getN();
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long step()
+    {
+        long accepted = lattice.sweep();
+        moves += (long) N*N;
+        return accepted;
+    }
+
+    @Override
+    public long getMoves()
+    {
+        return moves;
+    }
+
+    // The state of a distributed run is spread over the workers, and is not checkpointed.
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        throw new UnsupportedOperationException("Distributed runs cannot be checkpointed.");
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        throw new UnsupportedOperationException("Distributed runs cannot be checkpointed.");
+    }
+
+    // Gather the final lattice from the workers and stop them.
+    @Override
+    public void close()
+    {
+        lattice.close();
+    }
+}
@@ -0,0 +1,421 @@
+// FILE: SlabLattice.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.channels.Channels;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+// The lattice of a distributed run (-slabs=K), split into K slabs of consecutive rows, each held and updated by a
+// worker process (see SlabWorker).  This process is the coordinator: it hands out the slabs, orders the sweeps, and
+// keeps the running totals the workers report after each one, so the magnetization and energy are always at hand.
+// The spins themselves are gathered from the workers only when asked for, e.g. for a snapshot or the state file,
+// and the copy is kept until the next sweep.  The final lattice is gathered before the workers are stopped.
+//
+// Without -slabport the coordinator starts the workers itself, as JVMs on this machine with the same class path and
+// JVM options.  With -slabport=<PORT> it waits for K workers started by hand, e.g. on other machines, with
+// java Ising -worker=<HOST>:<PORT>; ranks follow the order in which they connect.
+public class SlabLattice implements Magnet
+{
+    private final double Tc = 2.26918;
+    private final Rng rng;
+    private final int N;
+    private final double T;
+    private final double h;
+    private final boolean debug;
+    private final List<Process> processes = new ArrayList<>();
+    private final SocketChannel[] channels;
+    private final DataInputStream[] in;
+    private final DataOutputStream[] out;
+    private final int[] slabStart;
+    private SpinState spins; // Gathered from the workers; null when out of date.
+    private boolean stopped = false;
+
+    // Running totals, the sums of those of the slabs.
+    private long magSum;
+    private long bondSum;
+
+    //
+    // Constructor.
+    //
+    public SlabLattice(Communicator comms, double T, Rng rng)
+    {
+        this.N = comms.getN();
+        this.T = T;
+        this.h = comms.getH();
+        this.debug = comms.isDebug();
+        this.rng = rng;
+        int slabs = comms.getSlabs();
+        channels = new SocketChannel[slabs];
+        in = new DataInputStream[slabs];
+        out = new DataOutputStream[slabs];
+        slabStart = new int[slabs + 1];
+        for (int s = 0; s <= slabs; s++)
+        {
+            slabStart[s] = (int) ((long) s*N/slabs);
+        }
+
+        try(ServerSocketChannel server = ServerSocketChannel.open()
+                .bind(new InetSocketAddress(comms.getSlabPort()), slabs))
+        {
+            int port = ((InetSocketAddress) server.getLocalAddress()).getPort();
+            if (comms.getSlabPort() == 0)
+            {
+                launchWorkers(slabs, port);
+                server.configureBlocking(false);
+            }
+            else
+            {
+                comms.informWorkers("Waiting for " + slabs + " workers: java Ising -worker=<HOST>:" + port);
+            }
+
+            // Each worker reports the port its neighbor above should connect to.
+            String[] haloHost = new String[slabs];
+            int[] haloPort = new int[slabs];
+            for (int s = 0; s < slabs; s++)
+            {
+                channels[s] = accept(server);
+                in[s] = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channels[s])));
+                out[s] = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channels[s])));
+                haloHost[s] = ((InetSocketAddress) channels[s].getRemoteAddress()).getAddress().getHostAddress();
+                haloPort[s] = in[s].readInt();
+            }
+
+            boolean loadState = comms.isLoadState();
+            long[] row = new long[(N + 63) >>> 6];
+            for (int s = 0; s < slabs; s++)
+            {
+                int below = (s + 1) % slabs;
+                out[s].writeInt(s);
+                out[s].writeInt(N);
+                out[s].writeDouble(T);
+                out[s].writeDouble(h);
+                out[s].writeUTF(comms.getRngName());
+                out[s].writeLong(comms.getSeed());
+                out[s].writeInt(slabStart[s]);
+                out[s].writeInt(slabStart[s+1] - slabStart[s]);
+                out[s].writeUTF(haloHost[below]);
+                out[s].writeInt(haloPort[below]);
+                out[s].writeBoolean(loadState);
+                if (loadState)
+                {
+                    for (int i = slabStart[s]; i < slabStart[s+1]; i++)
+                    {
+                        comms.getState().getRow(i, row);
+                        for (long word : row)
+                        {
+                            out[s].writeLong(word);
+                        }
+                    }
+                }
+                out[s].flush();
+            }
+            for (int s = 0; s < slabs; s++)
+            {
+                magSum += in[s].readLong();
+                bondSum += in[s].readLong();
+            }
+        }
+        catch(IOException e)
+        {
+            stop();
+            throw new UncheckedIOException("Workers cannot be set up", e);
+        }
+
+        if (!comms.isLoadState())
+        {
+            comms.informInitialCondition(T >= Tc ? "T = inf" : "T = 0");
+        }
+        comms.informWorkers(slabs + " workers connected.");
+    }
+
+    //
+    // Public methods.
+    //
+
+    // One checkerboard sweep on every slab at once.  Returns the accepted flips.
+    public long sweep()
+    {
+        spins = null;
+        long accepted = 0;
+        try
+        {
+            command(SlabWorker.SWEEP);
+            long mag = 0;
+            long bonds = 0;
+            for (DataInputStream reply : in)
+            {
+                mag += reply.readLong();
+                bonds += reply.readLong();
+                accepted += reply.readLong();
+            }
+            magSum = mag;
+            bondSum = bonds;
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Lost a worker", e);
+        }
+        return accepted;
+    }
+
+    // Gather the final lattice and stop the workers.
+    public void close()
+    {
+        if (!stopped)
+        {
+            gather();
+            stop();
+        }
+    }
+
+    @Override
+    public int getSpin(int i, int j)
+    {
+        return gather().getSpin(i, j);
+    }
+
+    @Override
+    public void getRow(int i, long[] row)
+    {
+        gather().getRow(i, row);
+    }
+
+    @Override
+    public double getMag()
+    {
+        if (debug)
+        {
+            checkTotals();
+        }
+        return (double) magSum /((double) N * (double) N);
+    }
+
+    @Override
+    public double getEnergy()
+    {
+        if (debug)
+        {
+            checkTotals();
+        }
+        return (-(double) bondSum - h*(double) magSum) /((double) N * (double) N);
+    }
+
+    // Have the workers recount their slabs.
+    @Override
+    public void checkTotals()
+    {
+        if (stopped)
+        {
+            return;
+        }
+        long mag = 0;
+        long bonds = 0;
+        try
+        {
+            command(SlabWorker.RECOUNT);
+            for (DataInputStream reply : in)
+            {
+                mag += reply.readLong();
+                bonds += reply.readLong();
+            }
+        }
+        catch(IOException e)
+        {
+            throw new UncheckedIOException("Lost a worker", e);
+        }
+        if (mag != magSum || bonds != bondSum)
+        {
+            throw new IllegalStateException("Running totals (M = " + magSum + ", bonds = " + bondSum
+                    + ") do not match the lattice (M = " + mag + ", bonds = " + bonds + ").");
+        }
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Start the workers as JVMs on this machine, with the options this one was started with.
+    private void launchWorkers(int slabs, int port) throws IOException
+    {
+        List<String> command = new ArrayList<>();
+        command.add(Paths.get(System.getProperty("java.home"), "bin", "java").toString());
+        command.addAll(ManagementFactory.getRuntimeMXBean().getInputArguments());
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add("Ising");
+        command.add("-worker=localhost:" + port);
+        for (int s = 0; s < slabs; s++)
+        {
+            processes.add(new ProcessBuilder(command).inheritIO().start());
+        }
+    }
+
+    // The next worker to connect.  While workers started here are pending, the server is polled, so that a worker
+    // failing to start ends the wait.
+    private SocketChannel accept(ServerSocketChannel server) throws IOException
+    {
+        SocketChannel channel;
+        while ((channel = server.accept()) == null)
+        {
+            for (Process process : processes)
+            {
+                if (!process.isAlive())
+                {
+                    throw new IOException("A worker exited with status " + process.exitValue() + ".");
+                }
+            }
+            try
+            {
+                Thread.sleep(10);
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for workers.");
+            }
+        }
+        return channel;
+    }
+
+    private void command(int command) throws IOException
+    {
+        for (DataOutputStream request : out)
+        {
+            request.write(command);
+            request.flush();
+        }
+    }
+
+    // The lattice as it is now, gathered from the workers unless it already has been since the last sweep.
+    private synchronized SpinState gather()
+    {
+        if (spins == null)
+        {
+            SpinState gathered = new SpinState(N);
+            long[] row = new long[(N + 63) >>> 6];
+            try
+            {
+                command(SlabWorker.ROWS);
+                for (int s = 0; s < in.length; s++)
+                {
+                    for (int i = slabStart[s]; i < slabStart[s+1]; i++)
+                    {
+                        for (int w = 0; w < row.length; w++)
+                        {
+                            row[w] = in[s].readLong();
+                        }
+                        gathered.setRow(i, row);
+                    }
+                }
+            }
+            catch(IOException e)
+            {
+                throw new UncheckedIOException("Lost a worker", e);
+            }
+            spins = gathered;
+        }
+        return spins;
+    }
+
+    // Tell the workers to exit, and wait for those started here.
+    private void stop()
+    {
+        stopped = true;
+        for (int s = 0; s < channels.length; s++)
+        {
+            try
+            {
+                if (out[s] != null)
+                {
+                    out[s].write(SlabWorker.STOP);
+                    out[s].flush();
+                }
+                if (channels[s] != null)
+                {
+                    channels[s].close();
+                }
+            }
+            catch(IOException e)
+            {
+                System.err.println(e.getMessage());
+            }
+        }
+        for (Process process : processes)
+        {
+            try
+            {
+                process.waitFor();
+            }
+            catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                process.destroy();
+            }
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    @Override
+    public int getN()
+    {
+        return N;
+    }
+
+    @Override
+    public Rng getRng()
+    {
+        return rng;
+    }
+
+    @Override
+    public double getT()
+    {
+        return T;
+    }
+
+    @Override
+    public double getH()
+    {
+        return h;
+    }
+
+    @Override
+    public long getMagSum()
+    {
+        return magSum;
+    }
+
+    @Override
+    public long getBondSum()
+    {
+        return bondSum;
+    }
+
+    // The temperature and field are fixed for the workers at the start of the run.
+    @Override
+    public void setT(double T)
+    {
+        throw new UnsupportedOperationException("The temperature of a distributed run is fixed.");
+    }
+
+    @Override
+    public void setH(double h)
+    {
+        throw new UnsupportedOperationException("The field of a distributed run is fixed.");
+    }
+}
@@ -0,0 +1,373 @@
+// FILE: SlabWorker.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+
+// One worker process of a distributed run (see SlabLattice), started with java Ising -worker=<HOST>:<PORT>.  The
+// worker owns a slab of consecutive rows of the lattice, with a ghost row above and below holding the last row of
+// the slab above and the first row of the slab below, periodically.  The rows are packed one bit per spin into
+// half-rows of even and odd columns, as in PackedSpins, so each of K workers needs about N^2/(8K) bytes for its
+// share of the lattice.  It updates the slab with multi-spin coded checkerboard sweeps through a MultiSpinKernel, and
+// before each half-sweep swaps its edge rows with the neighboring workers, so the ghost rows are current for the
+// color about to be updated.
+//
+// The coordinator drives the worker over one connection with single-byte commands; the edge rows travel over direct
+// connections to the neighbors, as their packed half-rows, through direct buffers on non-blocking channels, which
+// lets both directions proceed at once whatever the row length.  Rows sent to or from the coordinator are in the
+// layout of a state file.
+public class SlabWorker
+{
+    // Commands from the coordinator.
+    static final int SWEEP = 1; // One sweep; replies with the sum of spins, the bond sum and the accepted flips.
+    static final int RECOUNT = 2; // Replies with the sum of spins and the bond sum, recounted.
+    static final int ROWS = 3; // Replies with the rows of the slab, packed.
+    static final int STOP = 4;
+
+    private static final long EVEN = 0x5555555555555555L; // Bits of the even columns of a state file word.
+    private static final long ODD = 0xAAAAAAAAAAAAAAAAL;
+    private final double Tc = 2.26918;
+    private final String host;
+    private final int port;
+    private int N;
+    private int R; // Words per row in the layout of a state file.
+    private int W; // Words per half-row.
+    private long lastMask; // Valid bits of the last word of a half-row.
+    private int first; // Global index of the first row of the slab.
+    private int rows;
+    private long[] state; // Half-row (i, p) at (2i+p)*W: rows of the slab at 1 .. rows, ghost rows at 0 and rows + 1.
+    private Rng rng;
+    private MultiSpinKernel kernel;
+    private final long[] totals = new long[3]; // Sum of spins, bond sum, and accepted flips of the current sweep.
+    private SocketChannel up; // To the worker of the slab above.
+    private SocketChannel down; // To the worker of the slab below.
+    private Selector selector;
+    private ByteBuffer toUp;
+    private ByteBuffer toDown;
+    private ByteBuffer fromUp;
+    private ByteBuffer fromDown;
+    private long[] packed;
+
+    //
+    // Constructor.
+    //
+    public SlabWorker(String address)
+    {
+        int colon = address.lastIndexOf(':');
+        if (colon < 0)
+        {
+            throw new IllegalArgumentException("Worker address must be <HOST>:<PORT>: " + address);
+        }
+        host = address.substring(0, colon);
+        port = Integer.parseInt(address.substring(colon + 1));
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Join the coordinator and serve its commands until it stops the run.
+    public void run()
+    {
+        try(SocketChannel control = SocketChannel.open(new InetSocketAddress(host, port));
+            ServerSocketChannel haloServer = ServerSocketChannel.open().bind(new InetSocketAddress(0)))
+        {
+            DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(control)));
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(control)));
+            out.writeInt(((InetSocketAddress) haloServer.getLocalAddress()).getPort());
+            out.flush();
+            setUp(in, haloServer);
+
+            exchange();
+            recount();
+            out.writeLong(totals[0]);
+            out.writeLong(totals[1]);
+            out.flush();
+
+            while (true)
+            {
+                int command = in.read();
+                if (command == SWEEP)
+                {
+                    totals[2] = 0;
+                    for (int color = 0; color < 2; color++)
+                    {
+                        exchange();
+                        for (int i = 1; i <= rows; i++)
+                        {
+                            // Column parity of this color in the row, as in MultiSpinEngine.
+                            int p = (first + i - 1 + color) & 1;
+                            kernel.update(state, halfRow(i, p), halfRow(i - 1, p), halfRow(i + 1, p),
+                                    halfRow(i, 1 - p), p, rng, totals);
+                        }
+                    }
+                    out.writeLong(totals[0]);
+                    out.writeLong(totals[1]);
+                    out.writeLong(totals[2]);
+                }
+                else if (command == RECOUNT)
+                {
+                    exchange();
+                    long mag = totals[0];
+                    long bonds = totals[1];
+                    recount();
+                    out.writeLong(totals[0]);
+                    out.writeLong(totals[1]);
+                    totals[0] = mag;
+                    totals[1] = bonds;
+                }
+                else if (command == ROWS)
+                {
+                    for (int i = 1; i <= rows; i++)
+                    {
+                        interleave(i);
+                        for (int w = 0; w < R; w++)
+                        {
+                            out.writeLong(packed[w]);
+                        }
+                    }
+                }
+                else if (command == STOP || command < 0)
+                {
+                    break;
+                }
+                else
+                {
+                    throw new IOException("Unknown command from the coordinator: " + command);
+                }
+                out.flush();
+            }
+        }
+        catch(IOException e)
+        {
+            System.err.println("Worker failed: " + e.getMessage());
+        }
+        finally
+        {
+            closeHalo();
+        }
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Receive the parameters and the slab from the coordinator, and connect to the neighbors.  Every worker first
+    // connects to the one below, which the operating system completes before that worker accepts it, and then
+    // accepts the one above.
+    private void setUp(DataInputStream in, ServerSocketChannel haloServer) throws IOException
+    {
+        int rank = in.readInt();
+        N = in.readInt();
+        double T = in.readDouble();
+        double h = in.readDouble();
+        String rngName = in.readUTF();
+        long seed = in.readLong();
+        first = in.readInt();
+        rows = in.readInt();
+        String downHost = in.readUTF();
+        int downPort = in.readInt();
+        boolean loadState = in.readBoolean();
+
+        R = (N + 63) >>> 6;
+        W = PackedSpins.words(N);
+        lastMask = PackedSpins.lastMask(N);
+        packed = new long[2*W];
+        Rng base = Rng.create(rngName, seed);
+        rng = base.split();
+        for (int r = 0; r < rank; r++)
+        {
+            rng = base.split();
+        }
+        state = new long[2*(rows + 2)*W];
+        for (int i = 1; i <= rows; i++)
+        {
+            if (loadState)
+            {
+                for (int w = 0; w < R; w++)
+                {
+                    packed[w] = in.readLong();
+                }
+                split(i);
+            }
+            else if (T >= Tc || h >= 0)
+            {
+                // Both half-rows of the row, random or all spins up; the array is already all spins down otherwise.
+                for (int w = 0; w < 2*W; w++)
+                {
+                    long valid = w % W == W-1 ? lastMask : -1L;
+                    state[halfRow(i, 0) + w] = T >= Tc ? rng.nextLong() & valid : valid;
+                }
+            }
+        }
+
+        long[] acceptThreshold = new long[10];
+        Spins.makeAcceptTable(acceptThreshold, T, h);
+        kernel = new MultiSpinKernel(W, lastMask, acceptThreshold);
+
+        down = SocketChannel.open(new InetSocketAddress(downHost, downPort));
+        up = haloServer.accept();
+        selector = Selector.open();
+        for (SocketChannel channel : new SocketChannel[] {up, down})
+        {
+            channel.configureBlocking(false);
+            channel.register(selector, 0);
+        }
+        toUp = ByteBuffer.allocateDirect(16*W).order(ByteOrder.LITTLE_ENDIAN);
+        toDown = ByteBuffer.allocateDirect(16*W).order(ByteOrder.LITTLE_ENDIAN);
+        fromUp = ByteBuffer.allocateDirect(16*W).order(ByteOrder.LITTLE_ENDIAN);
+        fromDown = ByteBuffer.allocateDirect(16*W).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    // Send the first row of the slab up and the last row down, and receive the ghost rows in their place.
+    private void exchange() throws IOException
+    {
+        put(1, toUp);
+        put(rows, toDown);
+        fromUp.clear();
+        fromDown.clear();
+        SelectionKey upKey = up.keyFor(selector);
+        SelectionKey downKey = down.keyFor(selector);
+        while (toUp.hasRemaining() || toDown.hasRemaining() || fromUp.hasRemaining() || fromDown.hasRemaining())
+        {
+            upKey.interestOps((toUp.hasRemaining() ? SelectionKey.OP_WRITE : 0)
+                    | (fromUp.hasRemaining() ? SelectionKey.OP_READ : 0));
+            downKey.interestOps((toDown.hasRemaining() ? SelectionKey.OP_WRITE : 0)
+                    | (fromDown.hasRemaining() ? SelectionKey.OP_READ : 0));
+            selector.select();
+            selector.selectedKeys().clear();
+            transfer(up, toUp, fromUp);
+            transfer(down, toDown, fromDown);
+        }
+        get(fromUp, 0);
+        get(fromDown, rows + 1);
+    }
+
+    // Move as much as the channel takes or offers without blocking.
+    private static void transfer(SocketChannel channel, ByteBuffer send, ByteBuffer receive) throws IOException
+    {
+        if (send.hasRemaining())
+        {
+            channel.write(send);
+        }
+        if (receive.hasRemaining() && channel.read(receive) < 0)
+        {
+            throw new EOFException("A neighboring worker closed its connection.");
+        }
+    }
+
+    // Interleave the half-rows of row i into packed, in the layout of a state file.
+    private void interleave(int i)
+    {
+        int even = halfRow(i, 0);
+        int odd = halfRow(i, 1);
+        for (int w = 0; w < W; w++)
+        {
+            packed[2*w] = Long.expand(state[even + w], EVEN) | Long.expand(state[odd + w], ODD);
+            if (2*w + 1 < R)
+            {
+                packed[2*w + 1] = Long.expand(state[even + w] >>> 32, EVEN) | Long.expand(state[odd + w] >>> 32, ODD);
+            }
+        }
+    }
+
+    // Split the row in packed, in the layout of a state file, into the half-rows of row i.
+    private void split(int i)
+    {
+        int even = halfRow(i, 0);
+        int odd = halfRow(i, 1);
+        if (R < 2*W)
+        {
+            packed[2*W - 1] = 0;
+        }
+        for (int w = 0; w < W; w++)
+        {
+            state[even + w] = Long.compress(packed[2*w], EVEN) | Long.compress(packed[2*w + 1], EVEN) << 32;
+            state[odd + w] = Long.compress(packed[2*w], ODD) | Long.compress(packed[2*w + 1], ODD) << 32;
+        }
+        state[even + W - 1] &= lastMask;
+        state[odd + W - 1] &= lastMask;
+    }
+
+    private void put(int i, ByteBuffer buffer)
+    {
+        buffer.clear();
+        buffer.asLongBuffer().put(state, halfRow(i, 0), 2*W);
+    }
+
+    private void get(ByteBuffer buffer, int i)
+    {
+        buffer.flip();
+        buffer.asLongBuffer().get(state, halfRow(i, 0), 2*W);
+    }
+
+    // Recompute the sum of spins and the bond sum of the slab a word at a time, as PackedSpins does, each bond
+    // counted via the right and down neighbors.  The ghost rows must be current.
+    private void recount()
+    {
+        int lastBit = 63 - Long.numberOfLeadingZeros(lastMask);
+        long up = 0;
+        long anti = 0;
+        for (int i = 1; i <= rows; i++)
+        {
+            int even = halfRow(i, 0);
+            int odd = halfRow(i, 1);
+            int nextEven = halfRow(i + 1, 0);
+            int nextOdd = halfRow(i + 1, 1);
+            for (int w = 0; w < W; w++)
+            {
+                // Even column k+1, periodically.
+                long evenNext = (state[even + w] >>> 1)
+                        | (w < W-1 ? state[even + w + 1] << 63 : (state[even] & 1) << lastBit);
+                up += Long.bitCount(state[even + w]) + Long.bitCount(state[odd + w]);
+                anti += Long.bitCount(state[even + w] ^ state[odd + w]) + Long.bitCount(state[odd + w] ^ evenNext)
+                        + Long.bitCount(state[even + w] ^ state[nextEven + w])
+                        + Long.bitCount(state[odd + w] ^ state[nextOdd + w]);
+            }
+        }
+        totals[0] = 2*up - (long) rows*N;
+        totals[1] = 2L*rows*N - 2*anti;
+    }
+
+    // Offset of half-row (i, p) of the slab in state.
+    private int halfRow(int i, int p)
+    {
+        return (2*i + p)*W;
+    }
+
+    private void closeHalo()
+    {
+        try
+        {
+            if (selector != null)
+            {
+                selector.close();
+            }
+            if (up != null)
+            {
+                up.close();
+            }
+            if (down != null)
+            {
+                down.close();
+            }
+        }
+        catch(IOException e)
+        {
+            System.err.println(e.getMessage());
+        }
+    }
+}
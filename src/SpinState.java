@@ -0,0 +1,388 @@
+// FILE: SpinState.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.FileReader;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+// A saved configuration of the magnet, one bit per spin (set for +1), each row packed into whole 64-bit words.
+//
+// Two file formats hold it.  The text format has one row per line, spins separated by spaces.  The binary format
+// has a HEADER_BYTES header, little-endian:
+//
+//   0  "ISINGSTA"     24  double h
+//   8  int version    32  long seed
+//  12  int N          40  long steps
+//  16  double T       48  long CRC32C of the spin words
+//
+// followed by the rows as little-endian words.  Binary files are read and written through memory maps.  A state read
+// from a binary file keeps the words in the map rather than copying them onto the heap, and a magnet is written one
+// row at a time, so large lattices are never held twice.  Reading tells the formats apart by the leading magic
+// bytes.
+public class SpinState
+{
+    public static final int HEADER_BYTES = 64;
+    private static final byte[] MAGIC = {'I', 'S', 'I', 'N', 'G', 'S', 'T', 'A'};
+    private static final int VERSION = 1;
+    private final int N;
+    private final int R; // Words per row.
+    private final LongBuffer words;
+    private double T = Double.NaN; // The rest is only known for states read from a binary file.
+    private double h = Double.NaN;
+    private long seed = 0;
+    private long steps = 0;
+
+    //
+    // Constructor.
+    //
+    public SpinState(int N)
+    {
+        this.N = N;
+        R = (N + 63) >>> 6;
+        words = LongBuffer.wrap(new long[N*R]);
+    }
+
+    private SpinState(int N, LongBuffer words)
+    {
+        this.N = N;
+        R = (N + 63) >>> 6;
+        this.words = words;
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Read a state file of either format.
+    public static SpinState read(String filename) throws IOException
+    {
+        try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.READ))
+        {
+            if (channel.size() >= HEADER_BYTES)
+            {
+                MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, MAGIC.length);
+                boolean binary = true;
+                for (int k = 0; k < MAGIC.length; k++)
+                {
+                    binary &= map.get(k) == MAGIC[k];
+                }
+                if (binary)
+                {
+                    return readBinary(channel);
+                }
+            }
+        }
+        return readText(filename);
+    }
+
+    // Write the state of a magnet in the binary format.
+    public static void writeBinary(String filename, Magnet magnet, double T, double h, long seed, long steps)
+            throws IOException
+    {
+        int N = magnet.getN();
+        int R = (N + 63) >>> 6;
+        long size = HEADER_BYTES + 8L*N*R;
+        if (size > Integer.MAX_VALUE)
+        {
+            throw new IOException("Lattice is too large for a state file.");
+        }
+        try(FileChannel channel = FileChannel.open(Paths.get(filename), StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING))
+        {
+            MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            map.order(ByteOrder.LITTLE_ENDIAN);
+            map.position(HEADER_BYTES);
+            LongBuffer rows = map.asLongBuffer();
+            long[] row = new long[R];
+            for (int i = 0; i < N; i++)
+            {
+                magnet.getRow(i, row);
+                rows.put(row);
+            }
+
+            CRC32C crc = new CRC32C();
+            crc.update(map.slice(HEADER_BYTES, (int) (size - HEADER_BYTES)));
+
+            map.put(0, MAGIC);
+            map.putInt(8, VERSION);
+            map.putInt(12, N);
+            map.putDouble(16, T);
+            map.putDouble(24, h);
+            map.putLong(32, seed);
+            map.putLong(40, steps);
+            map.putLong(48, crc.getValue());
+            map.force();
+        }
+    }
+
+    // Write the state of a magnet in the text format.
+    public static void writeText(String filename, Magnet magnet) throws IOException
+    {
+        int N = magnet.getN();
+        try(BufferedWriter writer = new BufferedWriter(new FileWriter(filename), 1 << 16))
+        {
+            char[] line = new char[3*N - 1];
+            for (int i = 0; i < N; i++)
+            {
+                int c = 0;
+                for (int j = 0; j < N; j++)
+                {
+                    if (j > 0)
+                    {
+                        line[c++] = ' ';
+                    }
+                    if (magnet.getSpin(i, j) < 0)
+                    {
+                        line[c++] = '-';
+                    }
+                    line[c++] = '1';
+                }
+                writer.write(line, 0, c);
+                writer.newLine();
+            }
+        }
+    }
+
+    // Copy the spins of a magnet.
+    public static SpinState of(Magnet magnet)
+    {
+        SpinState state = new SpinState(magnet.getN());
+        long[] row = new long[state.R];
+        for (int i = 0; i < state.N; i++)
+        {
+            magnet.getRow(i, row);
+            state.words.put(i*state.R, row);
+        }
+        return state;
+    }
+
+    // Write the spins, e.g. into a checkpoint.
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeInt(N);
+        for (int k = 0; k < N*R; k++)
+        {
+            out.writeLong(words.get(k));
+        }
+    }
+
+    // Read spins written by save.
+    public static SpinState restore(DataInput in) throws IOException
+    {
+        int N = in.readInt();
+        if (N <= 0)
+        {
+            throw new IOException("Invalid lattice size: " + N);
+        }
+        SpinState state = new SpinState(N);
+        for (int k = 0; k < state.N*state.R; k++)
+        {
+            state.words.put(k, in.readLong());
+        }
+        return state;
+    }
+
+    // Set spin (i, j) to +1 or -1.
+    public void setSpin(int i, int j, int spin)
+    {
+        int index = i*R + (j >>> 6);
+        long bit = 1L << j;
+        words.put(index, spin > 0 ? words.get(index) | bit : words.get(index) & ~bit);
+    }
+
+    // Set row i from (N + 63)/64 words packed as in the file.
+    public void setRow(int i, long[] row)
+    {
+        words.put(i*R, row, 0, R);
+    }
+
+    // Copy row i, packed as in the file, into (N + 63)/64 words.
+    public void getRow(int i, long[] row)
+    {
+        words.get(i*R, row, 0, R);
+    }
+
+    //
+    // Private methods.
+    //
+
+    private static SpinState readBinary(FileChannel channel) throws IOException
+    {
+        MappedByteBuffer map = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        map.order(ByteOrder.LITTLE_ENDIAN);
+        int version = map.getInt(8);
+        if (version != VERSION)
+        {
+            throw new IOException("Unsupported state file version: " + version);
+        }
+        int N = map.getInt(12);
+        if (N <= 0)
+        {
+            throw new IOException("State file has an invalid size: " + N);
+        }
+        long size = HEADER_BYTES + 8L*N*((N + 63) >>> 6);
+        if (channel.size() != size)
+        {
+            throw new IOException("State file has the wrong length for a " + N + "x" + N + " lattice.");
+        }
+
+        CRC32C crc = new CRC32C();
+        crc.update(map.slice(HEADER_BYTES, (int) (size - HEADER_BYTES)));
+        if (crc.getValue() != map.getLong(48))
+        {
+            throw new IOException("State file checksum does not match; the file is corrupt.");
+        }
+
+        SpinState state = new SpinState(N, map.slice(HEADER_BYTES, (int) (size - HEADER_BYTES))
+                .order(ByteOrder.LITTLE_ENDIAN).asLongBuffer());
+        state.T = map.getDouble(16);
+        state.h = map.getDouble(24);
+        state.seed = map.getLong(32);
+        state.steps = map.getLong(40);
+        return state;
+    }
+
+    // Parse the text format.  The size comes from the first line.
+    private static SpinState readText(String filename) throws IOException
+    {
+        try(BufferedReader reader = new BufferedReader(new FileReader(filename), 1 << 16))
+        {
+            String line = reader.readLine();
+            if (line == null)
+            {
+                throw new IOException("File is empty!");
+            }
+
+            SpinState state = new SpinState(countTokens(line));
+            int row = 0;
+            do
+            {
+                if (row >= state.N)
+                {
+                    throw new IOException("Numbers of rows and columns are not equal.");
+                }
+                state.parseRow(row++, line);
+            }
+            while ((line = reader.readLine()) != null);
+            if (row != state.N)
+            {
+                throw new IOException("Numbers of rows and columns are not equal.");
+            }
+            return state;
+        }
+    }
+
+    private static int countTokens(String line)
+    {
+        int count = 0;
+        boolean inToken = false;
+        for (int c = 0; c < line.length(); c++)
+        {
+            boolean space = line.charAt(c) == ' ';
+            if (!space && !inToken)
+            {
+                count++;
+            }
+            inToken = !space;
+        }
+        return count;
+    }
+
+    // Parse one row of spins, each "1", "+1" or "-1".
+    private void parseRow(int i, String line) throws IOException
+    {
+        int j = 0;
+        int c = 0;
+        int length = line.length();
+        while (c < length)
+        {
+            if (line.charAt(c) == ' ')
+            {
+                c++;
+                continue;
+            }
+            int start = c;
+            while (c < length && line.charAt(c) != ' ')
+            {
+                c++;
+            }
+            int spin;
+            if (c - start == 1 && line.charAt(start) == '1')
+            {
+                spin = 1;
+            }
+            else if (c - start == 2 && line.charAt(start + 1) == '1' && line.charAt(start) == '+')
+            {
+                spin = 1;
+            }
+            else if (c - start == 2 && line.charAt(start + 1) == '1' && line.charAt(start) == '-')
+            {
+                spin = -1;
+            }
+            else
+            {
+                throw new IOException("Invalid spin in row " + i + ": " + line.substring(start, c));
+            }
+            if (j >= N)
+            {
+                throw new IOException("Numbers of rows and columns are not equal.");
+            }
+            setSpin(i, j++, spin);
+        }
+        if (j != N)
+        {
+            throw new IOException("Numbers of rows and columns are not equal.");
+        }
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    public int getN()
+    {
+        return N;
+    }
+
+    public int getSpin(int i, int j)
+    {
+        return (int) ((words.get(i*R + (j >>> 6)) >>> j) & 1L)*2 - 1;
+    }
+
+    public double getT()
+    {
+        return T;
+    }
+
+    public double getH()
+    {
+        return h;
+    }
+
+    public long getSeed()
+    {
+        return seed;
+    }
+
+    public long getSteps()
+    {
+        return steps;
+    }
+
+    public void setSteps(long steps)
+    {
+        this.steps = steps;
+    }
+}
@@ -2,37 +2,67 @@
 // DATE: May 11, 2025
 // AUTHOR: Timothy Prisk; tprisk@gmail.com
 
-import java.util.Random;
-
-public class Spins
+public class Spins implements Magnet
 {
     private final double Tc = 2.26918;
-    private final Random spinSetter = new Random();
-    private final Random randomIndex = new Random();
+    private final Rng rng;
     private int[][] state;
     private int N;
     private double T;
     private double h;
+    private boolean debug;
+
+    // Running totals, updated whenever a flip is accepted: the sum of all spins and the sum of s_i*s_j over
+    // nearest-neighbor bonds.  The total energy is -bondSum - h*magSum.
+    private long magSum;
+    private long bondSum;
+
+    // Acceptance probabilities, scaled to 53-bit integers, for each (spin, neighbor sum) combination.
+    static final long ALWAYS = 1L << 53;
+    private final long[] acceptThreshold = new long[10];
+
+    // Periodic neighbor indices, so the hot path avoids the modulo operator.
+    private int[] next;
+    private int[] prev;
 
     //
-    // Constructor.
+    // Constructors.
     //
     public Spins(Communicator comms)
+    {
+        this(comms, comms.getT(), Rng.create(comms.getRngName(), comms.getSeed()));
+    }
+
+    // A magnet at temperature T driven by the given generator, e.g. one of several replicas.
+    public Spins(Communicator comms, double T, Rng rng)
     {
         this.N = comms.getN();
-        this.T = comms.getT();
+        this.T = T;
         this.h = comms.getH();
+        this.debug = comms.isDebug();
+        this.rng = rng;
 
         state = new int[N][N];
 
         if (comms.isLoadState())
         {
-            state = comms.getState();
+            SpinState initial = comms.getState();
+            for (int i = 0; i < N; i++)
+            {
+                for (int j = 0; j < N; j++)
+                {
+                    state[i][j] = initial.getSpin(i, j);
+                }
+            }
         }
         else
         {
-            makeState(N, T, h);
+            makeState(comms, N, T, h);
         }
+
+        makeNeighbors();
+        makeAcceptTable();
+        recount();
     }
 
     //
@@ -43,62 +73,68 @@ public class Spins
     public boolean tryMove()
     {
         // Choose a spin at random.
-        int i = randomIndex.nextInt(N);
-        int j = randomIndex.nextInt(N);
+        int i = rng.nextInt(N);
+        int j = rng.nextInt(N);
 
-        // Calculate the change in system energy.
-        double deltaE = getEnergyChange(i, j);
+        // Look up the acceptance probability for this spin and its neighbors.
+        int[] row = state[i];
+        int spin = row[j];
+        int sum = state[next[i]][j] + state[prev[i]][j] + row[next[j]] + row[prev[j]];
+        long threshold = acceptThreshold[tableIndex(spin, sum)];
 
-        boolean moveAccepted;
-        // If the delta-E is less than or equal to 0, then accept the move.
-        if (deltaE <= 0)
+        // If delta-E is less than or equal to 0, then accept the move.  Otherwise accept it with a
+        // probability exp(-deltaE/T), comparing a 53-bit random integer against the scaled threshold.
+        if (threshold == ALWAYS || (rng.nextLong() >>> 11) < threshold)
         {
-            state[i][j] *= -1;
-            moveAccepted = true;
+            row[j] = -spin;
+            magSum -= 2*spin;
+            bondSum -= 2*spin*sum;
+            return true;
         }
+        return false;
+    }
 
-        // If delta-E is greater than 0, then accept the move with a probability exp(-deltaE/T).
-        else
+    // Magnetization per spin in the current state.
+    @Override
+    public double getMag()
+    {
+        if (debug)
         {
-            double dblDeltaE = (double) deltaE;
-            double acceptRatio = Math.exp(-1.0*dblDeltaE/T);
-            double choice = Math.random();
-
-            if (choice < acceptRatio)
-            {
-                state[i][j] *= -1;
-                moveAccepted = true;
-            }
-            else
-            {
-                moveAccepted = false;
-            }
+            checkTotals();
         }
+        return (double) magSum /((double) N * (double) N);
+    }
 
-        return moveAccepted;
+    // Energy per spin in the current state.
+    @Override
+    public double getEnergy()
+    {
+        if (debug)
+        {
+            checkTotals();
+        }
+        return (-(double) bondSum - h*(double) magSum) /((double) N * (double) N);
     }
 
-    // Magnetization per spin in the current state.
-    public double getMag()
+    // Compare the running totals against a full recount of the lattice.
+    @Override
+    public void checkTotals()
     {
-        int mag = 0;
-        int N = this.state.length;
-        for (int i = 0; i < N; i++)
+        long trackedMag = magSum;
+        long trackedBond = bondSum;
+        recount();
+        if (trackedMag != magSum || trackedBond != bondSum)
         {
-            for (int j = 0; j < N; j++)
-            {
-                mag += state[i][j];
-            }
+            throw new IllegalStateException("Running totals (M = " + trackedMag + ", bonds = " + trackedBond
+                    + ") do not match the lattice (M = " + magSum + ", bonds = " + bondSum + ").");
         }
-        double dblMag = (double) mag;
-        return dblMag /((double) N * (double) N);
     }
 
 
     //
     // Private methods.
     //
-    private void makeState(int N, double T, double h)
+    private void makeState(Communicator comms, int N, double T, double h)
     {
         if (T >= Tc)
         {
@@ -109,7 +145,7 @@ public class Spins
                     state[i][j] = generateRandomSpin();
                 }
             }
-            System.out.println("The magnet is initialized at T = inf.");
+            comms.informInitialCondition("T = inf");
         }
 
         if (T < Tc && h >= 0)
@@ -121,7 +157,7 @@ public class Spins
                     state[i][j] = +1;
                 }
             }
-            System.out.println("The magnet is initialized at T = 0.");
+            comms.informInitialCondition("T = 0");
         }
 
         if (T < Tc && h < 0)
@@ -133,14 +169,14 @@ public class Spins
                     state[i][j] = -1;
                 }
             }
-            System.out.println("The magnet is initialized at T = 0.");
+            comms.informInitialCondition("T = 0");
         }
     }
 
     // Randomly choose +1 or -1.
     private int generateRandomSpin()
     {
-        int rand = spinSetter.nextInt(2);
+        int rand = rng.nextInt(2);
         if (rand == 0)
         {
             return -1;
@@ -149,29 +185,86 @@ public class Spins
     }
 
     // Determine the change in system energy when spin (i, j) is flipped.
-    private double getEnergyChange(int i, int j)
+    double getEnergyChange(int i, int j)
     {
-        int deltaEint = 0;
-        double deltaEext = 0;
+        return calcEnergyChange(state[i][j], getNeighborSum(i, j), h);
+    }
 
+    // Determine the change in system energy when a spin with the given neighbor sum is flipped.
+    static double calcEnergyChange(int spin, int sum, double h)
+    {
         // Change in internal energy (i.e. from nearest neighbor interactions).
-        int neighbor1 = state[(i+1)%N][j];
-        int neighbor2 = state[(i+N-1)%N][j];
-        int neighbor3 = state[i][(j+1)%N];
-        int neighbor4 = state[i][(j+N-1)%N];
-        deltaEint = 2*state[i][j]*(neighbor1 + neighbor2 + neighbor3 + neighbor4); // internal interactions
+        int deltaEint = 2*spin*sum;
 
         // Change in external energy (i.e. from external magnetic field).
-        if (state[i][j] == +1)
+        double deltaEext = 2.0*h*spin;
+
+        return (double) deltaEint + deltaEext;
+    }
+
+    // Sum of the four nearest neighbors of spin (i, j), with periodic boundary conditions.
+    private int getNeighborSum(int i, int j)
+    {
+        return state[next[i]][j] + state[prev[i]][j] + state[i][next[j]] + state[i][prev[j]];
+    }
+
+    // Recompute the running totals from scratch.  Each bond is counted once via the right and down neighbors.
+    private void recount()
+    {
+        long mag = 0;
+        long bonds = 0;
+        for (int i = 0; i < N; i++)
+        {
+            for (int j = 0; j < N; j++)
+            {
+                mag += state[i][j];
+                bonds += state[i][j]*(state[next[i]][j] + state[i][next[j]]);
+            }
+        }
+        magSum = mag;
+        bondSum = bonds;
+    }
+
+    // Precompute the periodic neighbor indices.
+    private void makeNeighbors()
+    {
+        next = new int[N];
+        prev = new int[N];
+        for (int i = 0; i < N; i++)
         {
-            deltaEext = +2.0*h;
+            next[i] = (i+1)%N;
+            prev[i] = (i+N-1)%N;
         }
-        if (state[i][j] == -1)
+    }
+
+    private void makeAcceptTable()
+    {
+        makeAcceptTable(acceptThreshold, T, h);
+    }
+
+    // Precompute the acceptance probability for each of the ten (spin, neighbor sum) combinations.
+    // This must be rebuilt whenever T or h changes.
+    static void makeAcceptTable(long[] acceptThreshold, double T, double h)
+    {
+        for (int spin = -1; spin <= +1; spin += 2)
         {
-            deltaEext = -2.0*h;
+            for (int sum = -4; sum <= 4; sum += 2)
+            {
+                double deltaE = calcEnergyChange(spin, sum, h);
+                long threshold = ALWAYS;
+                if (deltaE > 0)
+                {
+                    threshold = (long) (Math.exp(-1.0*deltaE/T) * ALWAYS);
+                }
+                acceptThreshold[tableIndex(spin, sum)] = threshold;
+            }
         }
+    }
 
-        return (double) deltaEint + deltaEext;
+    // Index into the acceptance table for spin = +/-1 and neighbor sum in {-4, -2, 0, 2, 4}.
+    static int tableIndex(int spin, int sum)
+    {
+        return ((spin + 1) >> 1)*5 + ((sum + 4) >> 1);
     }
 
     //
@@ -183,4 +276,87 @@ public class Spins
         return state;
     }
 
+    @Override
+    public int getSpin(int i, int j)
+    {
+        return state[i][j];
+    }
+
+    @Override
+    public int getN()
+    {
+        return N;
+    }
+
+    // The random number generator driving this magnet.  Parallel workers should split() their own streams from it.
+    @Override
+    public Rng getRng()
+    {
+        return rng;
+    }
+
+    @Override
+    public double getT()
+    {
+        return T;
+    }
+
+    @Override
+    public double getH()
+    {
+        return h;
+    }
+
+    // Sum of all spins.
+    @Override
+    public long getMagSum()
+    {
+        return magSum;
+    }
+
+    // Sum of s_i*s_j over all nearest-neighbor bonds.
+    @Override
+    public long getBondSum()
+    {
+        return bondSum;
+    }
+
+    // Shared with the update engines, which work on the lattice directly.
+    int[] getNext()
+    {
+        return next;
+    }
+
+    int[] getPrev()
+    {
+        return prev;
+    }
+
+    long[] getAcceptThresholds()
+    {
+        return acceptThreshold;
+    }
+
+    // Engines that flip spins directly report the resulting changes in the running totals here.
+    void addTotals(long dMag, long dBond)
+    {
+        magSum += dMag;
+        bondSum += dBond;
+    }
+
+    // Changing the temperature or field rebuilds the acceptance table.
+    @Override
+    public void setT(double T)
+    {
+        this.T = T;
+        makeAcceptTable();
+    }
+
+    @Override
+    public void setH(double h)
+    {
+        this.h = h;
+        makeAcceptTable();
+    }
+
 }
@@ -0,0 +1,83 @@
+// FILE: SplitMixRng.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// The SplitMix64 generator.  This produces the same sequence as java.util.SplittableRandom, but keeps its state
+// in plain fields so that it can be inspected and restored.
+public class SplitMixRng implements Rng
+{
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private long seed;
+    private long gamma;
+
+    //
+    // Constructors.
+    //
+    public SplitMixRng(long seed)
+    {
+        this(seed, GOLDEN_GAMMA);
+    }
+
+    private SplitMixRng(long seed, long gamma)
+    {
+        this.seed = seed;
+        this.gamma = gamma;
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long nextLong()
+    {
+        seed += gamma;
+        return mix64(seed);
+    }
+
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeLong(seed);
+        out.writeLong(gamma);
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        seed = in.readLong();
+        gamma = in.readLong();
+    }
+
+    @Override
+    public Rng split()
+    {
+        long childSeed = nextLong();
+        seed += gamma;
+        return new SplitMixRng(childSeed, mixGamma(seed));
+    }
+
+    //
+    // Private methods.
+    //
+
+    private static long mix64(long z)
+    {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    private static long mixGamma(long z)
+    {
+        z = (z ^ (z >>> 33)) * 0xff51afd7ed558ccdL;
+        z = (z ^ (z >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        z = (z ^ (z >>> 33)) | 1L;
+        int n = Long.bitCount(z ^ (z >>> 1));
+        return (n < 24) ? z ^ 0xaaaaaaaaaaaaaaaaL : z;
+    }
+}
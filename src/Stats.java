@@ -2,61 +2,159 @@
 // DATE: May 11, 2025
 // AUTHOR: Timothy Prisk; tprisk@gmail.com
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// Streaming statistics of the magnetization results.  Samples are added one at a time and folded into running
+// moments with Welford's method, so memory use does not depend on the number of samples.  Accumulators from
+// separate runs or threads can be merged.
+//
+// Successive Monte Carlo samples are correlated, so the naive standard error of the mean is too small.  A blocking
+// (binning) analysis after Flyvbjerg and Petersen runs alongside: level 0 holds the samples, and each level above
+// holds averages of adjacent pairs of blocks from the level below, i.e. blocks of 2^l samples.  Only one pending
+// block per level is kept, so memory grows as log2 of the number of samples.  The error estimate of a level rises
+// with the block size until the blocks are effectively independent and then levels off; the largest estimate among
+// levels with enough blocks to be trusted is reported.  The integrated autocorrelation time, in measurement steps,
+// follows from the ratio of the blocked to the naive variance of the mean.
 public class Stats
 {
-    private double[] results;
+    private static final int LEVELS = 64;
+    private static final int MIN_BLOCKS = 32; // Fewer blocks than this give too noisy an error estimate.
+    private final long[] count = new long[LEVELS];
+    private final double[] mean = new double[LEVELS];
+    private final double[] sqDiffSum = new double[LEVELS]; // Sum of squared deviations from the running mean.
+    private final double[] pending = new double[LEVELS]; // Block waiting for a partner at each level.
+    private final boolean[] hasPending = new boolean[LEVELS];
+    private double min = Double.POSITIVE_INFINITY;
+    private double max = Double.NEGATIVE_INFINITY;
 
     //
     // Constructor.
     //
-    Stats(double[] results)
+    Stats()
     {
-        this.results = results;
     }
 
     //
     // Public methods.
     //
 
+    // Add one sample.
+    public void add(double value)
+    {
+        addBlock(0, value);
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    // Fold the samples of another accumulator into this one (Chan et al.), level by level.  Pending blocks of the
+    // other accumulator are added as blocks of their level, pairing up with any pending blocks here.
+    public void merge(Stats other)
+    {
+        for (int l = 0; l < LEVELS; l++)
+        {
+            if (other.count[l] == 0)
+            {
+                continue;
+            }
+            long total = count[l] + other.count[l];
+            double delta = other.mean[l] - mean[l];
+            mean[l] += delta*other.count[l]/total;
+            sqDiffSum[l] += other.sqDiffSum[l] + delta*delta*((double) count[l]*other.count[l]/total);
+            count[l] = total;
+        }
+        for (int l = 0; l < LEVELS - 1; l++)
+        {
+            if (other.hasPending[l])
+            {
+                pairBlock(l, other.pending[l]);
+            }
+        }
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    // Write the accumulated state, e.g. for a checkpoint.
+    public void save(DataOutput out) throws IOException
+    {
+        for (int l = 0; l < LEVELS; l++)
+        {
+            out.writeLong(count[l]);
+            out.writeDouble(mean[l]);
+            out.writeDouble(sqDiffSum[l]);
+            out.writeDouble(pending[l]);
+            out.writeBoolean(hasPending[l]);
+        }
+        out.writeDouble(min);
+        out.writeDouble(max);
+    }
+
+    // Replace the accumulated state with one written by save.
+    public void restore(DataInput in) throws IOException
+    {
+        for (int l = 0; l < LEVELS; l++)
+        {
+            count[l] = in.readLong();
+            mean[l] = in.readDouble();
+            sqDiffSum[l] = in.readDouble();
+            pending[l] = in.readDouble();
+            hasPending[l] = in.readBoolean();
+        }
+        min = in.readDouble();
+        max = in.readDouble();
+    }
+
     // Print simulation results to the terminal.
     public void printOutcome()
     {
         // Calculate estimators for the magnetization and its statistical error.
-        double magEst = calcAvg(results);
-        double magErr = calcVar(results);
+        double magEst = getAvg();
+        double magErr = getVar();
 
         // Display statistics for the user.
         System.out.println("Average magnetization: " + magEst);
         System.out.println("Variance: " + magErr);
+        System.out.println("Standard error (binning): " + getError());
+        System.out.println("Integrated autocorrelation time: " + getTau());
     }
 
     //
     // Private methods.
     //
 
-    // Determine mean.
-    private double calcAvg(double[] values)
+    // Add a block to level l and pair it with the pending block of that level, if any.
+    private void addBlock(int l, double value)
     {
-        double sum = 0.0;
-        for (double val : values)
+        count[l]++;
+        double delta = value - mean[l];
+        mean[l] += delta/count[l];
+        sqDiffSum[l] += delta*(value - mean[l]);
+        if (l < LEVELS - 1)
         {
-            sum += val;
+            pairBlock(l, value);
         }
-        return sum/values.length;
     }
 
-    // Determine variance.
-    private double calcVar(double[] values)
+    // Pair a block of level l with the pending one, passing their average up a level, or leave it pending.
+    private void pairBlock(int l, double value)
     {
-        double mean = calcAvg(values);
-
-        double sqDiffSum = 0.0;
-        for (double val: values)
+        if (hasPending[l])
         {
-            sqDiffSum += (val - mean)*(val-mean);
+            hasPending[l] = false;
+            addBlock(l + 1, 0.5*(pending[l] + value));
         }
+        else
+        {
+            pending[l] = value;
+            hasPending[l] = true;
+        }
+    }
 
-        return sqDiffSum/(values.length-1);
+    // Variance of the mean estimated from the blocks of level l.
+    private double blockedVariance(int l)
+    {
+        return sqDiffSum[l]/(count[l] - 1)/count[l];
     }
 
     //
@@ -66,12 +164,74 @@ public class Stats
     // Return average.
     public double getAvg()
     {
-        return calcAvg(results);
+        return mean[0];
     }
 
-    // Return standard error in the mean.
+    // Return sample variance.
     public double getVar()
     {
-        return calcVar(results);
+        return sqDiffSum[0]/(count[0]-1);
+    }
+
+    // Return the standard error of the mean from the binning analysis.
+    public double getError()
+    {
+        double variance = blockedVariance(0);
+        for (int l = 1; l < LEVELS && count[l] >= MIN_BLOCKS; l++)
+        {
+            variance = Math.max(variance, blockedVariance(l));
+        }
+        return Math.sqrt(variance);
+    }
+
+    // Return the naive standard error of the mean, which assumes independent samples.
+    public double getNaiveError()
+    {
+        return Math.sqrt(blockedVariance(0));
+    }
+
+    // Return the integrated autocorrelation time in measurement steps.  Independent samples give 1/2.
+    public double getTau()
+    {
+        double error = getError();
+        double naive = getNaiveError();
+        return 0.5*(error*error)/(naive*naive);
+    }
+
+    // Number of binning levels with enough blocks for an error estimate.
+    public int getLevels()
+    {
+        int levels = 0;
+        while (levels < LEVELS && count[levels] >= MIN_BLOCKS)
+        {
+            levels++;
+        }
+        return levels;
+    }
+
+    // Return the standard error of the mean estimated at binning level l, with blocks of 2^l samples.
+    public double getError(int l)
+    {
+        return Math.sqrt(blockedVariance(l));
+    }
+
+    public long getBlocks(int l)
+    {
+        return count[l];
+    }
+
+    public double getMin()
+    {
+        return min;
+    }
+
+    public double getMax()
+    {
+        return max;
+    }
+
+    public long getCount()
+    {
+        return count[0];
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,448 @@
+// FILE: SwendsenWangEngine.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+// Swendsen-Wang multi-cluster updates.  Every sweep activates bonds between aligned neighbors with probability
+// 1 - exp(-2/T), labels all Fortuin-Kasteleyn clusters with a union-find (path halving, union by rank) on primitive
+// arrays, and sets each cluster to +1 or -1 by heat bath in the field, which is a flip with probability 1/2 at h = 0.
+// The lattice is split into strips of rows: bonds inside a strip are labeled in parallel, and the vertical bonds
+// between strips are merged afterwards.  One step is one sweep.  During measurement the distribution of cluster
+// sizes is accumulated.
+public class SwendsenWangEngine implements Engine
+{
+    private final Spins magnet;
+    private final int N;
+    private final int[][] state;
+    private final int[] next;
+    private final ForkJoinPool pool;
+    private final int[] stripStart;
+    private final Rng[] stripRng;
+    private final long[] stripMag;
+    private final long[] stripBond;
+    private final long[] stripFlipped;
+    private final int[] parent;
+    private final byte[] rank;
+    private final int[] label;
+    private final int[] size;
+    private final boolean[] flip;
+    private final boolean[] crossBond;
+    private long[] clusterSizes;
+    private double T;
+    private double h;
+    private long bondThreshold;
+    private final long[] fieldThreshold; // By cluster size, valid where fieldStamp matches stamp.
+    private final int[] fieldStamp;
+    private int stamp = 0; // Changes with T and h.
+    private long moves = 0;
+
+    // Phases of a sweep that run in parallel over strips.
+    private static final int BOND = 0;
+    private static final int LABEL = 1;
+    private static final int DECIDE = 2;
+    private static final int APPLY = 3;
+    private static final int COUNT = 4;
+
+    //
+    // Constructor.
+    //
+    public SwendsenWangEngine(Spins magnet, int threads)
+    {
+        this.magnet = magnet;
+        this.N = magnet.getN();
+        this.state = magnet.getState();
+        this.next = magnet.getNext();
+        this.pool = new ForkJoinPool(threads);
+
+        // Use a few strips per thread for load balancing.
+        int strips = Math.min(N, 4*threads);
+        stripStart = new int[strips + 1];
+        stripRng = new Rng[strips];
+        for (int s = 0; s < strips; s++)
+        {
+            stripStart[s] = (int) ((long) s*N/strips);
+            stripRng[s] = magnet.getRng().split();
+        }
+        stripStart[strips] = N;
+        stripMag = new long[strips];
+        stripBond = new long[strips];
+        stripFlipped = new long[strips];
+
+        parent = new int[N*N];
+        rank = new byte[N*N];
+        label = new int[N*N];
+        size = new int[N*N];
+        flip = new boolean[N*N];
+        crossBond = new boolean[strips*N];
+        fieldThreshold = new long[N*N + 1];
+        fieldStamp = new int[N*N + 1];
+        makeProbabilities();
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long step()
+    {
+        if (magnet.getT() != T || magnet.getH() != h)
+        {
+            makeProbabilities();
+        }
+
+        // Activate bonds and label clusters within each strip, then merge across strip boundaries.
+        runPhase(BOND);
+        for (int s = 0; s < stripRng.length; s++)
+        {
+            int a = stripStart[s+1] - 1;
+            int b = next[a];
+            for (int j = 0; j < N; j++)
+            {
+                if (crossBond[s*N + j])
+                {
+                    union(a*N + j, b*N + j);
+                }
+            }
+        }
+        runPhase(LABEL);
+
+        // Cluster sizes are needed for the field and for the size distribution.
+        if (h != 0 || clusterSizes != null)
+        {
+            countSizes();
+        }
+
+        // Decide and apply the new cluster values, then recount the totals.
+        runPhase(DECIDE);
+        runPhase(APPLY);
+        runPhase(COUNT);
+        long mag = 0;
+        long bonds = 0;
+        long flipped = 0;
+        for (int s = 0; s < stripRng.length; s++)
+        {
+            mag += stripMag[s];
+            bonds += stripBond[s];
+            flipped += stripFlipped[s];
+        }
+        magnet.addTotals(mag - magnet.getMagSum(), bonds - magnet.getBondSum());
+
+        moves += (long) N*N;
+        return flipped;
+    }
+
+    @Override
+    public long getMoves()
+    {
+        return moves;
+    }
+
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeLong(moves);
+        for (Rng rng : stripRng)
+        {
+            rng.save(out);
+        }
+        out.writeBoolean(clusterSizes != null);
+        if (clusterSizes != null)
+        {
+            for (long count : clusterSizes)
+            {
+                out.writeLong(count);
+            }
+        }
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        moves = in.readLong();
+        for (Rng rng : stripRng)
+        {
+            rng.restore(in);
+        }
+        if (in.readBoolean())
+        {
+            clusterSizes = new long[N*N + 1];
+            for (int k = 0; k < clusterSizes.length; k++)
+            {
+                clusterSizes[k] = in.readLong();
+            }
+        }
+    }
+
+    // Start accumulating the cluster size distribution.
+    @Override
+    public void beginMeasurement()
+    {
+        clusterSizes = new long[N*N + 1];
+    }
+
+    // Number of clusters of each size seen during measurement, indexed by size.
+    public long[] getClusterSizes()
+    {
+        return clusterSizes;
+    }
+
+    @Override
+    public void close()
+    {
+        pool.shutdown();
+    }
+
+    //
+    // Private methods.
+    //
+
+    private void runPhase(int phase)
+    {
+        pool.invoke(new Phase(phase, 0, stripRng.length));
+    }
+
+    private void runStrip(int phase, int s)
+    {
+        int from = stripStart[s]*N;
+        int to = stripStart[s+1]*N;
+        switch (phase)
+        {
+            case BOND:
+                activateBonds(s);
+                break;
+            case LABEL:
+                for (int x = from; x < to; x++)
+                {
+                    label[x] = root(x);
+                }
+                break;
+            case DECIDE:
+                decide(s, from, to);
+                break;
+            case APPLY:
+                long flipped = 0;
+                for (int x = from; x < to; x++)
+                {
+                    if (flip[label[x]])
+                    {
+                        state[x/N][x%N] *= -1;
+                        flipped++;
+                    }
+                }
+                stripFlipped[s] = flipped;
+                break;
+            case COUNT:
+                long mag = 0;
+                long bonds = 0;
+                for (int i = stripStart[s]; i < stripStart[s+1]; i++)
+                {
+                    int[] row = state[i];
+                    int[] down = state[next[i]];
+                    for (int j = 0; j < N; j++)
+                    {
+                        mag += row[j];
+                        bonds += row[j]*(down[j] + row[next[j]]);
+                    }
+                }
+                stripMag[s] = mag;
+                stripBond[s] = bonds;
+                break;
+        }
+    }
+
+    // Activate the bonds of a strip with its own random stream.  Horizontal bonds and vertical bonds inside the
+    // strip are joined immediately; vertical bonds from the last row into the next strip are only recorded.
+    private void activateBonds(int s)
+    {
+        Rng rng = stripRng[s];
+        int first = stripStart[s];
+        int last = stripStart[s+1] - 1;
+        for (int x = first*N; x < (last+1)*N; x++)
+        {
+            parent[x] = x;
+            rank[x] = 0;
+        }
+        for (int i = first; i <= last; i++)
+        {
+            int[] row = state[i];
+            int[] down = state[next[i]];
+            for (int j = 0; j < N; j++)
+            {
+                int spin = row[j];
+                if (row[next[j]] == spin && (rng.nextLong() >>> 11) < bondThreshold)
+                {
+                    union(i*N + j, i*N + next[j]);
+                }
+                boolean bond = down[j] == spin && (rng.nextLong() >>> 11) < bondThreshold;
+                if (i == last)
+                {
+                    crossBond[s*N + j] = bond;
+                }
+                else if (bond)
+                {
+                    union(i*N + j, (i+1)*N + j);
+                }
+            }
+        }
+    }
+
+    // Choose the new value of each cluster whose root lies in this strip.
+    private void decide(int s, int from, int to)
+    {
+        Rng rng = stripRng[s];
+        for (int x = from; x < to; x++)
+        {
+            if (label[x] == x)
+            {
+                if (h == 0)
+                {
+                    flip[x] = rng.nextLong() < 0;
+                }
+                else
+                {
+                    // Heat bath: the cluster becomes aligned with the field with probability
+                    // 1/(1 + exp(-2|h|*size/T)).
+                    boolean aligned = (rng.nextLong() >>> 11) < fieldThreshold[size[x]];
+                    int spin = state[x/N][x%N];
+                    boolean alignedNow = (h > 0) == (spin > 0);
+                    flip[x] = aligned != alignedNow;
+                }
+            }
+        }
+    }
+
+    // Count the size of every cluster at its root, add them to the distribution when measuring, and make the field
+    // thresholds missing for them.
+    private void countSizes()
+    {
+        for (int x = 0; x < N*N; x++)
+        {
+            if (label[x] == x)
+            {
+                size[x] = 0;
+            }
+        }
+        for (int x = 0; x < N*N; x++)
+        {
+            size[label[x]]++;
+        }
+        for (int x = 0; x < N*N; x++)
+        {
+            if (label[x] == x)
+            {
+                if (clusterSizes != null)
+                {
+                    clusterSizes[size[x]]++;
+                }
+                if (h != 0 && fieldStamp[size[x]] != stamp)
+                {
+                    makeFieldThreshold(size[x]);
+                }
+            }
+        }
+    }
+
+    // Find with path halving.  Only used while a single thread owns the sites involved.
+    private int find(int x)
+    {
+        while (parent[x] != x)
+        {
+            parent[x] = parent[parent[x]];
+            x = parent[x];
+        }
+        return x;
+    }
+
+    // Find without modifying the forest, safe to run from several threads at once.
+    private int root(int x)
+    {
+        while (parent[x] != x)
+        {
+            x = parent[x];
+        }
+        return x;
+    }
+
+    private void union(int x, int y)
+    {
+        x = find(x);
+        y = find(y);
+        if (x == y)
+        {
+            return;
+        }
+        if (rank[x] < rank[y])
+        {
+            parent[x] = y;
+        }
+        else if (rank[x] > rank[y])
+        {
+            parent[y] = x;
+        }
+        else
+        {
+            parent[y] = x;
+            rank[x]++;
+        }
+    }
+
+    // Bond probability as a 53-bit threshold, in the same scale as the acceptance table in Spins.  The field
+    // thresholds are only made for the cluster sizes that occur, as they occur, so a new T or h, e.g. after a
+    // replica exchange, only changes the stamp.
+    private void makeProbabilities()
+    {
+        T = magnet.getT();
+        h = magnet.getH();
+        bondThreshold = (long) (-Math.expm1(-2.0/T) * Spins.ALWAYS);
+        stamp++;
+        if (stamp == 0)
+        {
+            Arrays.fill(fieldStamp, 0);
+            stamp = 1;
+        }
+    }
+
+    // Field probability for a cluster of n spins.
+    private void makeFieldThreshold(int n)
+    {
+        fieldThreshold[n] = (long) (Spins.ALWAYS/(1.0 + Math.exp(-2.0*Math.abs(h)*n/T)));
+        fieldStamp[n] = stamp;
+    }
+
+    // Recursively split a range of strips across the pool.
+    private class Phase extends RecursiveAction
+    {
+        private static final long serialVersionUID = 1L;
+        private final int phase;
+        private final int from;
+        private final int to;
+
+        Phase(int phase, int from, int to)
+        {
+            this.phase = phase;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute()
+        {
+            if (to - from == 1)
+            {
+                runStrip(phase, from);
+            }
+            else
+            {
+                int mid = (from + to) >>> 1;
+                invokeAll(new Phase(phase, from, mid), new Phase(phase, mid, to));
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+// FILE: TextMagWriter.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+
+// Streams magnetization measurements to a text file, one number per line, as they are made.  Samples are collected
+// in a fixed-size chunk, which is formatted and written whenever it fills up, so memory use does not depend on the
+// length of the run.  This is the original .mag format, kept for compatibility.
+public class TextMagWriter implements MagWriter
+{
+    private static final int CHUNK = 1 << 16;
+    private final FileChannel channel;
+    private final BufferedWriter writer;
+    private final double[] chunk = new double[CHUNK];
+    private int filled = 0;
+
+    //
+    // Constructors.
+    //
+    public TextMagWriter(String filename) throws IOException
+    {
+        this(new FileOutputStream(filename));
+    }
+
+    // Continue a file, cut back to the given length.
+    public TextMagWriter(String filename, long bytes) throws IOException
+    {
+        this(new FileOutputStream(filename, true));
+        channel.truncate(bytes);
+    }
+
+    private TextMagWriter(FileOutputStream file)
+    {
+        channel = file.getChannel();
+        writer = new BufferedWriter(new OutputStreamWriter(file, StandardCharsets.UTF_8));
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public void add(double value) throws IOException
+    {
+        chunk[filled++] = value;
+        if (filled == CHUNK)
+        {
+            flush();
+        }
+    }
+
+    @Override
+    public void flush() throws IOException
+    {
+        for (int k = 0; k < filled; k++)
+        {
+            writer.write(String.format(Locale.US, "%.20f", chunk[k]));
+            writer.newLine();
+        }
+        filled = 0;
+        writer.flush();
+    }
+
+    @Override
+    public long getBytes() throws IOException
+    {
+        return channel.position();
+    }
+
+    @Override
+    public void close() throws IOException
+    {
+        flush();
+        writer.close();
+    }
+}
@@ -4,39 +4,132 @@
 
 import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
 import java.util.UUID;
 
+// Renders the magnet as a black and white image, spin down black and spin up white, with spin (i, j) at pixel
+// (i, j).  The pixels are packed straight into the data buffer of a TYPE_BYTE_BINARY image, eight to a byte, rather
+// than set one at a time through the color model.  Lattices larger than the maximum image size are downsampled:
+// each pixel then shows the majority spin of a square block, with ties shown as spin up.
 public class Visualizer
 {
+    private final boolean quiet;
+    private final int maxSize; // Largest image width in pixels.  Zero means one pixel per spin.
+
+    //
+    // Constructors.
+    //
+    public Visualizer()
+    {
+        this(false);
+    }
+
+    // A quiet visualizer does not report saved snapshots on the console.
+    public Visualizer(boolean quiet)
+    {
+        this(quiet, 0);
+    }
+
+    // As above, downsampling lattices wider than maxSize spins.
+    public Visualizer(boolean quiet, int maxSize)
+    {
+        this.quiet = quiet;
+        this.maxSize = maxSize;
+    }
 
     //
     // Public methods.
     //
 
-    public void makeSnapshot(UUID id, int[][] state)
+    public void makeSnapshot(UUID id, Magnet magnet)
     {
-        BufferedImage snapshot = new BufferedImage(state.length, state.length, BufferedImage.TYPE_BYTE_BINARY);
-        for (int i = 0; i < state.length; i++)
-        {
-            for (int j = 0; j < state.length; j++)
-            {
-                int color = state[i][j] == -1 ? 0x000000 : 0xFFFFFF;
-                snapshot.setRGB(i, j, color);
-            }
-        }
+        BufferedImage snapshot = render(magnet);
 
         try
         {
-            String filename = "Ising-snapshot-" + id.toString();
+            String filename = "Ising-snapshot-" + id.toString() + ".png";
             File snapshotImage = new File(filename);
             ImageIO.write(snapshot, "png", snapshotImage);
-            System.out.println("Snapshot saved.");
+            if (!quiet)
+            {
+                System.out.println("Snapshot saved.");
+            }
         }
         catch (IOException e)
         {
             System.err.println("Error saving snapshot: " + e.getMessage());
         }
     }
+
+    // Render the current state of the magnet.
+    public BufferedImage render(Magnet magnet)
+    {
+        int N = magnet.getN();
+        int scale = getScale(N);
+        int size = (N + scale - 1)/scale;
+        BufferedImage image = new BufferedImage(size, size, BufferedImage.TYPE_BYTE_BINARY);
+        byte[] pixels = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+        int stride = (size + 7) >>> 3; // Bytes per image row.
+
+        if (scale == 1)
+        {
+            for (int i = 0; i < N; i++)
+            {
+                int column = i >>> 3;
+                byte mask = (byte) (0x80 >>> (i & 7));
+                for (int j = 0; j < N; j++)
+                {
+                    if (magnet.getSpin(i, j) > 0)
+                    {
+                        pixels[j*stride + column] |= mask;
+                    }
+                }
+            }
+            return image;
+        }
+
+        // Sum the spins of each block in a column of blocks, then set the pixels of the blocks that are mostly up.
+        int[] blockSum = new int[size];
+        for (int x = 0; x < size; x++)
+        {
+            Arrays.fill(blockSum, 0);
+            int iEnd = Math.min(N, (x + 1)*scale);
+            for (int i = x*scale; i < iEnd; i++)
+            {
+                for (int y = 0, j = 0; y < size; y++)
+                {
+                    int jEnd = Math.min(N, j + scale);
+                    int sum = 0;
+                    for (; j < jEnd; j++)
+                    {
+                        sum += magnet.getSpin(i, j);
+                    }
+                    blockSum[y] += sum;
+                }
+            }
+            int column = x >>> 3;
+            byte mask = (byte) (0x80 >>> (x & 7));
+            for (int y = 0; y < size; y++)
+            {
+                if (blockSum[y] >= 0)
+                {
+                    pixels[y*stride + column] |= mask;
+                }
+            }
+        }
+        return image;
+    }
+
+    //
+    // Getters, setters, and misc.
+    //
+
+    // Spins per pixel along each side.
+    public int getScale(int N)
+    {
+        return maxSize <= 0 || N <= maxSize ? 1 : (N + maxSize - 1)/maxSize;
+    }
 }
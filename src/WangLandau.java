@@ -0,0 +1,299 @@
+// FILE: WangLandau.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+// Wang-Landau sampling of the density of states g(E) at h = 0 (-wanglandau=true), for the thermodynamics at every
+// temperature at once.  A walker flips random spins of its own lattice, accepting a move from level E to E' with
+// probability min(1, g(E)/g(E')), and after every move multiplies g at the level it is on by the modification factor
+// f and counts the visit.  Once the visits are flat, i.e. no level visited so far has fewer than -flatness times
+// their mean, ln f is halved and the counts cleared, until ln f falls below -lnf.
+//
+// The energies E = -B of the lattice are spaced by 4, so ln g is a plain array over the N^2 + 1 levels counted from
+// the ground state.  With -windows=K the levels are split into K windows, each overlapping half of its neighbors, and
+// sampled in parallel by independent walkers, which reject moves that leave their window.  At the end the windows
+// are joined where the slopes of ln g agree best and g is normalized to the 2^(N^2) states of the lattice.  The
+// result is written as Ising-dos-<ID>.dos (see DensityOfStates).
+public class WangLandau
+{
+    private final Communicator comms;
+    private final int N;
+    private final int levels;
+    private final Walker[] walkers;
+    private final ExecutorService pool;
+
+    //
+    // Constructor.
+    //
+    public WangLandau(Communicator comms)
+    {
+        this.comms = comms;
+        this.N = comms.getN();
+        this.levels = N*N + 1;
+
+        // Window k spans the segments k and k + 1 of K + 1 equal segments of the levels.
+        int K = comms.getWindows();
+        Rng rng = Rng.create(comms.getRngName(), comms.getSeed());
+        walkers = new Walker[K];
+        for (int k = 0; k < K; k++)
+        {
+            int first = (int) ((long) k*(levels - 1)/(K + 1));
+            int last = (int) ((long) (k + 2)*(levels - 1)/(K + 1));
+            walkers[k] = new Walker(k, first, last, rng.split());
+        }
+        pool = Executors.newFixedThreadPool(Math.min(K, comms.getThreads()));
+    }
+
+    //
+    // Public methods.
+    //
+
+    // Sample every window to the final modification factor, then join them and save the density of states.
+    public void run()
+    {
+        long startTime = System.nanoTime();
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (Walker walker : walkers)
+        {
+            tasks.add(() ->
+            {
+                walker.enterWindow();
+                walker.sample();
+                return null;
+            });
+        }
+        comms.informInitDone();
+        try
+        {
+            for (Future<Void> future : pool.invokeAll(tasks))
+            {
+                future.get();
+            }
+        }
+        catch (InterruptedException | ExecutionException e)
+        {
+            throw new IllegalStateException("Wang-Landau walker failed: " + e.getMessage(), e);
+        }
+        finally
+        {
+            pool.shutdown();
+        }
+        double seconds = (System.nanoTime() - startTime)*1e-9;
+
+        long[] sweeps = new long[walkers.length];
+        for (int k = 0; k < walkers.length; k++)
+        {
+            sweeps[k] = walkers[k].sweeps;
+        }
+        DensityOfStates dos = new DensityOfStates(N, join());
+        OutputStage output = new OutputStage();
+        output.submit(() -> comms.writeDensityOfStates(dos));
+        output.submit(() -> comms.writeWangLandauLog(dos, sweeps, seconds));
+        output.finish();
+        comms.bye();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Join the windows into one ln g.  Each window is shifted to agree with those below it at the level in the
+    // overlap where the slopes of ln g agree best, and takes over from the next level up.  Levels never visited
+    // are left at -infinity, and the result is normalized so that the sum of g is 2^(N^2).
+    private double[] join()
+    {
+        double[] logG = new double[levels];
+        Arrays.fill(logG, Double.NEGATIVE_INFINITY);
+        Walker lowest = walkers[0];
+        for (int e = lowest.first; e <= lowest.last; e++)
+        {
+            if (lowest.logG[e] > 0)
+            {
+                logG[e] = lowest.logG[e];
+            }
+        }
+        for (int k = 1; k < walkers.length; k++)
+        {
+            Walker walker = walkers[k];
+            int join = -1;
+            double best = Double.POSITIVE_INFINITY;
+            for (int e = walker.first; e < walkers[k-1].last; e++)
+            {
+                if (logG[e] > Double.NEGATIVE_INFINITY && logG[e+1] > Double.NEGATIVE_INFINITY
+                        && walker.logG[e] > 0 && walker.logG[e+1] > 0)
+                {
+                    double mismatch = Math.abs((logG[e+1] - logG[e]) - (walker.logG[e+1] - walker.logG[e]));
+                    if (mismatch < best)
+                    {
+                        best = mismatch;
+                        join = e;
+                    }
+                }
+            }
+            if (join < 0)
+            {
+                throw new IllegalStateException("Energy windows " + (k - 1) + " and " + k + " do not overlap.");
+            }
+            double shift = logG[join] - walker.logG[join];
+            for (int e = join + 1; e <= walker.last; e++)
+            {
+                logG[e] = walker.logG[e] > 0 ? walker.logG[e] + shift : Double.NEGATIVE_INFINITY;
+            }
+        }
+
+        double largest = Double.NEGATIVE_INFINITY;
+        for (double value : logG)
+        {
+            largest = Math.max(largest, value);
+        }
+        double sum = 0;
+        for (double value : logG)
+        {
+            sum += Math.exp(value - largest);
+        }
+        double shift = (double) N*N*Math.log(2) - largest - Math.log(sum);
+        for (int e = 0; e < levels; e++)
+        {
+            logG[e] += shift;
+        }
+        return logG;
+    }
+
+    // A walker confined to the levels first .. last, with its own lattice and generator.
+    private class Walker
+    {
+        private final int window;
+        private final int first;
+        private final int last;
+        private final Spins spins;
+        private final int[][] state;
+        private final Rng rng;
+        private final double[] logG = new double[levels]; // Zero for levels not visited yet.
+        private final long[] visits = new long[levels];
+        private int level;
+        private long sweeps = 0;
+
+        Walker(int window, int first, int last, Rng rng)
+        {
+            this.window = window;
+            this.first = first;
+            this.last = last;
+            this.rng = rng;
+
+            // The lattice starts in the ground state, or in the initial state if one is given.
+            Communicator quiet = comms.copy();
+            quiet.setQuiet(true);
+            spins = new Spins(quiet, 0, rng);
+            state = spins.getState();
+            level = (int) ((2L*N*N - spins.getBondSum())/4);
+        }
+
+        // Walk into the window from the nearer end of the spectrum: upwards from the ground state, or downwards from
+        // the checkerboard state, the highest level of an even lattice.  Moves away from the window are rejected.
+        void enterWindow()
+        {
+            if (first + last > levels - 1)
+            {
+                for (int i = 0; i < N; i++)
+                {
+                    for (int j = 0; j < N; j++)
+                    {
+                        if (((i + j) & 1) == 1)
+                        {
+                            flip(i, j, levelChange(i, j));
+                        }
+                    }
+                }
+            }
+            long limit = 1000L*N*N;
+            for (long t = 0; (level < first || level > last) && t < limit; t++)
+            {
+                int i = rng.nextInt(N);
+                int j = rng.nextInt(N);
+                int change = levelChange(i, j);
+                if (level < first ? change >= 0 : change <= 0)
+                {
+                    flip(i, j, change);
+                }
+            }
+            if (level < first || level > last)
+            {
+                throw new IllegalStateException("Energy window " + window + " cannot be reached.");
+            }
+        }
+
+        // Sample the window until ln f falls below its final value.  The visits are checked for flatness every
+        // sweep, but no more often than every 10^4 moves, so that a few visits by chance do not pass as flat.
+        void sample()
+        {
+            double lnF = 1;
+            double finalLnF = comms.getFinalLnF();
+            long moves = (long) N*N;
+            long checkInterval = Math.max(1, 10000/moves);
+            while (lnF >= finalLnF)
+            {
+                for (long t = 0; t < moves; t++)
+                {
+                    int i = rng.nextInt(N);
+                    int j = rng.nextInt(N);
+                    int change = levelChange(i, j);
+                    int target = level + change;
+                    if (target >= first && target <= last && (logG[target] <= logG[level]
+                            || rng.nextDouble() < Math.exp(logG[level] - logG[target])))
+                    {
+                        flip(i, j, change);
+                    }
+                    logG[level] += lnF;
+                    visits[level]++;
+                }
+                sweeps++;
+                if (sweeps % checkInterval == 0 && isFlat())
+                {
+                    lnF /= 2;
+                    Arrays.fill(visits, 0);
+                    comms.informWindow(window, lnF, sweeps);
+                }
+            }
+        }
+
+        // Whether no level visited so far has fewer visits than the flatness times the mean.
+        private boolean isFlat()
+        {
+            long total = 0;
+            long fewest = Long.MAX_VALUE;
+            int visited = 0;
+            for (int e = first; e <= last; e++)
+            {
+                if (logG[e] > 0)
+                {
+                    total += visits[e];
+                    fewest = Math.min(fewest, visits[e]);
+                    visited++;
+                }
+            }
+            return fewest >= comms.getFlatness()*total/visited;
+        }
+
+        // Change of level on flipping spin (i, j): the energy changes by 4 per level.
+        private int levelChange(int i, int j)
+        {
+            return (int) spins.getEnergyChange(i, j)/4;
+        }
+
+        private void flip(int i, int j, int change)
+        {
+            int spin = state[i][j];
+            state[i][j] = -spin;
+            spins.addTotals(-2*spin, -4*change);
+            level += change;
+        }
+    }
+}
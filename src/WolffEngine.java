@@ -0,0 +1,161 @@
+// FILE: WolffEngine.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+
+// Wolff single-cluster updates.  A cluster is grown from a random seed spin by adding aligned neighbors with the
+// bond probability 1 - exp(-2/T), and then flipped as a whole.  Sites are held as primitive indices i*N + j in a
+// reusable queue, and cluster membership is marked with a per-cluster stamp, so a step allocates nothing.
+// A nonzero field is handled with a ghost spin aligned with h: every cluster spin aligned with the field is bonded
+// to the ghost with probability 1 - exp(-2|h|/T), and a cluster bonded to the ghost is not flipped.  One step is one
+// cluster; the attempted moves are the cluster sizes, so a "sweep" is N*N spins in clusters.
+public class WolffEngine implements Engine
+{
+    private final Spins magnet;
+    private final int N;
+    private final int[][] state;
+    private final int[] next;
+    private final int[] prev;
+    private final Rng rng;
+    private final int[] cluster;
+    private final int[] mark;
+    private int stamp = 0;
+    private double T;
+    private double h;
+    private long bondThreshold;
+    private long ghostThreshold;
+    private long moves = 0;
+
+    //
+    // Constructor.
+    //
+    public WolffEngine(Spins magnet)
+    {
+        this.magnet = magnet;
+        this.N = magnet.getN();
+        this.state = magnet.getState();
+        this.next = magnet.getNext();
+        this.prev = magnet.getPrev();
+        this.rng = magnet.getRng();
+        this.cluster = new int[N*N];
+        this.mark = new int[N*N];
+        makeProbabilities();
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long step()
+    {
+        if (magnet.getT() != T || magnet.getH() != h)
+        {
+            makeProbabilities();
+        }
+        if (++stamp == Integer.MAX_VALUE)
+        {
+            Arrays.fill(mark, 0);
+            stamp = 1;
+        }
+
+        // Choose the seed spin at random.
+        int seed = rng.nextInt(N*N);
+        int sigma = state[seed/N][seed%N];
+        boolean ghost = (h > 0 && sigma == +1) || (h < 0 && sigma == -1);
+        cluster[0] = seed;
+        mark[seed] = stamp;
+        int size = 1;
+
+        // Grow the cluster breadth first.
+        for (int head = 0; head < size; head++)
+        {
+            // A spin aligned with the field may bond to the ghost spin, in which case the cluster stays put.
+            if (ghost && (rng.nextLong() >>> 11) < ghostThreshold)
+            {
+                moves += size;
+                return 0;
+            }
+
+            int site = cluster[head];
+            int i = site/N;
+            int j = site - i*N;
+            size = tryAdd(next[i]*N + j, sigma, size);
+            size = tryAdd(prev[i]*N + j, sigma, size);
+            size = tryAdd(i*N + next[j], sigma, size);
+            size = tryAdd(i*N + prev[j], sigma, size);
+        }
+
+        // Only bonds between the cluster and its outside change when the cluster is flipped.
+        long outside = 0;
+        for (int k = 0; k < size; k++)
+        {
+            int site = cluster[k];
+            int i = site/N;
+            int j = site - i*N;
+            outside += outsideSpin(next[i], j) + outsideSpin(prev[i], j) + outsideSpin(i, next[j])
+                    + outsideSpin(i, prev[j]);
+        }
+        for (int k = 0; k < size; k++)
+        {
+            int site = cluster[k];
+            state[site/N][site%N] = -sigma;
+        }
+        magnet.addTotals(-2L*sigma*size, -2L*sigma*outside);
+
+        moves += size;
+        return size;
+    }
+
+    @Override
+    public long getMoves()
+    {
+        return moves;
+    }
+
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeLong(moves);
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        moves = in.readLong();
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Add an aligned neighbor that is not yet in the cluster with the bond probability.  Returns the new size.
+    private int tryAdd(int site, int sigma, int size)
+    {
+        if (mark[site] != stamp && state[site/N][site%N] == sigma && (rng.nextLong() >>> 11) < bondThreshold)
+        {
+            mark[site] = stamp;
+            cluster[size++] = site;
+        }
+        return size;
+    }
+
+    // Spin (i, j) if it is outside the current cluster, and zero otherwise.
+    private int outsideSpin(int i, int j)
+    {
+        return mark[i*N + j] == stamp ? 0 : state[i][j];
+    }
+
+    // Bond probabilities as 53-bit thresholds, in the same scale as the acceptance table in Spins.
+    private void makeProbabilities()
+    {
+        T = magnet.getT();
+        h = magnet.getH();
+        bondThreshold = (long) (-Math.expm1(-2.0/T) * Spins.ALWAYS);
+        ghostThreshold = (long) (-Math.expm1(-2.0*Math.abs(h)/T) * Spins.ALWAYS);
+    }
+}
@@ -0,0 +1,115 @@
+// FILE: XoshiroRng.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+// The xoshiro256** generator of Blackman and Vigna.  Independent streams are split off with the jump function,
+// which advances the generator by 2^128 steps.
+public class XoshiroRng implements Rng
+{
+    private static final long[] JUMP = {0x180ec6d33cfd0abaL, 0xd5a61266f0c9392cL, 0xa9582618e03fc9aaL,
+            0x39abdc4529b1661cL};
+    private long s0;
+    private long s1;
+    private long s2;
+    private long s3;
+
+    //
+    // Constructors.
+    //
+    public XoshiroRng(long seed)
+    {
+        // Expand the seed with SplitMix64, as recommended by the authors.
+        SplitMixRng seeder = new SplitMixRng(seed);
+        s0 = seeder.nextLong();
+        s1 = seeder.nextLong();
+        s2 = seeder.nextLong();
+        s3 = seeder.nextLong();
+    }
+
+    private XoshiroRng(long s0, long s1, long s2, long s3)
+    {
+        this.s0 = s0;
+        this.s1 = s1;
+        this.s2 = s2;
+        this.s3 = s3;
+    }
+
+    //
+    // Public methods.
+    //
+
+    @Override
+    public long nextLong()
+    {
+        long result = Long.rotateLeft(s1*5, 7)*9;
+        long t = s1 << 17;
+        s2 ^= s0;
+        s3 ^= s1;
+        s1 ^= s2;
+        s0 ^= s3;
+        s2 ^= t;
+        s3 = Long.rotateLeft(s3, 45);
+        return result;
+    }
+
+    // The child continues from the current state, and this generator jumps ahead by 2^128 steps.
+    @Override
+    public void save(DataOutput out) throws IOException
+    {
+        out.writeLong(s0);
+        out.writeLong(s1);
+        out.writeLong(s2);
+        out.writeLong(s3);
+    }
+
+    @Override
+    public void restore(DataInput in) throws IOException
+    {
+        s0 = in.readLong();
+        s1 = in.readLong();
+        s2 = in.readLong();
+        s3 = in.readLong();
+    }
+
+    @Override
+    public Rng split()
+    {
+        XoshiroRng child = new XoshiroRng(s0, s1, s2, s3);
+        jump();
+        return child;
+    }
+
+    //
+    // Private methods.
+    //
+
+    private void jump()
+    {
+        long t0 = 0;
+        long t1 = 0;
+        long t2 = 0;
+        long t3 = 0;
+        for (long word : JUMP)
+        {
+            for (int b = 0; b < 64; b++)
+            {
+                if ((word & (1L << b)) != 0)
+                {
+                    t0 ^= s0;
+                    t1 ^= s1;
+                    t2 ^= s2;
+                    t3 ^= s3;
+                }
+                nextLong();
+            }
+        }
+        s0 = t0;
+        s1 = t1;
+        s2 = t2;
+        s3 = t3;
+    }
+}
@@ -0,0 +1,196 @@
+// FILE: VectorRowKernel.java
+// DATE: October 17, 2026
+// AUTHOR: Timothy Prisk; tprisk@gmail.com
+
+import java.util.Arrays;
+import jdk.incubator.vector.IntVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+// The checkerboard row update on the Vector API, in as many int lanes as the hardware has (8 with AVX2, 16 with
+// AVX-512).  A vector covers consecutive sites of both colors: the neighbor sums are added lane by lane, the
+// acceptance thresholds are looked up by blending, and the flips of the sites of the wanted color are blended into
+// the row.  The other lanes are written back unchanged.  The two wrapped edge sites, and any sites left over at the
+// end of the row, are updated one by one with the same thresholds and random numbers.
+//
+// The random numbers are drawn for the whole row first, two 30-bit numbers per nextLong, one for every site of the
+// color whether or not its move is always accepted.  Each is taken as the top 30 bits of a 53-bit number and compared
+// against the top 30 bits of the threshold.  Only when the two are equal are the other 23 bits drawn and compared,
+// so moves are accepted with the full 53-bit precision of the scalar kernel, although one in 2^30 moves draws a
+// second number.  So runs with this kernel are reproducible, but do not repeat runs with the scalar kernel exactly.
+//
+// Built from vector/ with --add-modules jdk.incubator.vector, and only usable when the program runs with the same
+// option; RowKernel.create falls back to the scalar kernel otherwise.
+public class VectorRowKernel implements RowKernel
+{
+    private static final VectorSpecies<Integer> SPECIES = IntVector.SPECIES_PREFERRED;
+    private static final int BITS = 30; // Bits of the random numbers and thresholds.
+    private static final int MASK = (1 << BITS) - 1;
+    private static final int LOW_BITS = 53 - BITS; // Bits left to draw when a random number equals its threshold.
+    private static final int TABLE = 10; // Entries of the acceptance table (see Spins.tableIndex).
+    private final int N;
+    private final int[] next;
+    private final int[] prev;
+    private final long[] acceptThreshold; // The magnet's table, rebuilt in place when its T or h changes.
+    private final long[] fullThreshold = new long[TABLE]; // The table the thresholds below were made from.
+    private final int[] threshold = new int[TABLE];
+    private final int[] random;
+    private final VectorMask<Integer> evenLanes;
+    private final VectorMask<Integer> oddLanes;
+
+    //
+    // Constructor.
+    //
+    public VectorRowKernel(int N, int[] next, int[] prev, long[] acceptThreshold)
+    {
+        this.N = N;
+        this.next = next;
+        this.prev = prev;
+        this.acceptThreshold = acceptThreshold;
+        random = new int[N];
+        makeThresholds();
+        boolean[] even = new boolean[SPECIES.length()];
+        for (int l = 0; l < even.length; l += 2)
+        {
+            even[l] = true;
+        }
+        evenLanes = VectorMask.fromArray(SPECIES, even, 0);
+        oddLanes = evenLanes.not();
+    }
+
+    //
+    // Public methods.
+    //
+
+    // The lane shape in use, e.g. "Species[int, 8, S_256_BIT]".  Fails if the Vector API is unavailable.
+    public static String species()
+    {
+        return SPECIES.toString();
+    }
+
+    @Override
+    public void update(int[] row, int[] up, int[] down, int first, Rng rng, long[] totals)
+    {
+        if (!Arrays.equals(fullThreshold, acceptThreshold))
+        {
+            makeThresholds();
+        }
+        for (int j = first; j < N; j += 4)
+        {
+            long bits = rng.nextLong();
+            random[j] = (int) (bits >>> (64 - BITS));
+            if (j + 2 < N)
+            {
+                random[j + 2] = (int) bits & MASK;
+            }
+        }
+
+        // Whole vectors over the sites 1 .. N-2, whose neighbors in the row do not wrap.  The vectors start at odd
+        // sites, so the lanes of the wanted color are the same in all of them.
+        int L = SPECIES.length();
+        VectorMask<Integer> color = (first & 1) == 1 ? evenLanes : oddLanes;
+        IntVector magAcc = IntVector.zero(SPECIES);
+        IntVector bondAcc = IntVector.zero(SPECIES);
+        long accepted = 0;
+        int j = 1;
+        for (; j + L < N; j += L)
+        {
+            IntVector spin = IntVector.fromArray(SPECIES, row, j);
+            IntVector sum = IntVector.fromArray(SPECIES, up, j)
+                    .add(IntVector.fromArray(SPECIES, down, j))
+                    .add(IntVector.fromArray(SPECIES, row, j - 1))
+                    .add(IntVector.fromArray(SPECIES, row, j + 1));
+
+            // Spins.tableIndex, lane by lane, and the thresholds it selects.
+            IntVector index = spin.add(1).lanewise(VectorOperators.ASHR, 1).mul(5)
+                    .add(sum.add(4).lanewise(VectorOperators.ASHR, 1));
+            IntVector limit = IntVector.broadcast(SPECIES, threshold[0]);
+            for (int k = 1; k < TABLE; k++)
+            {
+                limit = limit.blend(threshold[k], index.eq(k));
+            }
+
+            IntVector draw = IntVector.fromArray(SPECIES, random, j);
+            VectorMask<Integer> flip = draw.lt(limit).and(color);
+            VectorMask<Integer> tie = draw.eq(limit).and(color);
+            spin.lanewise(VectorOperators.NEG, flip).intoArray(row, j);
+            IntVector flipped = IntVector.zero(SPECIES).blend(spin, flip);
+            magAcc = magAcc.add(flipped);
+            bondAcc = bondAcc.add(flipped.mul(sum));
+            accepted += flip.trueCount();
+            if (tie.anyTrue())
+            {
+                flipTies(row, up, down, j, tie.toLong(), rng, totals);
+            }
+        }
+        long dMag = -2L*magAcc.reduceLanes(VectorOperators.ADD);
+        long dBond = -2L*bondAcc.reduceLanes(VectorOperators.ADD);
+
+        // The first site and the sites from j on, one by one.
+        for (int site = 0; site < N; site = Math.max(site + 1, j))
+        {
+            if ((site & 1) == (first & 1))
+            {
+                int spin = row[site];
+                int sum = up[site] + down[site] + row[next[site]] + row[prev[site]];
+                if (accept(random[site], Spins.tableIndex(spin, sum), rng))
+                {
+                    row[site] = -spin;
+                    dMag -= 2*spin;
+                    dBond -= 2*spin*sum;
+                    accepted++;
+                }
+            }
+        }
+        totals[0] += dMag;
+        totals[1] += dBond;
+        totals[2] += accepted;
+    }
+
+    //
+    // Private methods.
+    //
+
+    // Thresholds of 30 bits from the magnet's table; always accepted moves get 2^30, which every random number is
+    // below.
+    private void makeThresholds()
+    {
+        System.arraycopy(acceptThreshold, 0, fullThreshold, 0, TABLE);
+        for (int k = 0; k < TABLE; k++)
+        {
+            threshold[k] = fullThreshold[k] == Spins.ALWAYS ? 1 << BITS : (int) (fullThreshold[k] >>> LOW_BITS);
+        }
+    }
+
+    // Whether a move with the 30-bit random number r and table entry k is accepted.
+    private boolean accept(int r, int k, Rng rng)
+    {
+        return r < threshold[k] || (r == threshold[k] && acceptTie(k, rng));
+    }
+
+    // Decide the moves of the sites from j on whose random numbers equal their thresholds, one bit of lanes each, and
+    // flip those accepted.  The vector left these sites as they were.
+    private void flipTies(int[] row, int[] up, int[] down, int j, long lanes, Rng rng, long[] totals)
+    {
+        for (; lanes != 0; lanes &= lanes - 1)
+        {
+            int site = j + Long.numberOfTrailingZeros(lanes);
+            int spin = row[site];
+            int sum = up[site] + down[site] + row[next[site]] + row[prev[site]];
+            if (acceptTie(Spins.tableIndex(spin, sum), rng))
+            {
+                row[site] = -spin;
+                totals[0] -= 2*spin;
+                totals[1] -= 2*spin*sum;
+                totals[2]++;
+            }
+        }
+    }
+
+    // A random number equal to the top bits of its threshold is decided by the threshold's low bits.
+    private boolean acceptTie(int k, Rng rng)
+    {
+        return (rng.nextLong() >>> (64 - LOW_BITS)) < (fullThreshold[k] & ((1L << LOW_BITS) - 1));
+    }
+}